@@ -0,0 +1,99 @@
+package com.nomos.store.service.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Céntimos {@code long} contra la aritmética anterior sobre {@code Double}. Las variantes {@code legacy*}
+ * son copias literales del código previo a {@link Money} (reparto de cuotas, IGV, cuadre del asiento).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    @Param({"1", "12", "60", "360"})
+    public int installments;
+
+    private double totalAmount;
+    private List<AccountingJournalLine> lines;
+
+    @Setup
+    public void setUp() {
+        totalAmount = 12_345.67;
+        lines = new ArrayList<>();
+        for (int i = 0; i < installments; i++) {
+            lines.add(AccountingJournalLine.builder().debit(10.01).credit(0.0).build());
+            lines.add(AccountingJournalLine.builder().debit(0.0).credit(10.01).build());
+        }
+    }
+
+    @Benchmark
+    public void splitInstallmentsCents(Blackhole bh) {
+        long totalCents = Money.toCents(totalAmount);
+        long regular = Money.divide(totalCents, installments, RoundingMode.HALF_UP);
+        long last = totalCents - regular * (installments - 1);
+        for (int i = 1; i <= installments; i++) {
+            bh.consume(i == installments ? last : regular);
+        }
+    }
+
+    @Benchmark
+    public void splitInstallmentsLegacyDouble(Blackhole bh) {
+        int n = installments;
+        Double total = totalAmount;
+        double rawAmount = total / n;
+        double roundedAmount = Math.round(rawAmount * 100.0) / 100.0;
+        double accumulated = 0.0;
+        for (int i = 1; i <= n; i++) {
+            double currentAmount;
+            if (i == n) {
+                currentAmount = Math.round((total - accumulated) * 100.0) / 100.0;
+            } else {
+                currentAmount = roundedAmount;
+            }
+            accumulated += currentAmount;
+            bh.consume((Double) currentAmount);
+        }
+    }
+
+    @Benchmark
+    public long igvSplitCents() {
+        long totalCents = Money.toCents(totalAmount);
+        long base = Money.multiply(totalCents, 100, 118, RoundingMode.HALF_UP);
+        return base ^ (totalCents - base);
+    }
+
+    @Benchmark
+    public void igvSplitLegacyDouble(Blackhole bh) {
+        Double amount = totalAmount;
+        double baseImponible = amount / 1.18;
+        double igv = amount - baseImponible;
+        bh.consume((Double) (Math.round(igv * 100.0) / 100.0));
+        bh.consume((Double) (Math.round(baseImponible * 100.0) / 100.0));
+    }
+
+    @Benchmark
+    public boolean isBalancedCents() {
+        long balanceCents = 0;
+        for (AccountingJournalLine line : lines) {
+            balanceCents += Money.toCents(line.getDebit()) - Money.toCents(line.getCredit());
+        }
+        return balanceCents == 0;
+    }
+
+    @Benchmark
+    public boolean isBalancedLegacyDouble() {
+        double totalDebit = lines.stream().mapToDouble(AccountingJournalLine::getDebit).sum();
+        double totalCredit = lines.stream().mapToDouble(AccountingJournalLine::getCredit).sum();
+        return Math.abs(totalDebit - totalCredit) < 0.001;
+    }
+}
@@ -0,0 +1,93 @@
+package com.nomos.store.service.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imputación de cobros sobre el cronograma: lo que corre en cada POST /api/store/collections.
+ * <p>
+ * La mitad de las cuotas está vencida para que la mora entre en juego. Los métodos mutan el estado,
+ * así que la cuenta se reconstruye antes de cada invocación (Level.Invocation); el costo de
+ * reconstrucción queda fuera de la medición.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReceivablePaymentBenchmark {
+
+    private static final double INSTALLMENT_AMOUNT = 150.0;
+
+    @Param({"1", "12", "60", "360"})
+    public int installments;
+
+    private final LocalDate asOf = LocalDate.now();
+    private AccountsReceivable receivable;
+    private Collection oneInstallmentPayment;
+    private Collection fullPayment;
+
+    @Setup(Level.Invocation)
+    public void buildReceivable() {
+        LocalDate firstDue = LocalDate.now().minusMonths(installments / 2);
+        List<Installment> schedule = new ArrayList<>(installments);
+        for (int i = 0; i < installments; i++) {
+            schedule.add(Installment.builder()
+                    .number(i + 1)
+                    .dueDate(firstDue.plusMonths(i))
+                    .expectedAmount(INSTALLMENT_AMOUNT)
+                    .status(InstallmentStatus.PENDING)
+                    .build());
+        }
+        // Sin @OrderBy el orden de carga no está garantizado: el inverso mide el peor caso del ordenamiento.
+        schedule = schedule.reversed();
+
+        receivable = AccountsReceivable.builder()
+                .totalAmount(INSTALLMENT_AMOUNT * installments)
+                .status(AccountsReceivableStatus.ACTIVE)
+                .installments(new ArrayList<>(schedule))
+                .build();
+        schedule.forEach(i -> i.setAccountsReceivable(receivable));
+
+        oneInstallmentPayment = Collection.builder().amount(INSTALLMENT_AMOUNT).status("ACTIVO").build();
+        fullPayment = Collection.builder().amount(INSTALLMENT_AMOUNT * installments * 2).status("ACTIVO").build();
+    }
+
+    /** Cobro típico: cubre la cuota más antigua (ordena las pendientes en cada llamada). */
+    @Benchmark
+    public AccountsReceivable applyPaymentOldestInstallment() {
+        receivable.applyPayment(oneInstallmentPayment, null);
+        return receivable;
+    }
+
+    /** Cancelación total: recorre todas las cuotas. */
+    @Benchmark
+    public AccountsReceivable applyPaymentSettlesAll() {
+        receivable.applyPayment(fullPayment, null);
+        return receivable;
+    }
+
+    /** Imputación cuota a cuota (mora primero, luego capital), sin el ordenamiento de la cuenta. */
+    @Benchmark
+    public double installmentApplyPaymentLogic() {
+        double remaining = INSTALLMENT_AMOUNT * installments * 2;
+        for (Installment installment : receivable.getInstallments()) {
+            remaining = installment.applyPaymentLogic(remaining);
+        }
+        return remaining;
+    }
+
+    /** Mora de todo el cronograma a una fecha, como la calcula el devengo diario. */
+    @Benchmark
+    public void calculatedPenalty(Blackhole bh) {
+        for (Installment installment : receivable.getInstallments()) {
+            bh.consume(installment.calculatedPenaltyCents(asOf));
+        }
+    }
+}
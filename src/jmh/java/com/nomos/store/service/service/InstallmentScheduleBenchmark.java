@@ -0,0 +1,66 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.PaymentConditionEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Armado del cronograma al crear una venta a crédito ({@link SaleService#generateInstallments}
+ * y {@link SaleService#calculateDueDate}) y cronograma francés con interés de una cotización
+ * ({@link AmortizationEngine#schedule}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstallmentScheduleBenchmark {
+
+    @Param({"1", "12", "60", "360"})
+    public int installments;
+
+    private SaleCreationRequest request;
+    private AccountsReceivable receivable;
+    private LocalDate baseDate;
+    private AmortizationEngine.Plan frenchPlan;
+
+    @Setup
+    public void setUp() {
+        request = new SaleCreationRequest();
+        request.setSaleDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+        request.setPaymentCondition(PaymentConditionEnum.CREDITO.name());
+        request.setNumberOfInstallments(installments);
+        baseDate = request.getSaleDate().toLocalDate();
+        frenchPlan = new AmortizationEngine.Plan(installments, 36.0,
+                AmortizationEngine.Method.FRENCH, AmortizationEngine.Frequency.MONTHLY);
+        receivable = AccountsReceivable.builder()
+                .totalAmount(12_345.67)
+                .status(AccountsReceivableStatus.ACTIVE)
+                .build();
+    }
+
+    @Benchmark
+    public List<Installment> generateInstallments() {
+        return SaleService.generateInstallments(receivable, PaymentConditionEnum.CREDITO,
+                installments, baseDate, receivable.getTotalAmount());
+    }
+
+    @Benchmark
+    public AmortizationEngine.Schedule frenchQuote() {
+        return AmortizationEngine.schedule(frenchPlan, 1_234_567, baseDate);
+    }
+
+    @Benchmark
+    public LocalDate calculateDueDate() {
+        return SaleService.calculateDueDate(request, PaymentConditionEnum.CREDITO);
+    }
+}
@@ -0,0 +1,75 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.ReceivableEvent;
+import com.nomos.store.service.model.ReceivableEventType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconstrucción de una cuenta con {@link ReceivableLedger#replay}: desde el primer evento contra desde el
+ * último snapshot (cola de a lo sumo {@code snapshot-interval} eventos, 50 por defecto).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReceivableReplayBenchmark {
+
+    private static final int INSTALLMENTS = 12;
+    private static final int SNAPSHOT_INTERVAL = 50;
+
+    @Param({"100", "300", "1000"})
+    public int events;
+
+    private List<ReceivableEvent> all;
+    private ReceivableLedger.State snapshot;
+    private List<ReceivableEvent> tail;
+
+    @Setup
+    public void setUp() {
+        LocalDate base = LocalDate.of(2025, 1, 15);
+        LocalDateTime at = base.atTime(10, 0);
+        all = new ArrayList<>(events);
+        for (int n = 1; n <= INSTALLMENTS; n++) {
+            all.add(event(n, ReceivableEventType.CHARGE, base.plusMonths(n), 1_000.0, n, null, at));
+        }
+        // Pagos chicos: la deuda (12.000) alcanza para todos sin saldar la cuenta.
+        for (int n = INSTALLMENTS + 1; n <= events; n++) {
+            all.add(event(n, ReceivableEventType.PAYMENT, base.plusDays(n % 28), 7.5, null, (long) n, at.plusMinutes(n)));
+        }
+        int snapshotAt = (events / SNAPSHOT_INTERVAL) * SNAPSHOT_INTERVAL;
+        if (snapshotAt == events) snapshotAt -= SNAPSHOT_INTERVAL;
+        snapshot = ReceivableLedger.replay(ReceivableLedger.State.EMPTY, all.subList(0, snapshotAt));
+        tail = List.copyOf(all.subList(snapshotAt, events));
+    }
+
+    @Benchmark
+    public ReceivableLedger.State replayFromStart() {
+        return ReceivableLedger.replay(ReceivableLedger.State.EMPTY, all);
+    }
+
+    @Benchmark
+    public ReceivableLedger.State replayFromSnapshot() {
+        return ReceivableLedger.replay(snapshot, tail);
+    }
+
+    private static ReceivableEvent event(long sequence, ReceivableEventType type, LocalDate date, double amount,
+                                         Integer installmentNumber, Long collectionId, LocalDateTime occurredAt) {
+        return ReceivableEvent.builder()
+                .id(new ReceivableEvent.Key(1L, sequence))
+                .type(type)
+                .eventDate(date)
+                .amount(amount)
+                .installmentNumber(installmentNumber)
+                .collectionId(collectionId)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.nomos.store.service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Reloj del que sale "hoy" para cobros, mora y jobs diarios; los tests lo reemplazan por uno fijo.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
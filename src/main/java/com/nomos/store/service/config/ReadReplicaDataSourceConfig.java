@@ -0,0 +1,120 @@
+package com.nomos.store.service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Enrutamiento de lecturas a una réplica ({@code store.datasource.replica.enabled=true}).
+ * <p>
+ * El {@code DataSource} principal es un {@link LazyConnectionDataSourceProxy}: la conexión física
+ * se pide recién en la primera sentencia, cuando ya se sabe si la transacción es
+ * {@code @Transactional(readOnly = true)}. Las de solo lectura toman la conexión de
+ * {@link ReplicaFallbackDataSource}; el resto, incluido el DDL de Hibernate, va al primario
+ * configurado en {@code spring.datasource.*}.
+ * <p>
+ * Con {@code spring.jpa.open-in-view=true} la sesión de Hibernate dura toda la solicitud. Para que
+ * cada transacción se enrute por separado, la sesión suelta la conexión al terminar cada transacción
+ * y el origen se decide con el estado de la transacción en curso, no con la primera conexión.
+ */
+@Configuration
+@ConditionalOnProperty(name = "store.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Pool de la réplica. Arranca aunque la réplica no responda y espera poco por una conexión,
+     * para caer pronto al primario; se ajusta con {@code store.datasource.replica.hikari.*}.
+     */
+    @Bean
+    @ConfigurationProperties("store.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${store.datasource.replica.url}") String url,
+                                              @Value("${store.datasource.replica.username:}") String username,
+                                              @Value("${store.datasource.replica.password:}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setConnectionTimeout(2000);
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaFallbackDataSource replicaFallbackDataSource(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Value("${store.datasource.replica.retry-interval-ms:30000}") long retryIntervalMillis) {
+        return new ReplicaFallbackDataSource(replicaDataSource, primaryDataSource, retryIntervalMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaFallbackDataSource replicaFallbackDataSource) {
+        TransactionRoutingDataSource routing = new TransactionRoutingDataSource();
+        routing.setTargetDataSources(Map.of(Boolean.TRUE, replicaFallbackDataSource, Boolean.FALSE, primaryDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Por defecto Hibernate retiene la conexión hasta cerrar la sesión; con open-in-view, la primera
+     * transacción de la solicitud fijaría el origen de todas las siguientes (una escritura tras una
+     * lectura terminaría en la réplica).
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * El health check de base de datos mira solo el primario: una réplica caída degrada las lecturas
+     * (ver {@code datasource.replica.available}) pero no deja la instancia fuera de servicio.
+     */
+    @Bean
+    public HealthContributor dbHealthContributor(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        return new DataSourceHealthIndicator(primaryDataSource);
+    }
+
+    /**
+     * Réplica si la transacción en curso es de solo lectura. Se consulta al pedir la conexión física, es
+     * decir, en la primera sentencia (ver {@link LazyConnectionDataSourceProxy}), con la transacción ya iniciada.
+     */
+    static class TransactionRoutingDataSource extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+    }
+}
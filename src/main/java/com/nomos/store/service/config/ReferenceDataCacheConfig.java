@@ -0,0 +1,34 @@
+package com.nomos.store.service.config;
+
+import com.nomos.store.service.service.ReferenceDataService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches Caffeine para datos maestros, acotados por tamaño y TTL ({@code store.reference-cache.spec}).
+ * <p>
+ * Los nombres se registran al arrancar para que Actuator publique {@code cache.gets} (hit/miss),
+ * {@code cache.size} y {@code cache.evictions} por cache. El proxy transaccional difiere las
+ * invalidaciones hasta el commit, así una lectura concurrente no vuelve a cargar el dato viejo.
+ */
+@Configuration
+@EnableCaching
+public class ReferenceDataCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${store.reference-cache.spec}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(
+                ReferenceDataService.TAX_RATES,
+                ReferenceDataService.PAYMENT_METHODS,
+                ReferenceDataService.LEGAL_ENTITIES,
+                ReferenceDataService.PROMOTIONS);
+        caffeine.setCacheSpecification(spec);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
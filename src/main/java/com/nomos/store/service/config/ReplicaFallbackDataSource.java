@@ -0,0 +1,88 @@
+package com.nomos.store.service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Origen de conexiones de solo lectura: entrega conexiones de la réplica mientras esté disponible
+ * y, si no lo está, del primario.
+ * <p>
+ * La réplica se marca no disponible cuando falla al dar una conexión o cuando el
+ * {@link ReplicaLagMonitor} mide un retraso mayor al permitido; durante {@code retryIntervalMillis}
+ * las lecturas van al primario sin volver a intentar la réplica.
+ */
+@Slf4j
+public class ReplicaFallbackDataSource extends AbstractDataSource {
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final long retryIntervalMillis;
+
+    private volatile long unavailableUntil;
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary, long retryIntervalMillis) {
+        this.replica = replica;
+        this.primary = primary;
+        this.retryIntervalMillis = retryIntervalMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isReplicaAvailable()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markUnavailable("sin conexión: " + e.getMessage());
+            }
+        }
+        fallbacks.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isReplicaAvailable()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markUnavailable("sin conexión: " + e.getMessage());
+            }
+        }
+        fallbacks.incrementAndGet();
+        return primary.getConnection(username, password);
+    }
+
+    public boolean isReplicaAvailable() {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    /**
+     * Envía las lecturas al primario durante el intervalo de reintento.
+     */
+    public void markUnavailable(String reason) {
+        if (isReplicaAvailable()) {
+            log.warn("Réplica de lectura no disponible ({}); las lecturas van al primario", reason);
+        }
+        unavailableUntil = System.currentTimeMillis() + retryIntervalMillis;
+    }
+
+    public void markAvailable() {
+        if (!isReplicaAvailable()) {
+            log.info("Réplica de lectura disponible de nuevo");
+        }
+        unavailableUntil = 0;
+    }
+
+    /**
+     * Conexiones de solo lectura servidas por el primario desde el arranque.
+     */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+}
@@ -0,0 +1,78 @@
+package com.nomos.store.service.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Mide periódicamente el retraso de la réplica ({@code store.datasource.replica.lag-query}, en segundos)
+ * y lo publica como {@code datasource.replica.lag}. Si la consulta falla o el retraso supera
+ * {@code store.datasource.replica.max-lag-seconds}, las lecturas pasan al primario hasta la siguiente
+ * medición correcta.
+ */
+@Component
+@ConditionalOnProperty(name = "store.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbc;
+    private final ReplicaFallbackDataSource readOnlyDataSource;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                             ReplicaFallbackDataSource readOnlyDataSource,
+                             MeterRegistry meterRegistry,
+                             @Value("${store.datasource.replica.lag-query}") String lagQuery,
+                             @Value("${store.datasource.replica.max-lag-seconds:30}") double maxLagSeconds) {
+        this.replicaJdbc = new JdbcTemplate(replicaDataSource);
+        this.readOnlyDataSource = readOnlyDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Retraso de la réplica de lectura respecto al primario; NaN si no responde")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", readOnlyDataSource, ds -> ds.isReplicaAvailable() ? 1 : 0)
+                .description("1 si las transacciones de solo lectura se envían a la réplica")
+                .register(meterRegistry);
+        FunctionCounter.builder("datasource.replica.fallbacks", readOnlyDataSource, ReplicaFallbackDataSource::getFallbackCount)
+                .description("Conexiones de solo lectura servidas por el primario")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${store.datasource.replica.lag-check-interval-ms:5000}",
+            fixedDelayString = "${store.datasource.replica.lag-check-interval-ms:5000}")
+    public void check() {
+        Double lag;
+        try {
+            lag = replicaJdbc.queryForObject(lagQuery, Double.class);
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            readOnlyDataSource.markUnavailable("error midiendo el retraso: " + e.getMessage());
+            return;
+        }
+        lagSeconds = lag != null ? lag : 0;
+        if (lagSeconds > maxLagSeconds) {
+            readOnlyDataSource.markUnavailable("retraso de " + lagSeconds + " s");
+        } else {
+            readOnlyDataSource.markAvailable();
+        }
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
@@ -4,20 +4,53 @@ import com.nomos.store.service.model.AccountsReceivable;
 import com.nomos.store.service.model.Installment;
 import com.nomos.store.service.repository.AccountsReceivableRepository;
 import com.nomos.store.service.repository.InstallmentRepository;
+import com.nomos.store.service.service.AggregateVersionService;
+import com.nomos.store.service.service.ReceivableAgingService;
+import com.nomos.store.service.service.ReceivableDashboardService;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/store/accounts-receivable")
 @RequiredArgsConstructor
 public class AccountsReceivableController {
 
+    private static final int DEFAULT_DUE_DAYS = 7;
+    private static final int DEFAULT_DUE_LIMIT = 200;
+    private static final int MAX_DUE_LIMIT = 1000;
+
     private final AccountsReceivableRepository arRepository;
     private final InstallmentRepository installmentRepository;
+    private final AggregateVersionService aggregateVersionService;
+    private final ReceivableAgingService agingService;
+    private final ReceivableDashboardService dashboardService;
+    private final Clock clock;
+
+    @Data
+    public static class ReceivableListFilter {
+        private String status;
+        private Long clientId;
+        private Boolean overdue;
+        private Double minBalance;
+        private Double maxBalance;
+    }
 
     /**
      * Obtener todas las cuentas por cobrar.
@@ -25,19 +58,127 @@ public class AccountsReceivableController {
      */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<AccountsReceivable>> getAll() {
         return ResponseEntity.ok(arRepository.findAll());
     }
 
+    /**
+     * GET /api/store/accounts-receivable/dashboard?status=ACTIVE&clientId=1&overdue=true&minBalance=100&size=50&cursor=...
+     * Tablero de cartera paginado por cursor: dos consultas por página (cuentas con su venta y cuotas).
+     * Para la siguiente página se reenvía el nextCursor recibido.
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<ReceivableDashboardService.ReceivablePage> getDashboard(ReceivableListFilter filter,
+                                                                                 @RequestParam(required = false) Long cursor,
+                                                                                 @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(dashboardService.findPage(filter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Cuentas con cuotas vencidas, de la más atrasada a la más reciente.
+     * Consulta el puntero next_due_date, sin recorrer las cuotas de la cartera.
+     */
+    @GetMapping("/overdue")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<AccountsReceivable>> getOverdue(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(arRepository.findByNextDueDateBeforeOrderByNextDueDateAsc(
+                LocalDate.now(), dueListLimit(limit)));
+    }
+
+    /**
+     * Cuentas con una cuota por vencer en el rango; por defecto, los próximos 7 días.
+     */
+    @GetMapping("/due")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<AccountsReceivable>> getDue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_DUE_DAYS);
+        if (end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La fecha final es anterior a la inicial");
+        }
+        return ResponseEntity.ok(arRepository.findByNextDueDateBetweenOrderByNextDueDateAsc(
+                start, end, dueListLimit(limit)));
+    }
+
+    /**
+     * Mora de la cartera activa según el último devengo diario (accruedOn).
+     */
+    @GetMapping("/penalties")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    @Transactional(readOnly = true)
+    public ResponseEntity<InstallmentRepository.PenaltySummary> getPenaltySummary() {
+        return ResponseEntity.ok(installmentRepository.summarizeAccruedPenalty());
+    }
+
+    /**
+     * Antigüedad de saldos por cliente (groupBy=client) o vendedor (groupBy=seller) a la fecha de corte
+     * (por defecto hoy). Con format=csv responde un archivo descargable.
+     */
+    @GetMapping("/aging")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<?> getAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "client") String groupBy,
+            @RequestParam(defaultValue = "json") String format) {
+        ReceivableAgingService.GroupBy grouping;
+        try {
+            grouping = ReceivableAgingService.GroupBy.parse(groupBy);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        LocalDate cutoff = asOf != null ? asOf : LocalDate.now(clock);
+        List<ReceivableAgingService.AgingRow> rows = agingService.aging(cutoff, grouping);
+
+        if ("csv".equalsIgnoreCase(format)) {
+            String filename = "antiguedad_" + grouping.name().toLowerCase(Locale.ROOT) + "_" + cutoff + ".csv";
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(agingService.toCsv(rows, grouping));
+        }
+        if (!"json".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato no soportado: " + format + " (use json o csv)");
+        }
+        return ResponseEntity.ok(rows);
+    }
+
+    private static Limit dueListLimit(Integer limit) {
+        if (limit == null) return Limit.of(DEFAULT_DUE_LIMIT);
+        if (limit < 1 || limit > MAX_DUE_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit debe estar entre 1 y " + MAX_DUE_LIMIT);
+        }
+        return Limit.of(limit);
+    }
+
     /**
      * Buscar la cuenta por cobrar específica de una Venta.
      * Frontend: Cuando entres al detalle de una venta, llama a esto para mostrar el cronograma.
+     * Con If-None-Match vigente responde 304 sin cargar el cronograma.
      */
     @GetMapping("/sale/{saleId}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
-    public ResponseEntity<AccountsReceivable> getBySaleId(@PathVariable Long saleId) {
+    public ResponseEntity<AccountsReceivable> getBySaleId(@PathVariable Long saleId,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = aggregateVersionService.receivableEtagBySale(saleId).orElse(null);
+        if (etag == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (AggregateVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
         return arRepository.findBySaleId(saleId)
-                .map(ResponseEntity::ok)
+                .map(ar -> ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(ar))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -46,6 +187,7 @@ public class AccountsReceivableController {
      */
     @GetMapping("/{id}/installments")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Installment>> getInstallments(@PathVariable Long id) {
         if (!arRepository.existsById(id)) {
             return ResponseEntity.notFound().build();
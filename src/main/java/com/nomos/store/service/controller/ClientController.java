@@ -0,0 +1,30 @@
+package com.nomos.store.service.controller;
+
+import com.nomos.store.service.service.ClientExposureService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Datos de cartera por cliente. Los clientes se administran en otro servicio; aquí sólo se exponen
+ * los acumulados que este servicio mantiene por {@code clientId}.
+ */
+@RestController
+@RequestMapping("/api/store/clients")
+@RequiredArgsConstructor
+public class ClientController {
+
+    private final ClientExposureService clientExposureService;
+
+    /**
+     * GET /api/store/clients/{id}/exposure
+     * Saldo pendiente, vencido y cuentas abiertas del cliente (una lectura por clave primaria). Un cliente
+     * sin ventas a su nombre devuelve todo en cero.
+     */
+    @GetMapping("/{id}/exposure")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<ClientExposureService.Exposure> getExposure(@PathVariable Long id) {
+        return ResponseEntity.ok(clientExposureService.find(id));
+    }
+}
@@ -5,16 +5,30 @@ import com.nomos.store.service.model.Collection;
 import com.nomos.store.service.model.PaymentMethodConfig;
 import com.nomos.store.service.model.Sale;
 import com.nomos.store.service.repository.CollectionRepository;
-import com.nomos.store.service.repository.PaymentMethodConfigRepository;
 import com.nomos.store.service.repository.SaleRepository;
+import com.nomos.store.service.service.AggregateVersionService;
+import com.nomos.store.service.service.BankStatementImportService;
+import com.nomos.store.service.service.ClientExposureService;
+import com.nomos.store.service.service.IdempotencyService;
+import com.nomos.store.service.service.ReceivableLedgerService;
+import com.nomos.store.service.service.ReceivableWriteGuard;
+import com.nomos.store.service.service.ReferenceDataService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,7 +41,23 @@ public class CollectionController {
     @Autowired
     private SaleRepository saleRepository;
     @Autowired
-    private PaymentMethodConfigRepository paymentMethodRepository;
+    private ReferenceDataService referenceDataService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private AggregateVersionService aggregateVersionService;
+    @Autowired
+    private ReceivableWriteGuard receivableWriteGuard;
+    @Autowired
+    private BankStatementImportService bankStatementImportService;
+    @Autowired
+    private ReceivableLedgerService receivableLedgerService;
+    @Autowired
+    private ClientExposureService clientExposureService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private Clock clock;
 
     @Data
     public static class CollectionPayload {
@@ -39,9 +69,27 @@ public class CollectionController {
 
     }
 
+    /**
+     * Registra un cobro. Acepta la cabecera Idempotency-Key: un reintento con la misma clave
+     * devuelve el cobro original sin volver a aplicar el pago.
+     * Los cobros a una misma cuenta se serializan y, si otra instancia la modificó a la vez, la
+     * transacción se repite; agotados los intentos responde 409.
+     */
     @PostMapping
-    @Transactional
-    public ResponseEntity<?> createCollection(@RequestBody CollectionPayload payload) {
+    public ResponseEntity<?> createCollection(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                              @RequestBody CollectionPayload payload) {
+        if (payload.getSaleId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "saleId es obligatorio");
+        }
+        try {
+            return receivableWriteGuard.execute(payload.getSaleId(), () ->
+                    idempotencyService.execute("COLLECTION", idempotencyKey, payload, () -> postCollection(payload)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La cuenta por cobrar fue modificada en paralelo; reintente el cobro");
+        }
+    }
+
+    private ResponseEntity<?> postCollection(CollectionPayload payload) {
 
         Sale sale = saleRepository.findById(payload.getSaleId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Venta no encontrada"));
@@ -52,7 +100,7 @@ public class CollectionController {
             return ResponseEntity.badRequest().body("Error de integridad: La venta no tiene cuenta por cobrar asociada.");
         }
 
-        PaymentMethodConfig paymentMethod = paymentMethodRepository.findById(payload.getPaymentMethodId())
+        PaymentMethodConfig paymentMethod = referenceDataService.findPaymentMethod(payload.getPaymentMethodId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Método de pago no encontrado"));
 
         if ("CANCELADA".equals(sale.getStatus())) {
@@ -73,13 +121,35 @@ public class CollectionController {
                 .build();
 
 
-        ar.applyPayment(collection, null);
+        LocalDate paymentDate = LocalDate.now(clock);
+        ClientExposureService.Contribution exposure = ClientExposureService.Contribution.of(ar);
+        ar.applyPayment(collection, null, paymentDate);
+        aggregateVersionService.touch(ar);
 
         Collection savedCollection = collectionRepository.save(collection);
+        receivableLedgerService.recordPayment(ar, savedCollection, null, paymentDate);
+        clientExposureService.recordChange(ar, exposure);
 
         return new ResponseEntity<>(savedCollection, HttpStatus.CREATED);
     }
 
+    /**
+     * Importa un extracto bancario (CSV o ancho fijo, en el cuerpo de la solicitud) y aplica como cobros
+     * los depósitos conciliados. Responde el reporte de conciliación fila por fila.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BankStatementImportService.ImportReport> importStatement(@RequestParam Long paymentMethodId,
+                                                                                   @RequestParam(defaultValue = "csv") String format,
+                                                                                   InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(bankStatementImportService.importStatement(
+                    body, BankStatementImportService.Format.parse(format), paymentMethodId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<Collection>> getAllCollections() {
         return ResponseEntity.ok(collectionRepository.findAll());
@@ -90,15 +160,38 @@ public class CollectionController {
         return ResponseEntity.ok(collectionRepository.findBySaleId(saleId));
     }
 
+    /**
+     * Anula el cobro (queda con estado ANULADO) y reimputa los pagos posteriores de la cuenta desde su
+     * libro de eventos, así cuotas y saldo quedan como si el cobro no hubiera existido.
+     * Se serializa con los cobros de la misma cuenta y se reintenta ante conflictos de versión, igual que
+     * el registro; agotados los intentos responde 409.
+     */
     @DeleteMapping("/{id}")
-    @Transactional
     public ResponseEntity<Void> deleteCollection(@PathVariable Long id) {
+        Long saleId = collectionRepository.findById(id)
+                .map(c -> c.getSale().getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cobro no encontrado"));
+        try {
+            return receivableWriteGuard.execute(saleId, () ->
+                    new TransactionTemplate(transactionManager).execute(status -> voidCollection(id)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La cuenta por cobrar fue modificada en paralelo; reintente la anulación");
+        }
+    }
 
-
-        if (!collectionRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cobro no encontrado");
+    private ResponseEntity<Void> voidCollection(Long id) {
+        Collection collection = collectionRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cobro no encontrado"));
+        ClientExposureService.Contribution exposure = ClientExposureService.Contribution.of(collection.getAccountsReceivable());
+        try {
+            receivableLedgerService.voidCollection(collection, LocalDate.now(clock));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
-        collectionRepository.deleteById(id);
+        clientExposureService.recordChange(collection.getAccountsReceivable(), exposure);
+        aggregateVersionService.touch(collection.getAccountsReceivable());
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -3,8 +3,9 @@ package com.nomos.store.service.controller;
 import com.nomos.store.service.model.*;
 import com.nomos.store.service.repository.AccountsReceivableRepository;
 import com.nomos.store.service.repository.CreditDocumentRepository;
-import com.nomos.store.service.repository.LegalEntityRepository;
+import com.nomos.store.service.service.AggregateVersionService;
 import com.nomos.store.service.service.CreditDocumentPdfService;
+import com.nomos.store.service.service.ReferenceDataService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +30,8 @@ public class CreditDocumentController {
 
     private final CreditDocumentRepository creditDocumentRepository;
     private final AccountsReceivableRepository arRepository;
-    private final LegalEntityRepository legalEntityRepository;
+    private final ReferenceDataService referenceDataService;
+    private final AggregateVersionService aggregateVersionService;
 
     @Data
     public static class CreditDocumentPayload {
@@ -61,7 +63,7 @@ public class CreditDocumentController {
     @GetMapping("/legal-entities")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
     public ResponseEntity<List<LegalEntity>> getAllLegalEntities() {
-        return ResponseEntity.ok(legalEntityRepository.findAll());
+        return ResponseEntity.ok(referenceDataService.findAllLegalEntities());
     }
 
     @PostMapping
@@ -75,10 +77,10 @@ public class CreditDocumentController {
         LegalEntity creditorEntity;
 
         if (payload.getCreditorEntityId() != null) {
-            creditorEntity = legalEntityRepository.findById(payload.getCreditorEntityId())
+            creditorEntity = referenceDataService.findLegalEntity(payload.getCreditorEntityId())
                     .orElseThrow(() -> new RuntimeException("Entidad legal acreedora no encontrada"));
         } else {
-            creditorEntity = legalEntityRepository.findAll().stream().findFirst()
+            creditorEntity = referenceDataService.findAllLegalEntities().stream().findFirst()
                     .orElseThrow(() -> new RuntimeException("No hay ninguna Entidad Legal registrada en el sistema."));
         }
 
@@ -103,14 +105,17 @@ public class CreditDocumentController {
                 .guarantorIdNumber(payload.getGuarantorIdNumber())
                 .build();
 
+        aggregateVersionService.touch(ar);
         return ResponseEntity.ok(creditDocumentRepository.save(doc));
     }
 
     @PatchMapping("/{id}/status")
+    @Transactional
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
     public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestParam String status) {
         return creditDocumentRepository.findById(id).map(doc -> {
             doc.setStatus(CreditDocumentStatus.valueOf(status));
+            aggregateVersionService.touch(doc.getAccountsReceivable());
             return ResponseEntity.ok(creditDocumentRepository.save(doc));
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -125,6 +130,7 @@ public class CreditDocumentController {
                         .body("No se puede eliminar un documento que ya ha sido firmado o procesado.");
             }
 
+            aggregateVersionService.touch(doc.getAccountsReceivable());
             creditDocumentRepository.delete(doc);
             return ResponseEntity.noContent().build();
         }).orElse(ResponseEntity.notFound().build());
@@ -2,6 +2,7 @@ package com.nomos.store.service.controller;
 
 import com.nomos.store.service.model.LegalEntity;
 import com.nomos.store.service.repository.LegalEntityRepository;
+import com.nomos.store.service.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +17,7 @@ import java.util.List;
 public class LegalEntityController {
 
     private final LegalEntityRepository repository;
+    private final ReferenceDataService referenceDataService;
 
     /**
      * MAESTRO: Listar todas las empresas/personas registradas.
@@ -24,7 +26,7 @@ public class LegalEntityController {
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
     public ResponseEntity<List<LegalEntity>> getAll() {
-        return ResponseEntity.ok(repository.findAll());
+        return ResponseEntity.ok(referenceDataService.findAllLegalEntities());
     }
 
     /**
@@ -33,7 +35,7 @@ public class LegalEntityController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
     public ResponseEntity<?> getById(@PathVariable Long id) {
-        return repository.findById(id)
+        return referenceDataService.findLegalEntity(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -52,7 +54,9 @@ public class LegalEntityController {
                     .body("Ya existe una entidad registrada con el RUC/DNI: " + entity.getTaxId());
         }
 
-        return ResponseEntity.ok(repository.save(entity));
+        LegalEntity saved = repository.save(entity);
+        referenceDataService.evictLegalEntities();
+        return ResponseEntity.ok(saved);
     }
 
     /**
@@ -76,7 +80,9 @@ public class LegalEntityController {
             existing.setType(updatedData.getType());
 
 
-            return ResponseEntity.ok(repository.save(existing));
+            LegalEntity saved = repository.save(existing);
+            referenceDataService.evictLegalEntities();
+            return ResponseEntity.ok(saved);
 
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -93,6 +99,7 @@ public class LegalEntityController {
         }
         try {
             repository.deleteById(id);
+            referenceDataService.evictLegalEntities();
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
 
@@ -2,6 +2,7 @@ package com.nomos.store.service.controller;
 
 import com.nomos.store.service.model.PaymentMethodConfig;
 import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -18,12 +19,13 @@ import java.util.Optional;
 public class PaymentMethodConfigController {
 
     private final PaymentMethodConfigRepository repository;
+    private final ReferenceDataService referenceDataService;
 
     /**  GET /api/store/payment-methods - Obtener todos los métodos */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
     public List<PaymentMethodConfig> getAll() {
-        return repository.findAll();
+        return referenceDataService.findAllPaymentMethods();
     }
 
     /**  POST /api/store/payment-methods - Crear nuevo método (Solo Admin) */
@@ -32,6 +34,7 @@ public class PaymentMethodConfigController {
     public ResponseEntity<PaymentMethodConfig> create(@RequestBody PaymentMethodConfig config) {
         try {
             PaymentMethodConfig savedConfig = repository.save(config);
+            referenceDataService.evictPaymentMethods();
             return ResponseEntity.status(HttpStatus.CREATED).body(savedConfig);
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -54,6 +57,7 @@ public class PaymentMethodConfigController {
 
         try {
             PaymentMethodConfig savedConfig = repository.save(existingConfig);
+            referenceDataService.evictPaymentMethods();
             return ResponseEntity.ok(savedConfig);
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -68,6 +72,7 @@ public class PaymentMethodConfigController {
             return ResponseEntity.notFound().build();
         }
         repository.deleteById(id);
+        referenceDataService.evictPaymentMethods();
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
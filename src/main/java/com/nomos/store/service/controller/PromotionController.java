@@ -2,6 +2,7 @@ package com.nomos.store.service.controller;
 
 import com.nomos.store.service.model.Promotion;
 import com.nomos.store.service.repository.PromotionRepository;
+import com.nomos.store.service.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -20,12 +21,13 @@ import java.util.Optional;
 public class PromotionController {
 
     private final PromotionRepository promotionRepository;
+    private final ReferenceDataService referenceDataService;
 
     /**  GET /api/store/promotions - Obtener todas las promociones (Admin) */
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<List<Promotion>> getAll() {
-        return ResponseEntity.ok(promotionRepository.findAll());
+        return ResponseEntity.ok(referenceDataService.findAllPromotions());
     }
 
     /** *  GET /api/store/promotions/active - Obtener promociones activas (Cualquier usuario para cálculos de venta)
@@ -35,7 +37,9 @@ public class PromotionController {
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
     public ResponseEntity<List<Promotion>> getActive() {
         LocalDateTime now = LocalDateTime.now();
-        List<Promotion> activePromotions = promotionRepository.findByIsActiveTrueAndStartDateBeforeAndEndDateAfter(now, now);
+        List<Promotion> activePromotions = referenceDataService.findFlaggedActivePromotions().stream()
+                .filter(p -> p.getStartDate().isBefore(now) && p.getEndDate().isAfter(now))
+                .toList();
         return ResponseEntity.ok(activePromotions);
     }
 
@@ -49,6 +53,7 @@ public class PromotionController {
         }
         try {
             Promotion newPromotion = promotionRepository.save(promotion);
+            referenceDataService.evictPromotions();
             return ResponseEntity.status(HttpStatus.CREATED).body(newPromotion);
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -80,6 +85,7 @@ public class PromotionController {
 
         try {
             Promotion savedPromotion = promotionRepository.save(existingPromotion);
+            referenceDataService.evictPromotions();
             return ResponseEntity.ok(savedPromotion);
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -96,6 +102,7 @@ public class PromotionController {
 
         try {
             promotionRepository.deleteById(id);
+            referenceDataService.evictPromotions();
             return ResponseEntity.noContent().build();
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -1,17 +1,29 @@
 package com.nomos.store.service.controller;
 
 import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.SaleSummary;
+import com.nomos.store.service.service.AggregateVersionService;
+import com.nomos.store.service.service.ClientExposureService;
+import com.nomos.store.service.service.IdempotencyService;
+import com.nomos.store.service.service.SaleBatchService;
+import com.nomos.store.service.service.SaleExportService;
 import com.nomos.store.service.service.SaleService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/store/sales")
@@ -19,6 +31,10 @@ import java.util.List;
 public class SaleController {
 
     private final SaleService saleService;
+    private final SaleBatchService saleBatchService;
+    private final IdempotencyService idempotencyService;
+    private final AggregateVersionService aggregateVersionService;
+    private final SaleExportService saleExportService;
 
 
     @Data
@@ -42,6 +58,46 @@ public class SaleController {
         private Long sellerId;
         private List<SaleRequestDetail> details;
         private Integer numberOfInstallments;
+        /** TEA en porcentaje; nula o cero es crédito sin interés. */
+        private Double annualRate;
+        /** FRENCH (por defecto) o GERMAN. */
+        private String amortization;
+        /** MONTHLY (por defecto), WEEKLY, BIWEEKLY, BIMONTHLY, QUARTERLY o SEMIANNUAL. */
+        private String installmentFrequency;
+    }
+
+    @Data
+    public static class QuoteRequest {
+        private Double amount;
+        private Integer numberOfInstallments;
+        private Double annualRate;
+        private String amortization;
+        private String installmentFrequency;
+        /** Fecha desde la que se cuentan los vencimientos; por defecto, hoy. */
+        private LocalDate startDate;
+    }
+
+    @Data
+    public static class QuoteLine {
+        private final int number;
+        private final LocalDate dueDate;
+        private final double payment;
+        private final double capital;
+        private final double interest;
+        private final double balance;
+    }
+
+    @Data
+    public static class QuoteResponse {
+        private final double amount;
+        private final int numberOfInstallments;
+        private final double annualRate;
+        private final double periodicRate;
+        private final String amortization;
+        private final String installmentFrequency;
+        private final double totalInterest;
+        private final double totalPayable;
+        private final List<QuoteLine> schedule;
     }
 
     @Data
@@ -50,42 +106,170 @@ public class SaleController {
         private final String description;
     }
 
+    @Data
+    public static class SaleBatchResult {
+        /** Posición de la venta dentro del lote recibido. */
+        private final int index;
+        /** Código HTTP que habría respondido POST /api/store/sales para esta venta. */
+        private final int status;
+        private final Long saleId;
+        private final String error;
+
+        public static SaleBatchResult created(int index, Long saleId) {
+            return new SaleBatchResult(index, HttpStatus.CREATED.value(), saleId, null);
+        }
+
+        public static SaleBatchResult failed(int index, String error) {
+            return failed(index, HttpStatus.BAD_REQUEST, error);
+        }
+
+        public static SaleBatchResult failed(int index, HttpStatus status, String error) {
+            return new SaleBatchResult(index, status.value(), null, error);
+        }
+    }
+
+    @Data
+    public static class SaleListFilter {
+        private String status;
+        private Long sellerId;
+        private Long clientId;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate from;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate to;
+    }
+
+    @Data
+    public static class SalePage<T> {
+        private final List<T> items;
+        /** Null cuando no hay más páginas. */
+        private final String nextCursor;
+    }
+
 
+    /**
+     * GET /api/store/sales?status=EMITIDA&sellerId=1&from=2025-01-01&to=2025-01-31&size=50&cursor=...
+     * Listado paginado por cursor. Para la siguiente página se reenvía el nextCursor recibido.
+     */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER', 'ROLE_VENDOR')")
-    public ResponseEntity<List<Sale>> getAllSales() {
-        return ResponseEntity.ok(saleService.findAll());
+    public ResponseEntity<?> getAllSales(SaleListFilter filter,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
+        try {
+            SalePage<SaleSummary> page = saleService.findPage(filter, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta las ventas del rango [from, to] como CSV o NDJSON, una fila por línea de detalle.
+     * La respuesta se escribe a medida que se lee el cursor, sin armar la lista en memoria.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<StreamingResponseBody> exportSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(defaultValue = "csv") String format) {
+        SaleExportService.Format exportFormat;
+        try {
+            exportFormat = SaleExportService.Format.parse(format);
+            saleExportService.validateRange(from, to);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> saleExportService.export(from, to, exportFormat, out);
+        String filename = "ventas_" + from + "_" + to + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
     }
 
+    /**
+     * Soporta GET condicional: si el If-None-Match coincide con la versión actual se responde 304
+     * tras una sola consulta de versiones, sin cargar ni serializar el grafo de la venta.
+     */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER', 'ROLE_VENDOR')")
-    public ResponseEntity<Sale> getSaleById(@PathVariable Long id) {
+    public ResponseEntity<Sale> getSaleById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = aggregateVersionService.saleEtag(id).orElse(null);
+        if (etag == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (AggregateVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
         return saleService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(sale -> ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(sale))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /** Catálogos que sólo cambian con un despliegue: el navegador puede reutilizarlos sin volver a pedirlos. */
     @GetMapping("/types")
     public ResponseEntity<List<ReferenceDTO>> getSaleTypes() {
-        return ResponseEntity.ok(saleService.getSaleTypes());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                .body(saleService.getSaleTypes());
     }
 
     @GetMapping("/payment-conditions")
     public ResponseEntity<List<ReferenceDTO>> getPaymentConditions() {
-        return ResponseEntity.ok(saleService.getPaymentConditions());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                .body(saleService.getPaymentConditions());
     }
 
     @PostMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
-    public ResponseEntity<?> createSale(@RequestBody SaleCreationRequest request) {
+    public ResponseEntity<?> createSale(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                        @RequestBody SaleCreationRequest request) {
+        return idempotencyService.execute("SALE", idempotencyKey, request, () -> {
+            try {
+                Sale createdSale = saleService.createSale(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(createdSale);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (ClientExposureService.CreditLimitExceededException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error procesando la venta: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * POST /api/store/sales/batch
+     * Carga masiva desde los terminales POS. Devuelve un resultado por venta (ID creado o error),
+     * en el mismo orden del lote.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<?> createSalesBatch(@RequestBody List<SaleCreationRequest> requests) {
         try {
-            Sale createdSale = saleService.createSale(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdSale);
+            List<SaleBatchResult> results = saleBatchService.createSales(requests);
+            return ResponseEntity.ok(results);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error procesando la venta: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cotiza un plan de cuotas (monto, cuotas, TEA, sistema y frecuencia) sin guardar nada ni consultar
+     * la base de datos. Es el mismo cronograma que generaría la venta a crédito con esas condiciones.
+     */
+    @PostMapping("/quote")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER', 'ROLE_VENDOR')")
+    public ResponseEntity<QuoteResponse> quote(@RequestBody QuoteRequest request) {
+        try {
+            return ResponseEntity.ok(saleService.quote(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
@@ -0,0 +1,61 @@
+package com.nomos.store.service.controller;
+
+import com.nomos.store.service.repository.SalesRollupRepository.DailyTotals;
+import com.nomos.store.service.repository.SalesRollupRepository.ProductTotals;
+import com.nomos.store.service.repository.SalesRollupRepository.SellerTotals;
+import com.nomos.store.service.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tableros de ventas servidos desde los acumulados diarios.
+ * Sin rango explícito se usa el mes en curso hasta hoy.
+ */
+@RestController
+@RequestMapping("/api/store/sales/rollups")
+@RequiredArgsConstructor
+public class SalesRollupController {
+
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/sellers")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<List<SellerTotals>> bySeller(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long sellerId) {
+        return ResponseEntity.ok(salesRollupService.totalsBySeller(fromOrDefault(from), toOrDefault(to), sellerId));
+    }
+
+    @GetMapping("/daily")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<List<DailyTotals>> byDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long sellerId) {
+        return ResponseEntity.ok(salesRollupService.totalsByDay(fromOrDefault(from), toOrDefault(to), sellerId));
+    }
+
+    @GetMapping("/products")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<List<ProductTotals>> topProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(salesRollupService.topProducts(fromOrDefault(from), toOrDefault(to), limit));
+    }
+
+    private static LocalDate fromOrDefault(LocalDate from) {
+        return from != null ? from : LocalDate.now().withDayOfMonth(1);
+    }
+
+    private static LocalDate toOrDefault(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+}
@@ -2,6 +2,7 @@ package com.nomos.store.service.controller;
 
 import com.nomos.store.service.model.TaxRate;
 import com.nomos.store.service.repository.TaxRateRepository;
+import com.nomos.store.service.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -18,6 +19,7 @@ import java.util.Optional;
 public class TaxRateController {
 
     private final TaxRateRepository taxRateRepository;
+    private final ReferenceDataService referenceDataService;
 
     /**
      *  ENDPOINT: GET /api/store/tax-rates
@@ -27,7 +29,7 @@ public class TaxRateController {
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_VENDOR')")
     public List<TaxRate> getAllTaxRates() {
-        return taxRateRepository.findAll();
+        return referenceDataService.findAllTaxRates();
     }
 
     /**
@@ -39,6 +41,7 @@ public class TaxRateController {
     public ResponseEntity<TaxRate> createTaxRate(@RequestBody TaxRate taxRate) {
         try {
             TaxRate savedRate = taxRateRepository.save(taxRate);
+            referenceDataService.evictTaxRates();
             return ResponseEntity.status(HttpStatus.CREATED).body(savedRate);
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -59,6 +62,7 @@ public class TaxRateController {
 
         try {
             TaxRate savedRate = taxRateRepository.save(existingRate);
+            referenceDataService.evictTaxRates();
             return ResponseEntity.ok(savedRate);
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
@@ -75,6 +79,7 @@ public class TaxRateController {
             return ResponseEntity.notFound().build();
         }
         taxRateRepository.deleteById(id);
+        referenceDataService.evictTaxRates();
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -16,7 +16,8 @@ import java.util.List;
 public class AccountingJournalEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounting_journal_entries_seq")
+    @SequenceGenerator(name = "accounting_journal_entries_seq", sequenceName = "accounting_journal_entries_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -38,9 +39,12 @@ public class AccountingJournalEntry {
     private List<AccountingJournalLine> lines = new ArrayList<>();
 
 
+    /** DEBE == HABER al céntimo exacto (cada línea se lleva a céntimos antes de sumar). */
     public boolean isBalanced() {
-        double totalDebit = lines.stream().mapToDouble(AccountingJournalLine::getDebit).sum();
-        double totalCredit = lines.stream().mapToDouble(AccountingJournalLine::getCredit).sum();
-        return Math.abs(totalDebit - totalCredit) < 0.001;
+        long balanceCents = 0;
+        for (AccountingJournalLine line : lines) {
+            balanceCents += Money.toCents(line.getDebit()) - Money.toCents(line.getCredit());
+        }
+        return balanceCents == 0;
     }
 }
\ No newline at end of file
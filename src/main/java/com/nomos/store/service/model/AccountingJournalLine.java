@@ -13,7 +13,8 @@ import lombok.*;
 public class AccountingJournalLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounting_journal_lines_seq")
+    @SequenceGenerator(name = "accounting_journal_lines_seq", sequenceName = "accounting_journal_lines_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,114 @@
+package com.nomos.store.service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro compacto del outbox contable. Se escribe en la misma transacción que la venta
+ * y un proceso en segundo plano lo convierte en {@link AccountingJournalEntry}.
+ */
+@Entity
+@Table(name = "accounting_outbox", indexes = {
+        @Index(name = "idx_accounting_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_accounting_outbox_reference", columnList = "reference_doc, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountingOutboxEvent {
+
+    public static final String SALE_CREATED = "SALE_CREATED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounting_outbox_seq")
+    @SequenceGenerator(name = "accounting_outbox_seq", sequenceName = "accounting_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 30)
+    private String eventType;
+
+    /** Documento de origen (ej: SALE-123). Los eventos de un mismo documento se contabilizan en orden de id. */
+    @Column(name = "reference_doc", nullable = false, length = 50)
+    private String referenceDocument;
+
+    @Column(name = "sale_id")
+    private Long saleId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sale_type", length = 50)
+    private SaleTypeEnum saleType;
+
+    @Column(name = "amount", nullable = false)
+    private Double amount;
+
+    /** Interés financiado de una venta a crédito con tasa: la cuenta por cobrar es {@code amount} más este monto. */
+    @Column(name = "interest_amount", nullable = false)
+    @Builder.Default
+    private Double interestAmount = 0.0;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private AccountingOutboxStatus status = AccountingOutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "journal_entry_id")
+    private Long journalEntryId;
+
+    @Column(name = "posted_at")
+    private LocalDateTime postedAt;
+
+    public static AccountingOutboxEvent saleCreated(Sale sale) {
+        LocalDateTime now = LocalDateTime.now();
+        AccountsReceivable ar = sale.getAccountsReceivable();
+        long interestCents = ar == null ? 0
+                : Math.max(0L, Money.toCents(ar.getTotalAmount()) - Money.toCents(sale.getTotalAmount()));
+        return AccountingOutboxEvent.builder()
+                .eventType(SALE_CREATED)
+                .referenceDocument("SALE-" + sale.getId())
+                .saleId(sale.getId())
+                .saleType(sale.getType())
+                .amount(sale.getTotalAmount())
+                .interestAmount(Money.toAmount(interestCents))
+                .occurredAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    public void markPosted(Long journalEntryId, LocalDateTime when) {
+        this.status = AccountingOutboxStatus.POSTED;
+        this.journalEntryId = journalEntryId;
+        this.postedAt = when;
+        this.lastError = null;
+    }
+
+    /**
+     * Registra un intento fallido con espera exponencial (2^intentos segundos, máx. 1 hora).
+     * Al agotar los intentos el evento queda en FAILED y bloquea los posteriores del mismo documento.
+     */
+    public void registerFailure(String error, LocalDateTime when, int maxAttempts) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        if (this.attempts >= maxAttempts) {
+            this.status = AccountingOutboxStatus.FAILED;
+        } else {
+            long backoffSeconds = Math.min(3600L, 1L << Math.min(this.attempts, 12));
+            this.nextAttemptAt = when.plusSeconds(backoffSeconds);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.nomos.store.service.model;
+
+public enum AccountingOutboxStatus {
+    PENDING,
+    POSTED,
+    FAILED
+}
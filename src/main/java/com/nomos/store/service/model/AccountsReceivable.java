@@ -3,14 +3,19 @@ package com.nomos.store.service.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
 @Entity
-@Table(name = "accounts_receivable")
+@Table(name = "accounts_receivable", indexes = {
+        @Index(name = "idx_ar_next_due_date", columnList = "next_due_date"),
+        @Index(name = "idx_ar_status_balance", columnList = "status, balance")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,9 +23,15 @@ import java.util.List;
 public class AccountsReceivable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_receivable_seq")
+    @SequenceGenerator(name = "accounts_receivable_seq", sequenceName = "accounts_receivable_seq", allocationSize = 50)
     private Long id;
 
+    /** Versión optimista; se incrementa en cada cobro, anulación o documento de crédito. */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "sale_id", nullable = false, unique = true)
     @JsonIgnoreProperties("accountsReceivable")
@@ -32,12 +43,14 @@ public class AccountsReceivable {
     private Double totalAmount;
 
     @OneToMany(mappedBy = "accountsReceivable", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     private List<Installment> installments = new ArrayList<>();
 
     @OneToMany(mappedBy = "accountsReceivable", cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
     @JsonIgnoreProperties("accountsReceivable")
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -49,31 +62,65 @@ public class AccountsReceivable {
     private AccountsReceivableStatus status;
 
     @OneToMany(mappedBy = "accountsReceivable", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     private List<CreditDocument> creditDocuments = new ArrayList<>();
 
+    /** Vencimiento más próximo entre las cuotas no pagadas; null si la cuenta no está activa. */
+    @Column(name = "next_due_date")
+    private LocalDate nextDueDate;
 
-    public Double getPaidAmount() {
+    /**
+     * Vencimiento de la cuota impaga más antigua ya vencida; null si la cuenta está al día.
+     * Lo fija el job de vencimientos ({@code InstallmentOverdueService}) y se recalcula en cada cobro.
+     */
+    @Column(name = "overdue_since")
+    private LocalDate overdueSince;
 
-        if (collections == null) return 0.0;
-        return collections.stream()
-                .filter(c -> !"ANULADO".equals(c.getStatus()))
-                .mapToDouble(Collection::getAmount)
-                .sum();
-    }
 
-    public Double getBalance() {
+    /**
+     * Suma de los cobros no anulados. Éste y los totales siguientes están desnormalizados: los mantienen
+     * applyPayment, cancel y la anulación de cobros (ReceivableLedgerService), y el job ReceivableTotalsRebuildService los recalcula
+     * desde cobros y cuotas.
+     */
+    @Column(name = "paid_amount", nullable = false)
+    @Builder.Default
+    private Double paidAmount = 0.0;
 
+    /** Mora cobrada, suma de paid_penalty de las cuotas. */
+    @Column(name = "paid_penalty", nullable = false)
+    @Builder.Default
+    private Double paidPenalty = 0.0;
 
+    /** Capital pendiente: total_amount menos el capital pagado de las cuotas. */
+    @Column(name = "balance", nullable = false)
+    private Double balance;
 
+    @Column(name = "last_payment_at")
+    private LocalDateTime lastPaymentAt;
 
-        double paidCapital = installments.stream().mapToDouble(Installment::getPaidAmount).sum();
-        return totalAmount - paidCapital;
+    /** Último número de secuencia usado en el libro de eventos (receivable_events) de la cuenta. */
+    @Column(name = "event_sequence", nullable = false)
+    @Builder.Default
+    private Long eventSequence = 0L;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.balance == null) {
+            this.balance = this.totalAmount;
+        }
     }
 
     public void applyPayment(Collection collection, Installment specificInstallment) {
+        applyPayment(collection, specificInstallment, LocalDate.now());
+    }
+
+    /**
+     * Imputa el cobro a la fecha indicada: la mora se calcula y se guarda a esa fecha.
+     */
+    public void applyPayment(Collection collection, Installment specificInstallment, LocalDate paymentDate) {
         if (this.status == AccountsReceivableStatus.CANCELLED) {
             throw new IllegalStateException("No se puede pagar una cuenta cancelada");
         }
@@ -81,12 +128,19 @@ public class AccountsReceivable {
         this.collections.add(collection);
         collection.setAccountsReceivable(this);
 
-        double amountRemaining = collection.getAmount();
+        long remainingCents = Money.toCents(collection.getAmount());
+        long capitalBefore = 0;
+        long penaltyBefore = 0;
+        long capitalAfter = 0;
+        long penaltyAfter = 0;
 
         if (specificInstallment != null) {
 
-
-            specificInstallment.applyPaymentLogic(amountRemaining);
+            capitalBefore = Money.toCents(specificInstallment.getPaidAmount());
+            penaltyBefore = Money.toCents(specificInstallment.getPaidPenalty());
+            specificInstallment.applyPayment(remainingCents, paymentDate);
+            capitalAfter = Money.toCents(specificInstallment.getPaidAmount());
+            penaltyAfter = Money.toCents(specificInstallment.getPaidPenalty());
         } else {
 
             List<Installment> pending = this.installments.stream()
@@ -96,13 +150,56 @@ public class AccountsReceivable {
                     .toList();
 
             for (Installment inst : pending) {
-                if (amountRemaining <= 0.001) break;
+                if (remainingCents <= 0) break;
 
-
-                amountRemaining = inst.applyPaymentLogic(amountRemaining);
+                capitalBefore += Money.toCents(inst.getPaidAmount());
+                penaltyBefore += Money.toCents(inst.getPaidPenalty());
+                remainingCents = inst.applyPayment(remainingCents, paymentDate);
+                capitalAfter += Money.toCents(inst.getPaidAmount());
+                penaltyAfter += Money.toCents(inst.getPaidPenalty());
             }
         }
+
+        this.paidAmount = Money.toAmount(Money.toCents(paidAmount) + Money.toCents(collection.getAmount()));
+        this.paidPenalty = Money.toAmount(Money.toCents(paidPenalty) + penaltyAfter - penaltyBefore);
+        this.balance = Money.toAmount(Money.toCents(currentBalance()) - (capitalAfter - capitalBefore));
+        LocalDateTime collectedAt = collection.getCollectionDate() != null
+                ? collection.getCollectionDate() : LocalDateTime.now();
+        if (lastPaymentAt == null || collectedAt.isAfter(lastPaymentAt)) {
+            this.lastPaymentAt = collectedAt;
+        }
+
         updateStatus();
+        refreshDueDates(paymentDate);
+    }
+
+    /**
+     * Cancela la cuenta junto con la venta: anula sus cobros y deja el total cobrado en cero. El saldo
+     * de capital no cambia porque las cuotas conservan lo imputado.
+     */
+    public void cancel(LocalDate referenceDate) {
+        this.status = AccountsReceivableStatus.CANCELLED;
+        refreshDueDates(referenceDate);
+        collections.forEach(collection -> {
+            if (!"ANULADO".equals(collection.getStatus())) {
+                collection.setStatus("ANULADO");
+            }
+        });
+        this.paidAmount = 0.0;
+        this.lastPaymentAt = null;
+    }
+
+    /**
+     * Reserva el siguiente número de secuencia del libro. Viaja en la fila de la cuenta, así que dos
+     * escritores concurrentes chocan por versión en lugar de repetir secuencia.
+     */
+    public long nextEventSequence() {
+        this.eventSequence = (eventSequence == null ? 0L : eventSequence) + 1;
+        return eventSequence;
+    }
+
+    private Double currentBalance() {
+        return balance != null ? balance : totalAmount;
     }
 
     private void updateStatus() {
@@ -117,4 +214,24 @@ public class AccountsReceivable {
             this.status = AccountsReceivableStatus.ACTIVE;
         }
     }
+
+    /**
+     * Recalcula {@link #nextDueDate} y {@link #overdueSince} desde las cuotas. Las cuentas pagadas o
+     * canceladas quedan sin punteros, así no aparecen en las consultas de vencimientos.
+     */
+    public void refreshDueDates(LocalDate referenceDate) {
+        this.nextDueDate = null;
+        this.overdueSince = null;
+        if (this.status != AccountsReceivableStatus.ACTIVE || installments == null) return;
+
+        for (Installment i : installments) {
+            if (i.getStatus() == InstallmentStatus.PAID) continue;
+            if (nextDueDate == null || i.getDueDate().isBefore(nextDueDate)) {
+                nextDueDate = i.getDueDate();
+            }
+        }
+        if (nextDueDate != null && nextDueDate.isBefore(referenceDate)) {
+            overdueSince = nextDueDate;
+        }
+    }
 }
\ No newline at end of file
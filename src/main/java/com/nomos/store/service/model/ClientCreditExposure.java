@@ -0,0 +1,38 @@
+package com.nomos.store.service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exposición crediticia de un cliente: saldo pendiente y vencido de sus cuentas por cobrar y cuántas siguen
+ * activas. La mantiene {@code ClientExposureService} en la misma transacción que la venta, el cobro,
+ * la anulación o el job de vencimientos.
+ */
+@Entity
+@Table(name = "client_credit_exposure")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClientCreditExposure {
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    /** Saldo de capital de las cuentas ACTIVE (las pagadas quedan en cero, las canceladas no cuentan). */
+    @Column(name = "outstanding_amount", nullable = false)
+    private Double outstandingAmount;
+
+    /** Parte del saldo en cuotas marcadas OVERDUE. */
+    @Column(name = "overdue_amount", nullable = false)
+    private Double overdueAmount;
+
+    @Column(name = "open_accounts", nullable = false)
+    private Long openAccounts;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
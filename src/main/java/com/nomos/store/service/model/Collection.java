@@ -8,7 +8,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "collections")
+@Table(name = "collections", indexes = {
+        @Index(name = "idx_collections_ar", columnList = "accounts_receivable_id"),
+        @Index(name = "idx_collections_reference", columnList = "reference_number")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -16,7 +19,8 @@ import java.time.LocalDateTime;
 public class Collection {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "collections_seq")
+    @SequenceGenerator(name = "collections_seq", sequenceName = "collections_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -15,7 +15,8 @@ import java.time.LocalDate;
 public class CreditDocument {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credit_documents_seq")
+    @SequenceGenerator(name = "credit_documents_seq", sequenceName = "credit_documents_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -4,11 +4,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "installments")
+@Table(name = "installments", indexes = {
+        @Index(name = "idx_installments_ar", columnList = "accounts_receivable_id"),
+        @Index(name = "idx_installments_status_due", columnList = "status, due_date")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -16,9 +20,15 @@ import java.time.temporal.ChronoUnit;
 public class Installment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "installments_seq")
+    @SequenceGenerator(name = "installments_seq", sequenceName = "installments_seq", allocationSize = 50)
     private Long id;
 
+    /** Versión optimista; los jobs de vencimiento y devengo también la incrementan. */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "accounts_receivable_id", nullable = false)
     @JsonIgnore
@@ -53,34 +63,69 @@ public class Installment {
     @Column(name = "status", nullable = false, length = 20)
     private InstallmentStatus status;
 
+    /** Mora acumulada al día {@link #penaltyAccruedOn}; la fijan el devengo diario y cada cobro. */
+    @Column(name = "accrued_penalty", nullable = false)
+    @Builder.Default
+    private Double accruedPenalty = 0.0;
+
+    @Column(name = "penalty_accrued_on")
+    private LocalDate penaltyAccruedOn;
+
+
+    /** Mora mensual: 0.9 % del capital pendiente por cada 30 días de atraso (en milésimas). */
+    private static final long PENALTY_RATE_PER_MILLE = 9;
+    private static final long PENALTY_PERIOD_DAYS = 30;
+    /** Saldo de mora que se condona al evaluar si la cuota quedó pagada. */
+    private static final long PENALTY_WAIVER_CENTS = 1;
 
     /**
-     * Calcula la Mora Total Acumulada a la fecha.
+     * Mora Total Acumulada según el último devengo ({@link #penaltyAccruedOn}); no se recalcula al leer.
      */
     public Double getCalculatedPenalty() {
-        LocalDate calculationDate = LocalDate.now();
+        return accruedPenalty != null ? accruedPenalty : 0.0;
+    }
 
-        if (this.dueDate.isAfter(calculationDate)) {
-            return 0.0;
-        }
+    /**
+     * Mora acumulada a una fecha, en céntimos, redondeada HALF_UP al céntimo.
+     */
+    public long calculatedPenaltyCents(LocalDate calculationDate) {
+        long capitalPending = Money.toCents(this.expectedAmount) - Money.toCents(this.paidAmount);
+        return penaltyCents(capitalPending, this.dueDate, calculationDate);
+    }
 
-        long daysLate = ChronoUnit.DAYS.between(this.dueDate, calculationDate);
-        if (daysLate <= 0) return 0.0;
+    /**
+     * Fórmula de mora sin estado, compartida con el devengo por lotes ({@code PenaltyAccrualService}):
+     * el mismo capital, vencimiento y fecha dan siempre el mismo resultado.
+     */
+    public static long penaltyCents(long capitalPendingCents, LocalDate dueDate, LocalDate calculationDate) {
+        if (dueDate.isAfter(calculationDate)) {
+            return 0L;
+        }
 
-        double capitalPending = this.expectedAmount - this.paidAmount;
+        long daysLate = ChronoUnit.DAYS.between(dueDate, calculationDate);
+        if (daysLate <= 0) return 0L;
 
-        double penalty = capitalPending * 0.009 * (daysLate / 30.0);
+        return Money.multiply(capitalPendingCents, PENALTY_RATE_PER_MILLE * daysLate,
+                1000 * PENALTY_PERIOD_DAYS, RoundingMode.HALF_UP);
+    }
 
-        return Math.round(penalty * 100.0) / 100.0;
+    /**
+     * Guarda la mora acumulada a la fecha indicada.
+     */
+    public void accruePenalty(LocalDate calculationDate) {
+        this.accruedPenalty = Money.toAmount(Math.max(0L, calculatedPenaltyCents(calculationDate)));
+        this.penaltyAccruedOn = calculationDate;
     }
 
     /**
-     * Devuelve cuánto falta pagar de mora.
+     * Devuelve cuánto falta pagar de mora, según el último devengo.
      */
     public Double getPendingPenalty() {
-        double totalPenalty = getCalculatedPenalty();
+        return getCalculatedPenalty();
+    }
 
-        return Math.max(0.0, totalPenalty);
+    private long pendingPenaltyCents(LocalDate calculationDate) {
+        return Math.max(0L, calculatedPenaltyCents(calculationDate));
     }
 
     /**
@@ -95,28 +140,39 @@ public class Installment {
      */
     public Double applyPaymentLogic(Double availableAmount) {
         if (availableAmount <= 0) return 0.0;
+        return Money.toAmount(applyPayment(Money.toCents(availableAmount), LocalDate.now()));
+    }
 
-        double penaltyDue = getPendingPenalty();
-        if (penaltyDue > 0) {
-            double paymentToPenalty = Math.min(availableAmount, penaltyDue);
-            this.paidPenalty += paymentToPenalty;
-            availableAmount -= paymentToPenalty;
-        }
+    /**
+     * Imputa un monto en céntimos (mora primero, luego capital) y devuelve el sobrante exacto.
+     * Los campos se leen y escriben una sola vez, sin aritmética sobre {@code Double}.
+     */
+    public long applyPayment(long availableCents, LocalDate paymentDate) {
+        if (availableCents <= 0) return 0L;
+
+        long paidPenaltyCents = Money.toCents(this.paidPenalty);
+        long paidCents = Money.toCents(this.paidAmount);
+        long expectedCents = Money.toCents(this.expectedAmount);
 
-        if (availableAmount <= 0.001) {
-            updateStatus();
-            return 0.0;
+        long penaltyDue = pendingPenaltyCents(paymentDate);
+        if (penaltyDue > 0) {
+            long paymentToPenalty = Math.min(availableCents, penaltyDue);
+            paidPenaltyCents += paymentToPenalty;
+            availableCents -= paymentToPenalty;
+            this.paidPenalty = Money.toAmount(paidPenaltyCents);
         }
 
-        double capitalDue = this.expectedAmount - this.paidAmount;
-        if (capitalDue > 0) {
-            double paymentToCapital = Math.min(availableAmount, capitalDue);
-            this.paidAmount += paymentToCapital;
-            availableAmount -= paymentToCapital;
+        long capitalDue = expectedCents - paidCents;
+        if (availableCents > 0 && capitalDue > 0) {
+            long paymentToCapital = Math.min(availableCents, capitalDue);
+            paidCents += paymentToCapital;
+            availableCents -= paymentToCapital;
+            this.paidAmount = Money.toAmount(paidCents);
         }
 
-        updateStatus();
-        return availableAmount;
+        updateStatus(paidCents, expectedCents, paidPenaltyCents, paymentDate);
+        accruePenalty(paymentDate);
+        return availableCents;
     }
 
 
@@ -126,7 +182,7 @@ public class Installment {
     }
 
     public boolean isFullyPaid() {
-        return paidAmount >= expectedAmount - 0.01;
+        return Money.toCents(paidAmount) >= Money.toCents(expectedAmount);
     }
 
     /**
@@ -139,21 +195,21 @@ public class Installment {
         return this.status == InstallmentStatus.OVERDUE || referenceDate.isAfter(dueDate);
     }
 
-    private void updateStatus() {
+    private void updateStatus(long paidCents, long expectedCents, long paidPenaltyCents, LocalDate referenceDate) {
 
-        boolean capitalPaid = this.paidAmount >= this.expectedAmount - 0.01;
-        boolean penaltyPaid = getPendingPenalty() <= 0.01;
+        boolean capitalPaid = paidCents >= expectedCents;
+        boolean penaltyPaid = pendingPenaltyCents(referenceDate) <= PENALTY_WAIVER_CENTS;
 
         if (capitalPaid && penaltyPaid) {
             this.status = InstallmentStatus.PAID;
-        } else if (this.paidAmount > 0 || this.paidPenalty > 0) {
+        } else if (paidCents > 0 || paidPenaltyCents > 0) {
             this.status = InstallmentStatus.PARTIAL;
         } else {
-            if (this.dueDate.isBefore(LocalDate.now())) {
+            if (this.dueDate.isBefore(referenceDate)) {
                 this.status = InstallmentStatus.OVERDUE;
             } else {
                 this.status = InstallmentStatus.PENDING;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -16,7 +16,8 @@ import java.util.List;
 public class LegalEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "legal_entities_seq")
+    @SequenceGenerator(name = "legal_entities_seq", sequenceName = "legal_entities_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "legal_name", nullable = false)
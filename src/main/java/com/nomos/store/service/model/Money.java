@@ -0,0 +1,80 @@
+package com.nomos.store.service.model;
+
+import java.math.RoundingMode;
+
+/**
+ * Aritmética monetaria en céntimos ({@code long}) con redondeo explícito.
+ * <p>
+ * Las columnas siguen siendo {@code Double} (dos decimales); los cálculos convierten una vez con
+ * {@link #toCents(double)}, operan en enteros (exactos, sin objetos intermedios) y vuelven con
+ * {@link #toAmount(long)} al asignar el resultado. Así las sumas cuadran al céntimo y no hacen
+ * falta tolerancias como {@code 0.001} o {@code 0.01} para comparar montos.
+ */
+public final class Money {
+
+    public static final long CENTS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Monto con dos decimales a céntimos. Redondea HALF_UP (alejándose de cero), lo que absorbe
+     * el error binario de un {@code double} como 33.330000000000005.
+     */
+    public static long toCents(double amount) {
+        return amount >= 0
+                ? Math.round(amount * CENTS_PER_UNIT)
+                : -Math.round(-amount * CENTS_PER_UNIT);
+    }
+
+    /** Variante para columnas {@code Double}; nulo cuenta como cero. */
+    public static long toCents(Double amount) {
+        return amount == null ? 0L : toCents(amount.doubleValue());
+    }
+
+    public static double toAmount(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /** Céntimos como texto plano con dos decimales ("-1234.05"), sin notación científica ni separador de miles. */
+    public static String format(long cents) {
+        long abs = Math.abs(cents);
+        long units = abs / CENTS_PER_UNIT;
+        long fraction = abs % CENTS_PER_UNIT;
+        return (cents < 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    /** {@code cents / divisor} redondeado con el modo indicado ({@code UNNECESSARY} falla si hay resto). */
+    public static long divide(long cents, long divisor, RoundingMode mode) {
+        if (divisor == 0) {
+            throw new ArithmeticException("División por cero");
+        }
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = Long.signum(cents) * Long.signum(divisor);
+        boolean roundAway = switch (mode) {
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> sign < 0;
+            case CEILING -> sign > 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long twiceRemainder = Math.abs(remainder) * 2;
+                long absDivisor = Math.abs(divisor);
+                if (twiceRemainder != absDivisor) {
+                    yield twiceRemainder > absDivisor;
+                }
+                yield mode == RoundingMode.HALF_UP || (mode == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Se requiere redondeo: " + cents + " / " + divisor);
+        };
+        return roundAway ? quotient + sign : quotient;
+    }
+
+    /** {@code cents * numerator / denominator} sin pasar por punto flotante (p. ej. tasas en milésimas). */
+    public static long multiply(long cents, long numerator, long denominator, RoundingMode mode) {
+        return divide(Math.multiplyExact(cents, numerator), denominator, mode);
+    }
+}
@@ -15,7 +15,8 @@ import lombok.Builder;
 public class PaymentMethodConfig {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_method_configs_seq")
+    @SequenceGenerator(name = "payment_method_configs_seq", sequenceName = "payment_method_configs_seq", allocationSize = 50)
     private Long id;
     @Column(name = "name", nullable = false, unique = true)
     private String name;
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class Promotion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "promotions_seq")
+    @SequenceGenerator(name = "promotions_seq", sequenceName = "promotions_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
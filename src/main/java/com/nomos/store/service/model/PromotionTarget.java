@@ -15,7 +15,8 @@ import lombok.AllArgsConstructor;
 public class PromotionTarget {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "promotion_targets_seq")
+    @SequenceGenerator(name = "promotion_targets_seq", sequenceName = "promotion_targets_seq", allocationSize = 50)
     private Long id;
     @Column(name = "promotion_id", nullable = false)
     private Long promotionId;
@@ -0,0 +1,65 @@
+package com.nomos.store.service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Evento del libro de una cuenta por cobrar. El libro es de solo inserción: la clave es
+ * (cuenta, número de secuencia) y la secuencia sale de {@link AccountsReceivable#nextEventSequence()},
+ * protegida por la versión de la cuenta. Lo escribe {@code ReceivableLedgerService}.
+ */
+@Entity
+@Table(name = "receivable_events", indexes = {
+        @Index(name = "idx_receivable_events_collection", columnList = "collection_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivableEvent {
+
+    @EmbeddedId
+    private Key id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private ReceivableEventType type;
+
+    /** Fecha de negocio: vencimiento de la cuota, fecha de imputación del pago o fecha de corte del devengo. */
+    @Column(name = "event_date", nullable = false)
+    private LocalDate eventDate;
+
+    @Column(name = "amount", nullable = false)
+    private Double amount;
+
+    /** Número de cuota del cargo, o cuota específica a la que se imputó el pago. */
+    @Column(name = "installment_number")
+    private Integer installmentNumber;
+
+    @Column(name = "collection_id")
+    private Long collectionId;
+
+    /** Momento del hecho; en los pagos, la fecha del cobro. */
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public long getSequence() {
+        return id.getSequenceNumber();
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "accounts_receivable_id", nullable = false)
+        private Long accountsReceivableId;
+
+        @Column(name = "sequence_number", nullable = false)
+        private Long sequenceNumber;
+    }
+}
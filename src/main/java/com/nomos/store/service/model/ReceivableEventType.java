@@ -0,0 +1,11 @@
+package com.nomos.store.service.model;
+
+public enum ReceivableEventType {
+    /** Una cuota del cronograma; se registra al crear la cuenta. */
+    CHARGE,
+    PAYMENT,
+    /** Anula un PAYMENT anterior (collection_id); al reconstruir, ese pago no se imputa. */
+    VOID,
+    PENALTY_ACCRUAL,
+    CANCEL
+}
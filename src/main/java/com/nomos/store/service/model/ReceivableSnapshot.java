@@ -0,0 +1,28 @@
+package com.nomos.store.service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una cuenta por cobrar tras aplicar sus eventos hasta {@code sequence_number}, en JSON.
+ * Reconstruir la cuenta cuesta el último snapshot más los eventos posteriores.
+ */
+@Entity
+@Table(name = "receivable_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceivableSnapshot {
+
+    @EmbeddedId
+    private ReceivableEvent.Key id;
+
+    @Column(name = "state", nullable = false, columnDefinition = "TEXT")
+    private String state;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
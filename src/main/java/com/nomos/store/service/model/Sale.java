@@ -10,7 +10,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+        @Index(name = "idx_sales_sale_date_id", columnList = "sale_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,9 +20,15 @@ import java.util.List;
 public class Sale {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+    @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = 50)
     private Long id;
 
+    /** Versión optimista; también es la base del ETag de GET /api/store/sales/{id}. */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "client_id")
     private Long clientId;
 
@@ -94,14 +102,12 @@ public class Sale {
         return accountsReceivable.getStatus().name();
     }
 
+    /**
+     * Usa el puntero {@code nextDueDate} de la cuenta por cobrar, sin cargar las cuotas.
+     */
     public boolean isOverdue() {
-        if (accountsReceivable == null) return false;
-        LocalDate today = LocalDate.now();
-
-        if (accountsReceivable.getInstallments() == null) return false;
-
-        return accountsReceivable.getInstallments().stream()
-                .anyMatch(i -> i.isOverdue(today));
+        if (accountsReceivable == null || accountsReceivable.getNextDueDate() == null) return false;
+        return accountsReceivable.getNextDueDate().isBefore(LocalDate.now());
     }
 
     public boolean hasFiscalDocument() {
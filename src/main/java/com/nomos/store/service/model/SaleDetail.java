@@ -8,14 +8,17 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
-@Table(name = "sale_details")
+@Table(name = "sale_details", indexes = {
+        @Index(name = "idx_sale_details_sale", columnList = "sale_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SaleDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_details_seq")
+    @SequenceGenerator(name = "sale_details_seq", sequenceName = "sale_details_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -18,7 +18,8 @@ import java.util.List;
 public class SaleReturn {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_returns_seq")
+    @SequenceGenerator(name = "sale_returns_seq", sequenceName = "sale_returns_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
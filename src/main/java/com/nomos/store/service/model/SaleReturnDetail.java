@@ -14,7 +14,8 @@ import lombok.*;
 public class SaleReturnDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_return_details_seq")
+    @SequenceGenerator(name = "sale_return_details_seq", sequenceName = "sale_return_details_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
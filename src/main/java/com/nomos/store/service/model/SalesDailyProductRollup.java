@@ -0,0 +1,40 @@
+package com.nomos.store.service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Acumulado diario neto por producto (ventas menos anulaciones y devoluciones).
+ * Lo mantiene {@code SalesRollupService} en la misma transacción que la operación de origen.
+ */
+@Entity
+@Table(name = "sales_rollup_product_daily")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyProductRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "amount", nullable = false)
+    private Double amount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "sale_day", nullable = false)
+        private LocalDate saleDay;
+
+        @Column(name = "product_id", nullable = false)
+        private Long productId;
+    }
+}
@@ -0,0 +1,52 @@
+package com.nomos.store.service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Acumulado diario de ventas por vendedor y tipo de venta.
+ * Lo mantiene {@code SalesRollupService} en la misma transacción que la venta, la anulación o la devolución.
+ */
+@Entity
+@Table(name = "sales_rollup_seller_daily")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailySellerRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "sale_count", nullable = false)
+    private Long saleCount;
+
+    @Column(name = "total_amount", nullable = false)
+    private Double totalAmount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private Long cancelledCount;
+
+    @Column(name = "cancelled_amount", nullable = false)
+    private Double cancelledAmount;
+
+    @Column(name = "returned_amount", nullable = false)
+    private Double returnedAmount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "sale_day", nullable = false)
+        private LocalDate saleDay;
+
+        @Column(name = "seller_id", nullable = false)
+        private Long sellerId;
+
+        @Column(name = "sale_type", nullable = false, length = 50)
+        private String saleType;
+    }
+}
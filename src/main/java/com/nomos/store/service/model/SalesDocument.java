@@ -8,7 +8,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sales_documents")
+@Table(name = "sales_documents", indexes = {
+        @Index(name = "idx_sales_documents_sale", columnList = "sale_id"),
+        @Index(name = "idx_sales_documents_series_number", columnList = "series, number")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +19,8 @@ import java.time.LocalDateTime;
 public class SalesDocument {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_documents_seq")
+    @SequenceGenerator(name = "sales_documents_seq", sequenceName = "sales_documents_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
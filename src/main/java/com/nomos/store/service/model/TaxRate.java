@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class TaxRate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tax_rates_seq")
+    @SequenceGenerator(name = "tax_rates_seq", sequenceName = "tax_rates_seq", allocationSize = 50)
     private Long id;
     @Column(name = "name", nullable = false, unique = true)
     private String name;
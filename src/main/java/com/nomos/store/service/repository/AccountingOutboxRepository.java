@@ -0,0 +1,51 @@
+package com.nomos.store.service.repository;
+
+import com.nomos.store.service.model.AccountingOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountingOutboxRepository extends JpaRepository<AccountingOutboxEvent, Long> {
+
+    /**
+     * Eventos listos para contabilizar, en orden de id. Un evento solo se entrega cuando todos los
+     * anteriores de su mismo documento ya están POSTED (orden por documento de referencia).
+     * Las filas se bloquean con SKIP LOCKED para que varias instancias puedan repartirse el trabajo.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM AccountingOutboxEvent e " +
+            "WHERE e.status = com.nomos.store.service.model.AccountingOutboxStatus.PENDING " +
+            "AND e.nextAttemptAt <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM AccountingOutboxEvent p " +
+            "                WHERE p.referenceDocument = e.referenceDocument " +
+            "                AND p.status <> com.nomos.store.service.model.AccountingOutboxStatus.POSTED " +
+            "                AND p.id < e.id) " +
+            "ORDER BY e.id")
+    List<AccountingOutboxEvent> findReadyForPosting(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Un evento pendiente y listo, bloqueado con SKIP LOCKED; vacío si ya se contabilizó o lo tomó otra
+     * instancia. Lo usa el reintento evento por evento de un lote fallido.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM AccountingOutboxEvent e " +
+            "WHERE e.id = :id " +
+            "AND e.status = com.nomos.store.service.model.AccountingOutboxStatus.PENDING " +
+            "AND e.nextAttemptAt <= :now")
+    Optional<AccountingOutboxEvent> lockReady(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    List<AccountingOutboxEvent> findByReferenceDocument(String referenceDocument);
+}
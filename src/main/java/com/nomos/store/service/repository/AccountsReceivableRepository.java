@@ -1,12 +1,65 @@
 package com.nomos.store.service.repository;
 
 import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
 
 public interface AccountsReceivableRepository extends JpaRepository<AccountsReceivable, Long> {
     Optional<AccountsReceivable> findBySaleId(Long saleId);
 
     List<AccountsReceivable> findByStatus(String status);
-}
\ No newline at end of file
+
+    /** Sólo la versión, por el índice único de sale_id: lo que necesita una validación de ETag. */
+    @Query("SELECT ar.version FROM AccountsReceivable ar WHERE ar.sale.id = :saleId")
+    Optional<Long> findVersionBySaleId(@Param("saleId") Long saleId);
+
+    /** Cuentas activas cuyo vencimiento impago más antiguo es anterior a la fecha (índice idx_ar_next_due_date). */
+    List<AccountsReceivable> findByNextDueDateBeforeOrderByNextDueDateAsc(LocalDate date, Limit limit);
+
+    /** Cuentas activas con el próximo vencimiento en [from, to]. */
+    List<AccountsReceivable> findByNextDueDateBetweenOrderByNextDueDateAsc(LocalDate from, LocalDate to, Limit limit);
+
+    /** Cuentas de varias ventas con sus cuotas, en una sola consulta (importación de extractos). */
+    @Query("SELECT DISTINCT ar FROM AccountsReceivable ar JOIN FETCH ar.installments WHERE ar.sale.id IN :saleIds")
+    List<AccountsReceivable> findWithInstallmentsBySaleIdIn(@Param("saleIds") Set<Long> saleIds);
+
+    /**
+     * Página del tablero de cartera por keyset sobre id (de la más reciente a la más antigua), con la venta
+     * en el mismo SELECT. Los filtros nulos no aplican; overdue compara next_due_date con {@code today}.
+     */
+    @Query("SELECT ar FROM AccountsReceivable ar JOIN FETCH ar.sale s " +
+           "WHERE ar.id < :cursorId " +
+           "AND (:status IS NULL OR ar.status = :status) " +
+           "AND (:clientId IS NULL OR s.clientId = :clientId) " +
+           "AND (:minBalance IS NULL OR ar.balance >= :minBalance) " +
+           "AND (:maxBalance IS NULL OR ar.balance <= :maxBalance) " +
+           "AND (:overdue IS NULL " +
+           "     OR (:overdue = TRUE AND ar.nextDueDate < :today) " +
+           "     OR (:overdue = FALSE AND (ar.nextDueDate IS NULL OR ar.nextDueDate >= :today))) " +
+           "ORDER BY ar.id DESC")
+    List<AccountsReceivable> findDashboardPage(@Param("cursorId") Long cursorId,
+                                               @Param("status") AccountsReceivableStatus status,
+                                               @Param("clientId") Long clientId,
+                                               @Param("minBalance") Double minBalance,
+                                               @Param("maxBalance") Double maxBalance,
+                                               @Param("overdue") Boolean overdue,
+                                               @Param("today") LocalDate today,
+                                               Limit limit);
+
+    /**
+     * Inicializa las cuotas de las cuentas ya cargadas en una sola consulta. Va aparte de la página
+     * porque un JOIN FETCH de colección junto con LIMIT se paginaría en memoria.
+     */
+    @EntityGraph(attributePaths = "installments")
+    @Query("SELECT DISTINCT ar FROM AccountsReceivable ar WHERE ar.id IN :ids")
+    List<AccountsReceivable> findWithInstallmentsByIdIn(@Param("ids") List<Long> ids);
+}
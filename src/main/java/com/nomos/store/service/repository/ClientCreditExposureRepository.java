@@ -0,0 +1,24 @@
+package com.nomos.store.service.repository;
+
+import com.nomos.store.service.model.ClientCreditExposure;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ClientCreditExposureRepository extends JpaRepository<ClientCreditExposure, Long> {
+
+    /**
+     * Exposición de los clientes, bloqueada en orden de cliente hasta el fin de la transacción: dos ventas a
+     * crédito simultáneas del mismo cliente se evalúan una después de la otra contra el límite.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ClientCreditExposure e WHERE e.clientId IN :clientIds ORDER BY e.clientId")
+    List<ClientCreditExposure> findAllForUpdate(@Param("clientIds") Collection<Long> clientIds);
+}
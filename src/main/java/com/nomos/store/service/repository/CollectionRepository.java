@@ -2,9 +2,12 @@ package com.nomos.store.service.repository;
 
 import com.nomos.store.service.model.Collection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface CollectionRepository extends JpaRepository<Collection, Long> {
@@ -12,4 +15,10 @@ public interface CollectionRepository extends JpaRepository<Collection, Long> {
     List<Collection> findBySaleId(Long saleId);
 
     List<Collection> findByPaymentMethodId(Long paymentMethodId);
-}
\ No newline at end of file
+
+    /** Números de operación ya registrados (no anulados) para un medio de pago. */
+    @Query("SELECT c.referenceNumber FROM Collection c WHERE c.paymentMethod.id = :paymentMethodId " +
+           "AND c.referenceNumber IN :references AND c.status <> 'ANULADO'")
+    List<String> findRecordedReferences(@Param("paymentMethodId") Long paymentMethodId,
+                                        @Param("references") Set<String> references);
+}
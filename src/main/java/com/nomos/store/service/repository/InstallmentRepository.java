@@ -1,9 +1,33 @@
 package com.nomos.store.service.repository;
 
+import com.nomos.store.service.model.AccountsReceivableStatus;
 import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.InstallmentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 import java.util.List;
 
 public interface InstallmentRepository extends JpaRepository<Installment, Long> {
     List<Installment> findByAccountsReceivableId(Long arId);
-}
\ No newline at end of file
+
+    interface PenaltySummary {
+        long getInstallments();
+        Double getAccruedPenalty();
+        LocalDate getAccruedOn();
+    }
+
+    /** Mora guardada por el devengo en cuentas activas, sumada en la base. */
+    @Query("SELECT COUNT(i) AS installments, COALESCE(SUM(i.accruedPenalty), 0) AS accruedPenalty, " +
+           "MAX(i.penaltyAccruedOn) AS accruedOn " +
+           "FROM Installment i WHERE i.accountsReceivable.status = :arStatus " +
+           "AND i.status <> :paid AND i.accruedPenalty > 0")
+    PenaltySummary summarizeAccruedPenalty(@Param("arStatus") AccountsReceivableStatus arStatus,
+                                           @Param("paid") InstallmentStatus paid);
+
+    default PenaltySummary summarizeAccruedPenalty() {
+        return summarizeAccruedPenalty(AccountsReceivableStatus.ACTIVE, InstallmentStatus.PAID);
+    }
+}
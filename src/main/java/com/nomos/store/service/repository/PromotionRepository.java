@@ -20,4 +20,6 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
      * Busca promociones por el tipo de aplicación (e.g., para calcular el total de la venta).
      */
     List<Promotion> findByAppliesToAndIsActiveTrue(String appliesTo);
+
+    List<Promotion> findByIsActiveTrue();
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.nomos.store.service.repository;
+
+import com.nomos.store.service.model.ReceivableEvent;
+import com.nomos.store.service.model.ReceivableEventType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ReceivableEventRepository extends JpaRepository<ReceivableEvent, ReceivableEvent.Key> {
+
+    /** Eventos de la cuenta posteriores a una secuencia, en orden: la cola a reproducir sobre un snapshot. */
+    @Query("SELECT e FROM ReceivableEvent e WHERE e.id.accountsReceivableId = :arId " +
+           "AND e.id.sequenceNumber > :afterSequence ORDER BY e.id.sequenceNumber")
+    List<ReceivableEvent> findTail(@Param("arId") Long arId, @Param("afterSequence") long afterSequence);
+
+    Optional<ReceivableEvent> findFirstByCollectionIdAndType(Long collectionId, ReceivableEventType type);
+}
@@ -0,0 +1,25 @@
+package com.nomos.store.service.repository;
+
+import com.nomos.store.service.model.ReceivableEvent;
+import com.nomos.store.service.model.ReceivableSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ReceivableSnapshotRepository extends JpaRepository<ReceivableSnapshot, ReceivableEvent.Key> {
+
+    /** Último snapshot de la cuenta anterior a una secuencia (por la clave primaria). */
+    Optional<ReceivableSnapshot> findFirstByIdAccountsReceivableIdAndIdSequenceNumberLessThanOrderByIdSequenceNumberDesc(
+            Long arId, Long sequence);
+
+    List<ReceivableSnapshot> findByIdAccountsReceivableIdOrderByIdSequenceNumber(Long arId);
+
+    /** Descarta los snapshots que incluyen un pago anulado. */
+    @Modifying(flushAutomatically = true, clearAutomatically = false)
+    @Query("DELETE FROM ReceivableSnapshot s WHERE s.id.accountsReceivableId = :arId AND s.id.sequenceNumber >= :fromSequence")
+    int deleteFrom(@Param("arId") Long arId, @Param("fromSequence") long fromSequence);
+}
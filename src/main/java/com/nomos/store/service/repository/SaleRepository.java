@@ -2,13 +2,60 @@ package com.nomos.store.service.repository;
 
 import com.nomos.store.service.model.Sale;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.time.LocalDateTime;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
     List<Sale> findBySellerId(Long sellerId);
     List<Sale> findBySaleDateBetween(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+
+    interface SaleVersions {
+        Long getSaleVersion();
+        Long getReceivableVersion();
+    }
+
+    /**
+     * Versiones de la venta y de su cuenta por cobrar (ambas forman parte del JSON de la venta),
+     * por clave primaria y el índice único de accounts_receivable.sale_id.
+     */
+    @Query("SELECT s.version AS saleVersion, ar.version AS receivableVersion " +
+            "FROM Sale s LEFT JOIN s.accountsReceivable ar WHERE s.id = :id")
+    Optional<SaleVersions> findVersionsById(@Param("id") Long id);
+
+    /**
+     * Página de resúmenes de venta por keyset sobre (sale_date, id), de la más reciente a la más antigua.
+     * Una sola sentencia: los subselects correlacionados solo se evalúan para las filas que pasan el LIMIT.
+     */
+    @Query(value = "SELECT s.id AS id, s.sale_date AS saleDate, s.client_id AS clientId, s.seller_id AS sellerId, " +
+            "s.type AS type, s.payment_condition AS paymentCondition, s.status AS status, s.total_amount AS totalAmount, " +
+            "COALESCE(ar.paid_amount, 0) AS paidAmount, " +
+            "COALESCE(ar.balance, s.total_amount) AS balance, " +
+            "EXISTS (SELECT 1 FROM installments i WHERE i.accounts_receivable_id = ar.id " +
+            "        AND i.status <> 'PAID' AND (i.status = 'OVERDUE' OR i.due_date < CURRENT_DATE)) AS overdue, " +
+            "EXISTS (SELECT 1 FROM sales_documents d WHERE d.sale_id = s.id " +
+            "        AND d.status NOT IN ('VOIDED', 'REJECTED')) AS hasFiscalDocument " +
+            "FROM sales s " +
+            "LEFT JOIN accounts_receivable ar ON ar.sale_id = s.id " +
+            "WHERE (s.sale_date, s.id) < (:cursorDate, :cursorId) " +
+            "AND s.sale_date >= :from AND s.sale_date < :to " +
+            "AND (CAST(:status AS VARCHAR) IS NULL OR s.status = CAST(:status AS VARCHAR)) " +
+            "AND (CAST(:sellerId AS BIGINT) IS NULL OR s.seller_id = CAST(:sellerId AS BIGINT)) " +
+            "AND (CAST(:clientId AS BIGINT) IS NULL OR s.client_id = CAST(:clientId AS BIGINT)) " +
+            "ORDER BY s.sale_date DESC, s.id DESC " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<SaleSummary> findSummaryPage(@Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") Long cursorId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("status") String status,
+                                      @Param("sellerId") Long sellerId,
+                                      @Param("clientId") Long clientId,
+                                      @Param("limit") int limit);
+}
@@ -0,0 +1,24 @@
+package com.nomos.store.service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Modelo de lectura para listados y grillas de ventas.
+ * Saldo, monto pagado, vencimiento y comprobante se calculan en SQL,
+ * equivalentes a los getters derivados de {@code Sale} y {@code AccountsReceivable}
+ * pero sin cargar el grafo de cuotas, cobros ni documentos.
+ */
+public interface SaleSummary {
+    Long getId();
+    LocalDateTime getSaleDate();
+    Long getClientId();
+    Long getSellerId();
+    String getType();
+    String getPaymentCondition();
+    String getStatus();
+    Double getTotalAmount();
+    Double getPaidAmount();
+    Double getBalance();
+    Boolean getOverdue();
+    Boolean getHasFiscalDocument();
+}
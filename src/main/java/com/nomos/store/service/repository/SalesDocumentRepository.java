@@ -2,10 +2,13 @@ package com.nomos.store.service.repository;
 
 import com.nomos.store.service.model.SalesDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface SalesDocumentRepository extends JpaRepository<SalesDocument, Long> {
@@ -15,4 +18,15 @@ public interface SalesDocumentRepository extends JpaRepository<SalesDocument, Lo
     Optional<SalesDocument> findBySeriesAndNumber(String series, String number);
 
     long countBySeries(String series);
-}
\ No newline at end of file
+
+    interface DocumentSale {
+        String getSeries();
+        String getNumber();
+        Long getSaleId();
+    }
+
+    /** Venta de cada comprobante; el llamador descarta las combinaciones serie/número que no pidió. */
+    @Query("SELECT d.series AS series, d.number AS number, d.sale.id AS saleId FROM SalesDocument d " +
+           "WHERE d.series IN :series AND d.number IN :numbers")
+    List<DocumentSale> findSalesByDocuments(@Param("series") Set<String> series, @Param("numbers") Set<String> numbers);
+}
@@ -0,0 +1,77 @@
+package com.nomos.store.service.repository;
+
+import com.nomos.store.service.model.SalesDailySellerRollup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consultas de tablero sobre las tablas de acumulados; nunca leen sales ni sale_details.
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesDailySellerRollup, SalesDailySellerRollup.Key> {
+
+    interface SellerTotals {
+        Long getSellerId();
+        String getSaleType();
+        Long getSaleCount();
+        Double getTotalAmount();
+        Long getCancelledCount();
+        Double getCancelledAmount();
+        Double getReturnedAmount();
+    }
+
+    interface DailyTotals {
+        LocalDate getSaleDay();
+        String getSaleType();
+        Long getSaleCount();
+        Double getTotalAmount();
+        Double getCancelledAmount();
+        Double getReturnedAmount();
+    }
+
+    interface ProductTotals {
+        Long getProductId();
+        Long getQuantity();
+        Double getAmount();
+    }
+
+    @Query("SELECT r.id.sellerId AS sellerId, r.id.saleType AS saleType, " +
+            "SUM(r.saleCount) AS saleCount, SUM(r.totalAmount) AS totalAmount, " +
+            "SUM(r.cancelledCount) AS cancelledCount, SUM(r.cancelledAmount) AS cancelledAmount, " +
+            "SUM(r.returnedAmount) AS returnedAmount " +
+            "FROM SalesDailySellerRollup r " +
+            "WHERE r.id.saleDay BETWEEN :from AND :to " +
+            "AND (:sellerId IS NULL OR r.id.sellerId = :sellerId) " +
+            "GROUP BY r.id.sellerId, r.id.saleType " +
+            "ORDER BY SUM(r.totalAmount) DESC")
+    List<SellerTotals> sumBySeller(@Param("from") LocalDate from,
+                                   @Param("to") LocalDate to,
+                                   @Param("sellerId") Long sellerId);
+
+    @Query("SELECT r.id.saleDay AS saleDay, r.id.saleType AS saleType, " +
+            "SUM(r.saleCount) AS saleCount, SUM(r.totalAmount) AS totalAmount, " +
+            "SUM(r.cancelledAmount) AS cancelledAmount, SUM(r.returnedAmount) AS returnedAmount " +
+            "FROM SalesDailySellerRollup r " +
+            "WHERE r.id.saleDay BETWEEN :from AND :to " +
+            "AND (:sellerId IS NULL OR r.id.sellerId = :sellerId) " +
+            "GROUP BY r.id.saleDay, r.id.saleType " +
+            "ORDER BY r.id.saleDay, r.id.saleType")
+    List<DailyTotals> sumByDay(@Param("from") LocalDate from,
+                               @Param("to") LocalDate to,
+                               @Param("sellerId") Long sellerId);
+
+    @Query("SELECT p.id.productId AS productId, SUM(p.quantity) AS quantity, SUM(p.amount) AS amount " +
+            "FROM SalesDailyProductRollup p " +
+            "WHERE p.id.saleDay BETWEEN :from AND :to " +
+            "GROUP BY p.id.productId " +
+            "ORDER BY SUM(p.amount) DESC")
+    List<ProductTotals> sumByProduct(@Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     Limit limit);
+}
@@ -0,0 +1,187 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.AccountingJournalEntry;
+import com.nomos.store.service.model.AccountingOutboxEvent;
+import com.nomos.store.service.repository.AccountingOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Convierte los eventos pendientes del outbox contable en asientos, por lotes.
+ * Cada lote es una transacción: se bloquean los eventos (SKIP LOCKED), se arman y validan los asientos
+ * y se insertan todos juntos, así las líneas contables salen en batches JDBC.
+ * <p>
+ * Si el lote falla al insertar (un evento venenoso), se revierte entero y sus eventos se contabilizan
+ * uno por uno, cada uno en su propia transacción. El fallo de un evento se registra en otra transacción
+ * nueva, después del rollback, así el intento, la espera y el paso a FAILED no se pierden.
+ *
+ * Métricas: accounting.outbox.lag (segundos del evento pendiente más antiguo en el último ciclo),
+ * accounting.outbox.posted y accounting.outbox.failures.
+ */
+@Service
+@Slf4j
+public class AccountingOutboxPoster {
+
+    private final AccountingOutboxRepository outboxRepository;
+    private final AccountingService accountingService;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter postedCounter;
+    private final Counter failureCounter;
+
+    public AccountingOutboxPoster(AccountingOutboxRepository outboxRepository,
+                                  AccountingService accountingService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${store.accounting.outbox.batch-size:200}") int batchSize,
+                                  @Value("${store.accounting.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.accountingService = accountingService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("accounting.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Antigüedad del evento pendiente más antiguo del outbox contable")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.postedCounter = Counter.builder("accounting.outbox.posted")
+                .description("Asientos generados desde el outbox")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("accounting.outbox.failures")
+                .description("Intentos fallidos de contabilizar un evento del outbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Procesa un lote de eventos listos.
+     *
+     * @return cantidad de eventos leídos; igual a {@link #getBatchSize()} indica que puede haber más.
+     */
+    public int postPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>();
+        try {
+            Batch batch = transaction.execute(status -> postBatch(now, ids));
+            // Las métricas se cuentan después del commit: un lote revertido no suma nada.
+            postedCounter.increment(batch.posted());
+            failureCounter.increment(batch.failed());
+            return batch.read();
+        } catch (RuntimeException e) {
+            log.warn("Falló el lote de {} eventos del outbox contable, se contabilizan uno por uno: {}",
+                    ids.size(), e.getMessage());
+            Set<String> blockedReferences = new HashSet<>();
+            for (Long id : ids) {
+                postSingle(id, now, blockedReferences);
+            }
+            return ids.size();
+        }
+    }
+
+    private Batch postBatch(LocalDateTime now, List<Long> ids) {
+        List<AccountingOutboxEvent> events = outboxRepository.findReadyForPosting(now, Limit.of(batchSize));
+        events.forEach(event -> ids.add(event.getId()));
+
+        if (events.isEmpty()) {
+            lagSeconds.set(0);
+            return new Batch(0, 0, 0);
+        }
+        lagSeconds.set(Duration.between(events.get(0).getOccurredAt(), now).toSeconds());
+
+        List<AccountingJournalEntry> entries = new ArrayList<>();
+        List<AccountingOutboxEvent> posted = new ArrayList<>();
+        Set<String> blockedReferences = new HashSet<>();
+        int failed = 0;
+
+        for (AccountingOutboxEvent event : events) {
+            // Si un evento de un documento falla, los siguientes del mismo documento esperan su turno.
+            if (blockedReferences.contains(event.getReferenceDocument())) {
+                continue;
+            }
+            try {
+                AccountingJournalEntry entry = buildEntry(event);
+                accountingService.validateEntry(entry);
+                entries.add(entry);
+                posted.add(event);
+            } catch (RuntimeException e) {
+                blockedReferences.add(event.getReferenceDocument());
+                registerFailure(event, e, now);
+                failed++;
+            }
+        }
+
+        accountingService.createEntries(entries);
+
+        for (int i = 0; i < posted.size(); i++) {
+            posted.get(i).markPosted(entries.get(i).getId(), now);
+        }
+
+        log.debug("Outbox contable: {} eventos leídos, {} asientos generados.", events.size(), posted.size());
+        return new Batch(events.size(), posted.size(), failed);
+    }
+
+    /**
+     * Contabiliza un evento del lote fallido en su propia transacción; si falla, registra el intento en
+     * una transacción nueva y bloquea los eventos siguientes del mismo documento.
+     */
+    private void postSingle(Long id, LocalDateTime now, Set<String> blockedReferences) {
+        try {
+            Boolean posted = transaction.execute(status -> outboxRepository.lockReady(id, now)
+                    .filter(event -> !blockedReferences.contains(event.getReferenceDocument()))
+                    .map(event -> {
+                        AccountingJournalEntry entry = buildEntry(event);
+                        accountingService.createEntries(List.of(entry));
+                        event.markPosted(entry.getId(), now);
+                        return true;
+                    })
+                    .orElse(false));
+            if (Boolean.TRUE.equals(posted)) {
+                postedCounter.increment();
+            }
+        } catch (RuntimeException e) {
+            transaction.executeWithoutResult(status -> outboxRepository.lockReady(id, now).ifPresent(event -> {
+                blockedReferences.add(event.getReferenceDocument());
+                registerFailure(event, e, now);
+            }));
+            failureCounter.increment();
+        }
+    }
+
+    private void registerFailure(AccountingOutboxEvent event, RuntimeException e, LocalDateTime now) {
+        event.registerFailure(e.getMessage(), now, maxAttempts);
+        log.warn("No se pudo contabilizar el evento {} ({}), intento {}: {}",
+                event.getId(), event.getReferenceDocument(), event.getAttempts(), e.getMessage());
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private record Batch(int read, int posted, int failed) {
+    }
+
+    private AccountingJournalEntry buildEntry(AccountingOutboxEvent event) {
+        if (AccountingOutboxEvent.SALE_CREATED.equals(event.getEventType())) {
+            return accountingService.buildSaleEntry(event);
+        }
+        throw new IllegalStateException("Tipo de evento contable desconocido: " + event.getEventType());
+    }
+}
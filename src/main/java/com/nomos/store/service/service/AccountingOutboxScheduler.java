@@ -0,0 +1,32 @@
+package com.nomos.store.service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dispara periódicamente el {@link AccountingOutboxPoster} y vacía el backlog lote por lote.
+ * Se desactiva con store.accounting.outbox.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "store.accounting.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AccountingOutboxScheduler {
+
+    private final AccountingOutboxPoster poster;
+
+    @Scheduled(fixedDelayString = "${store.accounting.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        try {
+            int read;
+            do {
+                read = poster.postPending();
+            } while (read >= poster.getBatchSize());
+        } catch (RuntimeException e) {
+            log.error("Error procesando el outbox contable: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -2,16 +2,22 @@ package com.nomos.store.service.service;
 
 import com.nomos.store.service.model.AccountingJournalEntry;
 import com.nomos.store.service.model.AccountingJournalLine;
+import com.nomos.store.service.model.AccountingOutboxEvent;
+import com.nomos.store.service.model.Money;
 import com.nomos.store.service.repository.AccountingJournalEntryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class AccountingService {
 
+    static final long IGV_PERCENT = 18;
+
     @Autowired
     private AccountingJournalEntryRepository journalRepository;
 
@@ -21,6 +27,23 @@ public class AccountingService {
      */
     @Transactional
     public AccountingJournalEntry createEntry(AccountingJournalEntry entry) {
+        validateEntry(entry);
+        return journalRepository.save(entry);
+    }
+
+    /**
+     * Registra varios asientos en la misma transacción (las líneas se insertan en batch al hacer flush).
+     */
+    @Transactional
+    public List<AccountingJournalEntry> createEntries(List<AccountingJournalEntry> entries) {
+        entries.forEach(this::validateEntry);
+        return journalRepository.saveAll(entries);
+    }
+
+    /**
+     * Valida que el asiento tenga líneas y esté cuadrado (DEBE == HABER).
+     */
+    public void validateEntry(AccountingJournalEntry entry) {
         if (entry.getLines() == null || entry.getLines().isEmpty()) {
             throw new IllegalArgumentException("El asiento contable debe tener al menos una línea.");
         }
@@ -38,13 +61,67 @@ public class AccountingService {
                     totalDebit, totalCredit
             ));
         }
+    }
 
-        return journalRepository.save(entry);
+    /**
+     * Genera el asiento contable de venta a partir del evento del outbox. El interés financiado de una
+     * venta a crédito se carga a la cuenta por cobrar junto con la venta y se abona a intereses diferidos,
+     * así el DEBE de 12.1 coincide con el total de la cuenta por cobrar.
+     */
+    public AccountingJournalEntry buildSaleEntry(AccountingOutboxEvent event) {
+            AccountingJournalEntry entry = new AccountingJournalEntry();
+            entry.setEntryDate(event.getOccurredAt());
+            entry.setConcept("Venta " + event.getSaleType() + " #" + event.getSaleId());
+            entry.setReferenceDocument(event.getReferenceDocument());
+            entry.setStatus("POSTED");
+
+            List<AccountingJournalLine> lines = new ArrayList<>();
+            long interestCents = event.getInterestAmount() != null ? Money.toCents(event.getInterestAmount()) : 0L;
+
+            lines.add(AccountingJournalLine.builder()
+                    .accountCode("12.1")
+                    .accountName("Facturas por Cobrar")
+                    .debit(Money.toAmount(Money.toCents(event.getAmount()) + interestCents))
+                    .credit(0.0)
+                    .build());
+
+            // Asumiendo IGV 18%: la base se redondea y el IGV es el resto, así el asiento cuadra al céntimo.
+            long totalCents = Money.toCents(event.getAmount());
+            long baseImponibleCents = Money.multiply(totalCents, 100, 100 + IGV_PERCENT, RoundingMode.HALF_UP);
+            long igvCents = totalCents - baseImponibleCents;
+
+            lines.add(AccountingJournalLine.builder()
+                    .accountCode("40.1")
+                    .accountName("Tributos por Pagar (IGV)")
+                    .debit(0.0)
+                    .credit(Money.toAmount(igvCents))
+                    .build());
+
+            lines.add(AccountingJournalLine.builder()
+                    .accountCode("70.1")
+                    .accountName("Venta de Mercaderías")
+                    .debit(0.0)
+                    .credit(Money.toAmount(baseImponibleCents))
+                    .build());
+
+            if (interestCents > 0) {
+                lines.add(AccountingJournalLine.builder()
+                        .accountCode("49.6")
+                        .accountName("Intereses Diferidos")
+                        .debit(0.0)
+                        .credit(Money.toAmount(interestCents))
+                        .build());
+            }
+
+            entry.setLines(lines);
+
+            return entry;
     }
 
     /**
      * Obtener historial completo ordenado por fecha.
      */
+    @Transactional(readOnly = true)
     public List<AccountingJournalEntry> getAllEntries() {
         return journalRepository.findAllByOrderByEntryDateDesc();
     }
@@ -52,6 +129,7 @@ public class AccountingService {
     /**
      * Obtener un asiento específico con sus líneas.
      */
+    @Transactional(readOnly = true)
     public AccountingJournalEntry getEntryById(Long id) {
         return journalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Asiento contable no encontrado: " + id));
@@ -60,6 +138,7 @@ public class AccountingService {
     /**
      * Buscar asientos relacionados a un documento (Ej: ver todos los movimientos de la Venta #100)
      */
+    @Transactional(readOnly = true)
     public List<AccountingJournalEntry> getEntriesByReference(String reference) {
         return journalRepository.findByReferenceDocument(reference);
     }
@@ -0,0 +1,75 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.SaleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Versiones de Sale y AccountsReceivable para GET condicional (ETag / If-None-Match).
+ * <p>
+ * Hibernate sólo incrementa {@code @Version} cuando cambia una columna de la propia entidad; los cambios
+ * en hijos (cobros, cuotas, documentos) pasan por {@link #touch(Object)} para que el ETag del agregado
+ * cambie igual. El incremento viaja como un UPDATE condicionado a la versión leída, así que dos
+ * escritores concurrentes sobre el mismo agregado no pasan ambos.
+ */
+@Service
+@RequiredArgsConstructor
+public class AggregateVersionService {
+
+    private final SaleRepository saleRepository;
+    private final AccountsReceivableRepository arRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Marca el agregado como modificado en la transacción actual (incremento forzado de versión). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void touch(Object aggregateRoot) {
+        entityManager.lock(aggregateRoot, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /** ETag de la venta: combina su versión con la de su cuenta por cobrar, que viaja embebida. */
+    @Transactional(readOnly = true)
+    public Optional<String> saleEtag(Long saleId) {
+        return saleRepository.findVersionsById(saleId)
+                .map(v -> "\"s" + v.getSaleVersion() + "." +
+                        (v.getReceivableVersion() == null ? "0" : v.getReceivableVersion()) + "\"");
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> receivableEtagBySale(Long saleId) {
+        return arRepository.findVersionBySaleId(saleId)
+                .map(v -> "\"ar" + v + "\"");
+    }
+
+    /**
+     * Evalúa If-None-Match contra el ETag vigente: admite listas, {@code *} y etiquetas débiles
+     * ({@code W/"..."}), que para un GET se comparan igual que las fuertes.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
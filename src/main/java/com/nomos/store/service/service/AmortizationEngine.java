@@ -0,0 +1,146 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.Money;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cronogramas de amortización en céntimos, sin estado ni acceso a base de datos: lo usan tanto las
+ * cotizaciones ({@code POST /api/store/sales/quote}) como el alta de ventas a crédito.
+ * <p>
+ * La tasa es efectiva anual (TEA, en porcentaje) y se convierte a la tasa efectiva del periodo según
+ * la frecuencia. Cada interés se redondea HALF_UP al céntimo y la última cuota absorbe la diferencia
+ * de capital, así la suma del capital amortizado es exactamente el monto financiado. Con tasa cero,
+ * francés y alemán coinciden con el reparto en cuotas iguales de siempre.
+ */
+public final class AmortizationEngine {
+
+    public static final int MAX_INSTALLMENTS = 360;
+    /** Tope de la TEA aceptada, en porcentaje. */
+    public static final double MAX_ANNUAL_RATE = 500.0;
+
+    private AmortizationEngine() {
+    }
+
+    public enum Method {
+        /** Cuota constante. */
+        FRENCH,
+        /** Amortización de capital constante; la cuota decrece. */
+        GERMAN;
+
+        public static Method parse(String value) {
+            if (value == null || value.isBlank()) return FRENCH;
+            try {
+                return Method.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Sistema de amortización no soportado: " + value + " (use french o german)");
+            }
+        }
+    }
+
+    public enum Frequency {
+        WEEKLY(52, 0, 1),
+        BIWEEKLY(26, 0, 2),
+        MONTHLY(12, 1, 0),
+        BIMONTHLY(6, 2, 0),
+        QUARTERLY(4, 3, 0),
+        SEMIANNUAL(2, 6, 0);
+
+        private final int periodsPerYear;
+        private final int months;
+        private final int weeks;
+
+        Frequency(int periodsPerYear, int months, int weeks) {
+            this.periodsPerYear = periodsPerYear;
+            this.months = months;
+            this.weeks = weeks;
+        }
+
+        /** Vencimiento de la cuota {@code number}, contado desde la fecha base (sin arrastrar fin de mes). */
+        public LocalDate dueDate(LocalDate baseDate, int number) {
+            return months > 0 ? baseDate.plusMonths((long) months * number) : baseDate.plusWeeks((long) weeks * number);
+        }
+
+        public static Frequency parse(String value) {
+            if (value == null || value.isBlank()) return MONTHLY;
+            try {
+                return Frequency.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Frecuencia de cuotas no soportada: " + value);
+            }
+        }
+    }
+
+    /** Condiciones del plan ya validadas; {@code annualRate} es la TEA en porcentaje. */
+    public record Plan(int installments, double annualRate, Method method, Frequency frequency) {
+
+        public Plan {
+            if (installments < 1 || installments > MAX_INSTALLMENTS) {
+                throw new IllegalArgumentException("El número de cuotas debe estar entre 1 y " + MAX_INSTALLMENTS);
+            }
+            if (!(annualRate >= 0 && annualRate <= MAX_ANNUAL_RATE)) {
+                throw new IllegalArgumentException("La tasa anual debe estar entre 0 y " + MAX_ANNUAL_RATE + " %");
+            }
+        }
+
+        /** Valores nulos toman el plan por defecto: una cuota, sin interés, francés y mensual. */
+        public static Plan of(Integer installments, Double annualRate, String method, String frequency) {
+            return new Plan(installments != null && installments > 0 ? installments : 1,
+                    annualRate != null ? annualRate : 0.0,
+                    Method.parse(method),
+                    Frequency.parse(frequency));
+        }
+
+        /** Tasa efectiva del periodo: (1 + TEA)^(1 / periodos por año) - 1. */
+        public double periodicRate() {
+            return annualRate == 0.0 ? 0.0 : Math.pow(1 + annualRate / 100, 1.0 / frequency.periodsPerYear) - 1;
+        }
+    }
+
+    public record Line(int number, LocalDate dueDate, long paymentCents, long capitalCents,
+                       long interestCents, long balanceCents) {
+    }
+
+    public record Schedule(List<Line> lines, long principalCents, long interestCents) {
+
+        public long totalCents() {
+            return principalCents + interestCents;
+        }
+    }
+
+    public static Schedule schedule(Plan plan, long principalCents, LocalDate baseDate) {
+        if (principalCents <= 0) {
+            throw new IllegalArgumentException("El monto a financiar debe ser mayor a 0");
+        }
+        int n = plan.installments();
+        double rate = plan.periodicRate();
+
+        long regularCapital = Money.divide(principalCents, n, RoundingMode.HALF_UP);
+        long frenchPayment = rate == 0.0
+                ? regularCapital
+                : Math.round(principalCents * rate / (1 - Math.pow(1 + rate, -n)));
+
+        List<Line> lines = new ArrayList<>(n);
+        long balance = principalCents;
+        long totalInterest = 0;
+        for (int k = 1; k <= n; k++) {
+            long interest = Math.round(balance * rate);
+            long capital;
+            if (k == n) {
+                capital = balance;
+            } else if (plan.method() == Method.FRENCH) {
+                capital = Math.min(balance, Math.max(0L, frenchPayment - interest));
+            } else {
+                capital = Math.min(balance, regularCapital);
+            }
+            balance -= capital;
+            totalInterest += interest;
+            lines.add(new Line(k, plan.frequency().dueDate(baseDate, k), capital + interest, capital, interest, balance));
+        }
+        return new Schedule(lines, principalCents, totalInterest);
+    }
+}
@@ -0,0 +1,474 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.Collection;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.CollectionRepository;
+import com.nomos.store.service.repository.SalesDocumentRepository;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Importación de extractos bancarios: cada depósito se concilia con una venta y se aplica como cobro.
+ * <p>
+ * Formatos (una operación por línea, UTF-8):
+ * <ul>
+ *   <li>CSV: {@code fecha,monto,operacion,referencia} con fecha ISO (2024-05-31) y monto con punto decimal;
+ *   la referencia es el último campo y puede contener comas. Se admite una cabecera.</li>
+ *   <li>Ancho fijo: columnas 1–8 fecha {@code yyyyMMdd}, 9–23 monto en céntimos sin separador,
+ *   24–35 número de operación y de la 36 en adelante la referencia.</li>
+ * </ul>
+ * La conciliación busca en la referencia un comprobante ({@code F001-123}) o una venta
+ * ({@code VENTA-123}, {@code VENTA#123} o {@code VENTA123}); si no hay, busca una única cuenta activa con
+ * una cuota pendiente por el monto exacto. Varias candidatas quedan como AMBIGUOUS y ninguna como
+ * UNMATCHED, sin aplicar nada. Una candidata por monto la usa sólo la primera fila del tramo que la
+ * concilia: las siguientes filas con ese monto quedan AMBIGUOUS. El número de operación
+ * se guarda como referencia del cobro, así reimportar el mismo extracto marca DUPLICATE en vez de
+ * cobrar dos veces.
+ * <p>
+ * El archivo se lee línea por línea y se procesa en tramos de {@code chunk-size}: cada tramo resuelve
+ * referencias, duplicados y montos con una consulta por tipo, aplica los pagos con
+ * {@link AccountsReceivable#applyPayment} y confirma en su propia transacción. Un conflicto de versión
+ * con otro cobro repite el tramo completo ({@link ReceivableWriteGuard#withRetry}).
+ */
+@Service
+@Slf4j
+public class BankStatementImportService {
+
+    public enum Format {
+        CSV,
+        FIXED;
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato no soportado: " + value + " (use csv o fixed)");
+            }
+        }
+    }
+
+    public enum RowStatus {
+        MATCHED,
+        AMBIGUOUS,
+        UNMATCHED,
+        DUPLICATE,
+        INVALID
+    }
+
+    @Data
+    @Builder
+    public static class RowResult {
+        private int line;
+        private LocalDate date;
+        private Double amount;
+        private String operation;
+        private String reference;
+        private RowStatus status;
+        private Long saleId;
+        private Long collectionId;
+        private List<Long> candidateSaleIds;
+        private String message;
+    }
+
+    @Data
+    public static class ImportReport {
+        private int totalRows;
+        private int matched;
+        private int ambiguous;
+        private int unmatched;
+        private int duplicates;
+        private int invalid;
+        private long matchedCents;
+        private List<RowResult> rows = new ArrayList<>();
+
+        public Double getMatchedAmount() {
+            return Money.toAmount(matchedCents);
+        }
+
+        void add(RowResult row) {
+            rows.add(row);
+            totalRows++;
+            switch (row.getStatus()) {
+                case MATCHED -> {
+                    matched++;
+                    matchedCents += Money.toCents(row.getAmount());
+                }
+                case AMBIGUOUS -> ambiguous++;
+                case UNMATCHED -> unmatched++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+    }
+
+    private static final Pattern DOCUMENT_REFERENCE = Pattern.compile("\\b([A-Z][A-Z0-9]{3})-0*(\\d{1,8})\\b");
+    private static final Pattern SALE_REFERENCE = Pattern.compile("\\bVENTA[#-]?(\\d{1,18})\\b");
+    private static final DateTimeFormatter FIXED_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int FIXED_AMOUNT_END = 23;
+    private static final int FIXED_OPERATION_END = 35;
+
+    private static final String AMOUNT_CANDIDATES_SQL =
+            "SELECT DISTINCT ar.sale_id, CAST(ROUND((i.expected_amount - i.paid_amount) * 100) AS BIGINT) AS pending " +
+            "FROM installments i JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id " +
+            "WHERE ar.status = 'ACTIVE' AND i.status <> 'PAID' " +
+            "AND CAST(ROUND((i.expected_amount - i.paid_amount) * 100) AS BIGINT) IN (:amounts)";
+
+    private final ReferenceDataService referenceDataService;
+    private final CollectionRepository collectionRepository;
+    private final AccountsReceivableRepository arRepository;
+    private final SalesDocumentRepository documentRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AggregateVersionService aggregateVersionService;
+    private final ReceivableWriteGuard writeGuard;
+    private final ReceivableLedgerService ledgerService;
+    private final ClientExposureService exposureService;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public BankStatementImportService(ReferenceDataService referenceDataService,
+                                      CollectionRepository collectionRepository,
+                                      AccountsReceivableRepository arRepository,
+                                      SalesDocumentRepository documentRepository,
+                                      NamedParameterJdbcTemplate jdbcTemplate,
+                                      AggregateVersionService aggregateVersionService,
+                                      ReceivableWriteGuard writeGuard,
+                                      ReceivableLedgerService ledgerService,
+                                      ClientExposureService exposureService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${store.collections.import.chunk-size:500}") int chunkSize) {
+        this.referenceDataService = referenceDataService;
+        this.collectionRepository = collectionRepository;
+        this.arRepository = arRepository;
+        this.documentRepository = documentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.aggregateVersionService = aggregateVersionService;
+        this.writeGuard = writeGuard;
+        this.ledgerService = ledgerService;
+        this.exposureService = exposureService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Lee el extracto y aplica los depósitos conciliados.
+     *
+     * @param paymentMethodId medio de pago (cuenta bancaria) con el que se registran los cobros.
+     * @throws IllegalArgumentException si el medio de pago no existe.
+     */
+    public ImportReport importStatement(InputStream in, Format format, Long paymentMethodId) throws IOException {
+        PaymentMethodConfig paymentMethod = referenceDataService.findPaymentMethod(paymentMethodId)
+                .orElseThrow(() -> new IllegalArgumentException("Método de pago no encontrado: " + paymentMethodId));
+
+        ImportReport report = new ImportReport();
+        Set<String> operationsInFile = new HashSet<>();
+        List<StatementRow> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                continue;
+            }
+
+            StatementRow row;
+            try {
+                row = format == Format.CSV ? parseCsv(lineNumber, line) : parseFixed(lineNumber, line);
+            } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+                report.add(RowResult.builder().line(lineNumber).status(RowStatus.INVALID)
+                        .message("Línea inválida: " + e.getMessage()).build());
+                continue;
+            }
+            if (row.operation() != null && !operationsInFile.add(row.operation())) {
+                report.add(result(row, RowStatus.DUPLICATE, "Operación repetida en el archivo"));
+                continue;
+            }
+
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                processChunk(chunk, paymentMethod, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, paymentMethod, report);
+        }
+        report.getRows().sort(Comparator.comparingInt(RowResult::getLine));
+
+        log.info("Extracto importado: {} filas, {} conciliadas ({}), {} ambiguas, {} sin conciliar, {} duplicadas, {} inválidas",
+                report.getTotalRows(), report.getMatched(), Money.format(report.getMatchedCents()),
+                report.getAmbiguous(), report.getUnmatched(), report.getDuplicates(), report.getInvalid());
+        return report;
+    }
+
+    private void processChunk(List<StatementRow> rows, PaymentMethodConfig paymentMethod, ImportReport report) {
+        List<RowResult> results;
+        try {
+            results = writeGuard.withRetry(() -> chunkTransaction.execute(status -> reconcile(rows, paymentMethod)));
+        } catch (OptimisticLockingFailureException e) {
+            results = rows.stream()
+                    .map(r -> result(r, RowStatus.UNMATCHED, "Conflicto con otro cobro simultáneo; reimporte el extracto"))
+                    .toList();
+        }
+        results.forEach(report::add);
+    }
+
+    private List<RowResult> reconcile(List<StatementRow> rows, PaymentMethodConfig paymentMethod) {
+        Set<String> operations = rows.stream()
+                .map(StatementRow::operation)
+                .filter(op -> op != null)
+                .collect(Collectors.toSet());
+        Set<String> recorded = operations.isEmpty() ? Set.of()
+                : new HashSet<>(collectionRepository.findRecordedReferences(paymentMethod.getId(), operations));
+
+        Map<StatementRow, Long> referencedSale = resolveReferences(rows);
+        Map<Long, Set<Long>> salesByAmount = candidatesByAmount(rows.stream()
+                .filter(r -> !referencedSale.containsKey(r))
+                .map(StatementRow::amountCents)
+                .collect(Collectors.toSet()));
+
+        Set<Long> targetSales = new HashSet<>(referencedSale.values());
+        salesByAmount.values().stream().filter(c -> c.size() == 1).forEach(targetSales::addAll);
+        Map<Long, AccountsReceivable> receivables = targetSales.isEmpty() ? Map.of()
+                : arRepository.findWithInstallmentsBySaleIdIn(targetSales).stream()
+                        .collect(Collectors.toMap(ar -> ar.getSale().getId(), Function.identity()));
+
+        List<RowResult> results = new ArrayList<>(rows.size());
+        Map<Long, Set<Long>> usedByAmount = new HashMap<>();
+        Map<RowResult, Collection> applied = new IdentityHashMap<>();
+        List<Collection> postings = new ArrayList<>();
+        Set<AccountsReceivable> touched = new LinkedHashSet<>();
+        Map<AccountsReceivable, ClientExposureService.Contribution> exposure = new IdentityHashMap<>();
+
+        for (StatementRow row : rows) {
+            if (row.operation() != null && recorded.contains(row.operation())) {
+                results.add(result(row, RowStatus.DUPLICATE, "Operación ya registrada"));
+                continue;
+            }
+
+            Long saleId = referencedSale.get(row);
+            String matchedBy = "referencia";
+            if (saleId == null) {
+                Set<Long> candidates = salesByAmount.getOrDefault(row.amountCents(), Set.of());
+                Set<Long> taken = usedByAmount.getOrDefault(row.amountCents(), Set.of());
+                if (candidates.isEmpty() && !taken.isEmpty()) {
+                    RowResult ambiguous = result(row, RowStatus.AMBIGUOUS, "Otra fila del extracto ya se concilió con la cuota por este monto");
+                    ambiguous.setCandidateSaleIds(List.copyOf(new TreeSet<>(taken)));
+                    results.add(ambiguous);
+                    continue;
+                }
+                if (candidates.size() > 1) {
+                    RowResult ambiguous = result(row, RowStatus.AMBIGUOUS, "Varias cuentas con una cuota por este monto");
+                    ambiguous.setCandidateSaleIds(List.copyOf(new TreeSet<>(candidates)));
+                    results.add(ambiguous);
+                    continue;
+                }
+                if (candidates.isEmpty()) {
+                    results.add(result(row, RowStatus.UNMATCHED, "Sin referencia reconocible ni cuota por este monto"));
+                    continue;
+                }
+                saleId = candidates.iterator().next();
+                matchedBy = "monto";
+            }
+
+            AccountsReceivable ar = receivables.get(saleId);
+            if (ar == null || ar.getStatus() != AccountsReceivableStatus.ACTIVE) {
+                RowResult unmatched = result(row, RowStatus.UNMATCHED, "La venta no tiene una cuenta por cobrar activa");
+                unmatched.setSaleId(saleId);
+                results.add(unmatched);
+                continue;
+            }
+            long balanceCents = Money.toCents(ar.getBalance());
+            if (row.amountCents() > balanceCents) {
+                RowResult unmatched = result(row, RowStatus.UNMATCHED,
+                        "El monto excede el saldo pendiente (" + Money.format(balanceCents) + ")");
+                unmatched.setSaleId(saleId);
+                results.add(unmatched);
+                continue;
+            }
+
+            Collection collection = Collection.builder()
+                    .sale(ar.getSale())
+                    .accountsReceivable(ar)
+                    .amount(Money.toAmount(row.amountCents()))
+                    .paymentMethod(paymentMethod)
+                    .referenceNumber(row.operation())
+                    .collectionDate(row.date().atStartOfDay())
+                    .status("ACTIVO")
+                    .build();
+            exposure.putIfAbsent(ar, ClientExposureService.Contribution.of(ar));
+            ar.applyPayment(collection, null, row.date());
+            postings.add(collection);
+            touched.add(ar);
+            Set<Long> candidates = salesByAmount.get(row.amountCents());
+            if (candidates != null && candidates.remove(saleId)) {
+                usedByAmount.computeIfAbsent(row.amountCents(), k -> new HashSet<>()).add(saleId);
+            }
+
+            RowResult matched = result(row, RowStatus.MATCHED, "Conciliado por " + matchedBy);
+            matched.setSaleId(saleId);
+            applied.put(matched, collection);
+            results.add(matched);
+        }
+
+        touched.forEach(aggregateVersionService::touch);
+        collectionRepository.saveAll(applied.values());
+        for (Collection collection : postings) {
+            ledgerService.recordPayment(collection.getAccountsReceivable(), collection, null,
+                    collection.getCollectionDate().toLocalDate());
+        }
+        exposureService.recordChanges(exposure);
+        applied.forEach((result, collection) -> result.setCollectionId(collection.getId()));
+        return results;
+    }
+
+    /**
+     * Venta referida por cada fila: por id de venta directo o por serie y número de comprobante
+     * (una sola consulta para todo el tramo).
+     */
+    private Map<StatementRow, Long> resolveReferences(List<StatementRow> rows) {
+        Map<StatementRow, Long> sales = new HashMap<>();
+        Map<StatementRow, String> documents = new HashMap<>();
+        Set<String> series = new HashSet<>();
+        Set<String> numbers = new HashSet<>();
+
+        for (StatementRow row : rows) {
+            if (row.reference() == null) continue;
+            String reference = row.reference().toUpperCase(Locale.ROOT);
+
+            Matcher document = DOCUMENT_REFERENCE.matcher(reference);
+            if (document.find()) {
+                String number = String.format("%08d", Long.parseLong(document.group(2)));
+                documents.put(row, document.group(1) + "-" + number);
+                series.add(document.group(1));
+                numbers.add(number);
+                continue;
+            }
+            Matcher sale = SALE_REFERENCE.matcher(reference);
+            if (sale.find()) {
+                sales.put(row, Long.parseLong(sale.group(1)));
+            }
+        }
+
+        if (!documents.isEmpty()) {
+            Map<String, Long> saleByDocument = new HashMap<>();
+            for (SalesDocumentRepository.DocumentSale d : documentRepository.findSalesByDocuments(series, numbers)) {
+                saleByDocument.put(d.getSeries() + "-" + d.getNumber(), d.getSaleId());
+            }
+            documents.forEach((row, key) -> {
+                Long saleId = saleByDocument.get(key);
+                if (saleId != null) {
+                    sales.put(row, saleId);
+                }
+            });
+        }
+        return sales;
+    }
+
+    /**
+     * Ventas activas con alguna cuota pendiente por cada monto exacto, en céntimos.
+     */
+    private Map<Long, Set<Long>> candidatesByAmount(Set<Long> amounts) {
+        Map<Long, Set<Long>> candidates = new HashMap<>();
+        if (amounts.isEmpty()) {
+            return candidates;
+        }
+        jdbcTemplate.query(AMOUNT_CANDIDATES_SQL, Map.of("amounts", amounts), rs -> {
+            candidates.computeIfAbsent(rs.getLong("pending"), k -> new HashSet<>()).add(rs.getLong("sale_id"));
+        });
+        return candidates;
+    }
+
+    private static boolean isHeader(String line) {
+        String first = line.trim().toLowerCase(Locale.ROOT);
+        return first.startsWith("fecha") || first.startsWith("date");
+    }
+
+    static StatementRow parseCsv(int lineNumber, String line) {
+        String[] fields = line.split(",", 4);
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("se esperaban fecha,monto,operacion,referencia");
+        }
+        LocalDate date = LocalDate.parse(fields[0].trim());
+        long cents = positiveCents(new BigDecimal(fields[1].trim()).setScale(2, RoundingMode.UNNECESSARY));
+        String operation = fields.length > 2 ? blankToNull(fields[2]) : null;
+        String reference = fields.length > 3 ? blankToNull(fields[3]) : null;
+        return new StatementRow(lineNumber, date, cents, operation, reference);
+    }
+
+    static StatementRow parseFixed(int lineNumber, String line) {
+        if (line.length() < FIXED_OPERATION_END) {
+            throw new IllegalArgumentException("se esperaban al menos " + FIXED_OPERATION_END + " caracteres");
+        }
+        LocalDate date = LocalDate.parse(line.substring(0, 8), FIXED_DATE);
+        long cents = positiveCents(new BigDecimal(line.substring(8, FIXED_AMOUNT_END).trim()).movePointLeft(2));
+        String operation = blankToNull(line.substring(FIXED_AMOUNT_END, FIXED_OPERATION_END));
+        String reference = blankToNull(line.substring(FIXED_OPERATION_END));
+        return new StatementRow(lineNumber, date, cents, operation, reference);
+    }
+
+    private static long positiveCents(BigDecimal amount) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("el monto debe ser mayor a 0");
+        }
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private static String blankToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static RowResult result(StatementRow row, RowStatus status, String message) {
+        return RowResult.builder()
+                .line(row.line())
+                .date(row.date())
+                .amount(Money.toAmount(row.amountCents()))
+                .operation(row.operation())
+                .reference(row.reference())
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    record StatementRow(int line, LocalDate date, long amountCents, String operation, String reference) {
+    }
+}
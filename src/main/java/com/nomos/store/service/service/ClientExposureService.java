@@ -0,0 +1,321 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.ClientCreditExposure;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.InstallmentStatus;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.PaymentConditionEnum;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.ClientCreditExposureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene incrementalmente la exposición crediticia por cliente (client_credit_exposure) y aplica el
+ * límite de crédito al crear ventas.
+ * <p>
+ * Cada operación que modifica una cuenta por cobrar toma su {@link Contribution} antes del cambio y se la
+ * pasa a {@link #recordChanges}, que compara con el estado posterior y aplica sólo la diferencia, agrupada
+ * por cliente, en un UPDATE en batch. Como en {@link SalesRollupService}, los clientes sin fila pagan un
+ * INSERT ... ON CONFLICT DO NOTHING seguido de un segundo UPDATE; las filas se tocan en orden de cliente.
+ * Las cuotas que vence el job de vencimientos se suman en bloque con {@link #recordOverdue} y el recálculo
+ * de totales de cuentas vuelve a calcular desde cero a los clientes de las cuentas que corrigió
+ * ({@link #recomputeForReceivables}).
+ */
+@Service
+@Slf4j
+public class ClientExposureService {
+
+    private static final String UPDATE_EXPOSURE =
+            "UPDATE client_credit_exposure SET " +
+            "outstanding_amount = ROUND((outstanding_amount + ?) * 100) / 100, " +
+            "overdue_amount = ROUND((overdue_amount + ?) * 100) / 100, " +
+            "open_accounts = open_accounts + ?, updated_at = ? " +
+            "WHERE client_id = ?";
+
+    private static final String INSERT_EXPOSURE =
+            "INSERT INTO client_credit_exposure (client_id, outstanding_amount, overdue_amount, open_accounts, updated_at) " +
+            "VALUES (?, 0, 0, 0, ?) ON CONFLICT DO NOTHING";
+
+    /** Mismo filtro que el UPDATE que marca las cuotas en {@link InstallmentOverdueService}. */
+    private static final String OVERDUE_DELTA =
+            "UPDATE client_credit_exposure e SET overdue_amount = ROUND((e.overdue_amount + COALESCE(" +
+            "(SELECT SUM(i.expected_amount - i.paid_amount) FROM installments i " +
+            " JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id " +
+            " JOIN sales s ON s.id = ar.sale_id " +
+            " WHERE s.client_id = e.client_id AND ar.status = 'ACTIVE' AND i.status IN ('PENDING', 'PARTIAL') " +
+            " AND i.due_date < ? AND i.accounts_receivable_id BETWEEN ? AND ?), 0)) * 100) / 100, updated_at = ? " +
+            "WHERE e.client_id IN (SELECT s.client_id FROM installments i " +
+            " JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id " +
+            " JOIN sales s ON s.id = ar.sale_id " +
+            " WHERE ar.status = 'ACTIVE' AND i.status IN ('PENDING', 'PARTIAL') " +
+            " AND i.due_date < ? AND i.accounts_receivable_id BETWEEN ? AND ?)";
+
+    private static final String CLIENTS_OF_RECEIVABLES =
+            "SELECT DISTINCT s.client_id FROM accounts_receivable ar JOIN sales s ON s.id = ar.sale_id " +
+            "WHERE ar.id BETWEEN ? AND ? AND s.client_id IS NOT NULL";
+
+    private static final String INSERT_MISSING_FOR_RECEIVABLES =
+            "INSERT INTO client_credit_exposure (client_id, outstanding_amount, overdue_amount, open_accounts, updated_at) " +
+            "SELECT DISTINCT s.client_id, 0, 0, 0, ? FROM accounts_receivable ar JOIN sales s ON s.id = ar.sale_id " +
+            "WHERE ar.id BETWEEN ? AND ? AND s.client_id IS NOT NULL ON CONFLICT DO NOTHING";
+
+    private static final String LOCK_FOR_RECEIVABLES =
+            "SELECT e.client_id FROM client_credit_exposure e WHERE e.client_id IN (" + CLIENTS_OF_RECEIVABLES + ") " +
+            "ORDER BY e.client_id FOR UPDATE";
+
+    /** Misma definición que el backfill de 011_client_credit_exposure.sql. */
+    private static final String RECOMPUTE_FOR_RECEIVABLES =
+            "UPDATE client_credit_exposure e SET " +
+            "outstanding_amount = COALESCE((SELECT ROUND(SUM(ar.balance) * 100) / 100 FROM accounts_receivable ar " +
+            " JOIN sales s ON s.id = ar.sale_id WHERE s.client_id = e.client_id AND ar.status = 'ACTIVE'), 0), " +
+            "overdue_amount = COALESCE((SELECT ROUND(SUM(i.expected_amount - i.paid_amount) * 100) / 100 FROM installments i " +
+            " JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id JOIN sales s ON s.id = ar.sale_id " +
+            " WHERE s.client_id = e.client_id AND ar.status = 'ACTIVE' AND i.status = 'OVERDUE'), 0), " +
+            "open_accounts = (SELECT COUNT(*) FROM accounts_receivable ar JOIN sales s ON s.id = ar.sale_id " +
+            " WHERE s.client_id = e.client_id AND ar.status = 'ACTIVE'), " +
+            "updated_at = ? " +
+            "WHERE e.client_id IN (" + CLIENTS_OF_RECEIVABLES + ")";
+
+    /** Venta a crédito rechazada por el límite del cliente o por su saldo vencido (ver {@code store.credit.*}). */
+    public static class CreditLimitExceededException extends RuntimeException {
+        public CreditLimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClientCreditExposureRepository exposureRepository;
+    private final Clock clock;
+    private final long creditLimitCents;
+    private final boolean rejectOverdue;
+
+    public ClientExposureService(JdbcTemplate jdbcTemplate,
+                                 ClientCreditExposureRepository exposureRepository,
+                                 Clock clock,
+                                 @Value("${store.credit.limit:0}") double creditLimit,
+                                 @Value("${store.credit.reject-overdue:false}") boolean rejectOverdue) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exposureRepository = exposureRepository;
+        this.clock = clock;
+        this.creditLimitCents = Money.toCents(creditLimit);
+        this.rejectOverdue = rejectOverdue;
+    }
+
+    /** Lo que una cuenta aporta a la exposición de su cliente. Sólo las cuentas ACTIVE aportan. */
+    public record Contribution(long outstandingCents, long overdueCents, long openAccounts) {
+
+        public static final Contribution NONE = new Contribution(0, 0, 0);
+
+        public static Contribution of(AccountsReceivable ar) {
+            if (ar == null || ar.getStatus() != AccountsReceivableStatus.ACTIVE) {
+                return NONE;
+            }
+            long overdue = 0;
+            for (Installment i : ar.getInstallments()) {
+                if (i.getStatus() == InstallmentStatus.OVERDUE) {
+                    overdue += Math.max(0L, Money.toCents(i.getExpectedAmount()) - Money.toCents(i.getPaidAmount()));
+                }
+            }
+            long balance = Money.toCents(ar.getBalance() != null ? ar.getBalance() : ar.getTotalAmount());
+            return new Contribution(balance, overdue, 1);
+        }
+    }
+
+    /** Exposición tal como la ve el endpoint del cliente, con el límite configurado. */
+    public record Exposure(Long clientId, double outstandingAmount, double overdueAmount, long openAccounts,
+                           Double creditLimit, Double availableCredit, LocalDateTime updatedAt) {
+    }
+
+    @Transactional(readOnly = true)
+    public Exposure find(Long clientId) {
+        ClientCreditExposure row = exposureRepository.findById(clientId).orElse(null);
+        long outstanding = row != null ? Money.toCents(row.getOutstandingAmount()) : 0L;
+        Double limit = creditLimitCents > 0 ? Money.toAmount(creditLimitCents) : null;
+        Double available = creditLimitCents > 0 ? Money.toAmount(Math.max(0L, creditLimitCents - outstanding)) : null;
+        return new Exposure(clientId, Money.toAmount(outstanding),
+                row != null ? row.getOverdueAmount() : 0.0,
+                row != null ? row.getOpenAccounts() : 0L,
+                limit, available, row != null ? row.getUpdatedAt() : null);
+    }
+
+    /**
+     * Rechaza las ventas a crédito que dejarían a su cliente por encima de {@code store.credit.limit} o, con
+     * {@code store.credit.reject-overdue}, a clientes con saldo vencido. En un bloque, cada cliente se evalúa
+     * con la suma de todas sus ventas a crédito del bloque.
+     * <p>
+     * Primero crea en cero las filas que falten (INSERT ... ON CONFLICT DO NOTHING) y después las bloquea en
+     * orden de cliente: así también se serializan dos primeras ventas simultáneas de un cliente sin fila.
+     * Sin límite ni regla de vencidos configurados no consulta nada.
+     *
+     * @throws CreditLimitExceededException si alguna venta no se puede otorgar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void checkCreditLimits(List<Sale> sales) {
+        if (creditLimitCents <= 0 && !rejectOverdue) {
+            return;
+        }
+        Map<Long, Long> requestedByClient = new TreeMap<>();
+        for (Sale sale : sales) {
+            if (sale.getPaymentCondition() == PaymentConditionEnum.CREDITO && sale.getClientId() != null
+                    && sale.getAccountsReceivable() != null) {
+                requestedByClient.merge(sale.getClientId(), Money.toCents(sale.getAccountsReceivable().getTotalAmount()), Long::sum);
+            }
+        }
+        if (requestedByClient.isEmpty()) {
+            return;
+        }
+
+        List<Long> clientIds = new ArrayList<>(requestedByClient.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        jdbcTemplate.batchUpdate(INSERT_EXPOSURE, clientIds, clientIds.size(), (ps, clientId) -> {
+            ps.setLong(1, clientId);
+            ps.setTimestamp(2, now);
+        });
+        for (ClientCreditExposure exposure : exposureRepository.findAllForUpdate(clientIds)) {
+            check(exposure, requestedByClient.get(exposure.getClientId()));
+        }
+    }
+
+    private void check(ClientCreditExposure exposure, long requested) {
+        Long clientId = exposure.getClientId();
+        long overdue = Money.toCents(exposure.getOverdueAmount());
+        if (rejectOverdue && overdue > 0) {
+            throw new CreditLimitExceededException("El cliente " + clientId + " tiene saldo vencido ("
+                    + Money.format(overdue) + "); no se le puede vender a crédito");
+        }
+        long outstanding = Money.toCents(exposure.getOutstandingAmount());
+        if (creditLimitCents > 0 && outstanding + requested > creditLimitCents) {
+            throw new CreditLimitExceededException("Límite de crédito excedido para el cliente " + clientId
+                    + ": saldo " + Money.format(outstanding) + " + venta " + Money.format(requested)
+                    + " supera " + Money.format(creditLimitCents));
+        }
+    }
+
+    /**
+     * Suma al vencido de cada cliente el saldo de las cuotas PENDING/PARTIAL anteriores a {@code day} de las
+     * cuentas activas {@code firstId..lastId}. Debe ejecutarse antes del UPDATE que las marca OVERDUE.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordOverdue(Date day, long firstId, long lastId) {
+        return jdbcTemplate.update(OVERDUE_DELTA, day, firstId, lastId,
+                Timestamp.valueOf(LocalDateTime.now(clock)), day, firstId, lastId);
+    }
+
+    /**
+     * Recalcula desde cero la exposición de los clientes con cuentas en {@code firstId..lastId}; lo usa
+     * {@link ReceivableTotalsRebuildService} tras corregir saldos que los deltas no vieron. Bloquea las
+     * filas antes del UPDATE, así el recálculo ve confirmadas las ventas y cobros que esperaba.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recomputeForReceivables(long firstId, long lastId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        jdbcTemplate.update(INSERT_MISSING_FOR_RECEIVABLES, now, firstId, lastId);
+        jdbcTemplate.queryForList(LOCK_FOR_RECEIVABLES, Long.class, firstId, lastId);
+        return jdbcTemplate.update(RECOMPUTE_FOR_RECEIVABLES, now, firstId, lastId);
+    }
+
+    /** Suma las cuentas por cobrar de ventas recién registradas. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSales(List<Sale> sales) {
+        Map<AccountsReceivable, Contribution> before = new IdentityHashMap<>();
+        for (Sale sale : sales) {
+            if (sale.getAccountsReceivable() != null) {
+                before.put(sale.getAccountsReceivable(), Contribution.NONE);
+            }
+        }
+        recordChanges(before);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(AccountsReceivable ar, Contribution before) {
+        recordChanges(Map.of(ar, before));
+    }
+
+    /**
+     * Aplica la diferencia entre el aporte previo de cada cuenta y el actual, en orden de cliente sea cual
+     * sea el orden de {@code before}. Las ventas sin cliente no se indexan. Las cuentas cambian de hashCode
+     * al imputarse, así que el mapa debe ser por identidad.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Map<AccountsReceivable, Contribution> before) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        before.forEach((ar, previous) -> {
+            Long clientId = ar.getSale() != null ? ar.getSale().getClientId() : null;
+            if (clientId == null) return;
+            Contribution current = Contribution.of(ar);
+            deltas.computeIfAbsent(clientId, k -> new Delta()).add(previous, current);
+        });
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        List<Map.Entry<Long, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        List<Map.Entry<Long, Delta>> missing = missing(rows, update(rows, now));
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EXPOSURE, missing, missing.size(), (ps, row) -> {
+                ps.setLong(1, row.getKey());
+                ps.setTimestamp(2, now);
+            });
+            update(missing, now);
+        }
+        log.debug("Exposición actualizada para {} clientes ({} filas nuevas).", rows.size(), missing.size());
+    }
+
+    private int[][] update(List<Map.Entry<Long, Delta>> rows, Timestamp now) {
+        return jdbcTemplate.batchUpdate(UPDATE_EXPOSURE, rows, rows.size(), (ps, row) -> {
+            Delta d = row.getValue();
+            ps.setDouble(1, Money.toAmount(d.outstandingCents));
+            ps.setDouble(2, Money.toAmount(d.overdueCents));
+            ps.setLong(3, d.openAccounts);
+            ps.setTimestamp(4, now);
+            ps.setLong(5, row.getKey());
+        });
+    }
+
+    /** Filas cuyo UPDATE no encontró cliente (el batch se envía en un solo bloque, así que el índice es directo). */
+    private static <K, V> List<Map.Entry<K, V>> missing(List<Map.Entry<K, V>> rows, int[][] counts) {
+        List<Map.Entry<K, V>> result = new ArrayList<>();
+        int[] affected = counts.length == 0 ? new int[0] : counts[0];
+        for (int i = 0; i < affected.length; i++) {
+            if (affected[i] == 0) {
+                result.add(rows.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static final class Delta {
+        long outstandingCents;
+        long overdueCents;
+        long openAccounts;
+
+        void add(Contribution before, Contribution after) {
+            outstandingCents += after.outstandingCents() - before.outstandingCents();
+            overdueCents += after.overdueCents() - before.overdueCents();
+            openAccounts += after.openAccounts() - before.openAccounts();
+        }
+
+        boolean isZero() {
+            return outstandingCents == 0 && overdueCents == 0 && openAccounts == 0;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.model.IdempotencyRecord;
+import com.nomos.store.service.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Soporte de la cabecera Idempotency-Key para operaciones POST.
+ *
+ * La primera ejecución corre en una transacción junto con el registro de su respuesta en
+ * idempotency_keys, de modo que la operación y la clave se confirman (o se descartan) juntas.
+ * Los reintentos devuelven la respuesta guardada sin volver a ejecutar la operación: primero se busca
+ * en un LRU acotado en memoria y luego en la tabla (búsqueda por índice único).
+ *
+ * Dos solicitudes con la misma clave se serializan con un lock propio de esa clave, que se descarta
+ * cuando no queda nadie esperándolo; solicitudes con claves distintas nunca se esperan entre sí. Entre
+ * instancias, el índice único de idempotency_keys resuelve la carrera.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, IdempotencyRecord> cache;
+    // ReentrantLock en vez de synchronized: no fija (pin) el hilo portador cuando corre en hilos virtuales.
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final ConcurrentHashMap<String, KeyLock> keyLocks = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${store.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.cache = new BoundedLruMap<>(cacheSize);
+    }
+
+    /**
+     * Ejecuta {@code action} en una transacción. Si la respuesta es 2xx y se recibió una clave,
+     * la guarda en la misma transacción; cualquier otra respuesta revierte la transacción.
+     *
+     * @param scope   operación a la que pertenece la clave (p. ej. "SALE", "COLLECTION").
+     * @param key     valor de la cabecera Idempotency-Key; null ejecuta sin idempotencia.
+     * @param request cuerpo de la solicitud, para detectar claves reutilizadas con otro contenido.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return runInTransaction(action, null);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("Idempotency-Key no puede superar " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String cacheKey = scope + ":" + key;
+        String requestHash = hash(request);
+
+        IdempotencyRecord hit = cacheGet(cacheKey);
+        if (hit != null) {
+            return replay(hit, requestHash);
+        }
+
+        KeyLock lock = lockKey(cacheKey);
+        try {
+            Optional<IdempotencyRecord> stored = Optional.ofNullable(cacheGet(cacheKey))
+                    .or(() -> repository.findByScopeAndIdempotencyKey(scope, key));
+            if (stored.isPresent()) {
+                cachePut(cacheKey, stored.get());
+                return replay(stored.get(), requestHash);
+            }
+
+            IdempotencyRecord record = IdempotencyRecord.builder()
+                    .scope(scope)
+                    .idempotencyKey(key)
+                    .requestHash(requestHash)
+                    .build();
+
+            ResponseEntity<?> response;
+            try {
+                response = runInTransaction(action, record);
+            } catch (DataIntegrityViolationException e) {
+                // Otra instancia registró la misma clave en paralelo: su transacción ganó, la nuestra se revirtió.
+                return repository.findByScopeAndIdempotencyKey(scope, key)
+                        .map(r -> {
+                            cachePut(cacheKey, r);
+                            return replay(r, requestHash);
+                        })
+                        .orElseThrow(() -> e);
+            }
+
+            if (response.getStatusCode().is2xxSuccessful()) {
+                cachePut(cacheKey, record);
+            }
+            return response;
+        } finally {
+            unlockKey(cacheKey, lock);
+        }
+    }
+
+    /** Toma (creándolo si hace falta) el lock de la clave; {@code holders} cuenta quién lo usa o espera. */
+    private KeyLock lockKey(String cacheKey) {
+        KeyLock lock = keyLocks.compute(cacheKey, (k, existing) -> {
+            KeyLock l = existing != null ? existing : new KeyLock();
+            l.holders++;
+            return l;
+        });
+        lock.lock.lock();
+        return lock;
+    }
+
+    /** Libera el lock y lo quita del mapa cuando era el último en usarlo. */
+    private void unlockKey(String cacheKey, KeyLock lock) {
+        lock.lock.unlock();
+        keyLocks.computeIfPresent(cacheKey, (k, l) -> --l.holders == 0 ? null : l);
+    }
+
+    /** Claves con lock vivo; visible en el paquete para los tests. */
+    int lockedKeys() {
+        return keyLocks.size();
+    }
+
+    private ResponseEntity<?> runInTransaction(Supplier<ResponseEntity<?>> action, IdempotencyRecord record) {
+        return transactionTemplate.execute(status -> {
+            ResponseEntity<?> response = action.get();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                status.setRollbackOnly();
+                return response;
+            }
+            if (record != null) {
+                record.setStatusCode(response.getStatusCode().value());
+                record.setResponseBody(toJson(response.getBody()));
+                repository.saveAndFlush(record);
+            }
+            return response;
+        });
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("La Idempotency-Key ya fue usada con una solicitud distinta");
+        }
+        log.info("Reintento idempotente {}:{} respondido desde el registro original.", record.getScope(), record.getIdempotencyKey());
+        return ResponseEntity.status(record.getStatusCode())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(record.getResponseBody());
+    }
+
+    private IdempotencyRecord cacheGet(String cacheKey) {
+        cacheLock.lock();
+        try {
+            return cache.get(cacheKey);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void cachePut(String cacheKey, IdempotencyRecord record) {
+        cacheLock.lock();
+        try {
+            cache.put(cacheKey, record);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta para Idempotency-Key", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Lock de una clave; {@code holders} sólo se modifica dentro de {@code compute} del mapa. */
+    private static final class KeyLock {
+        final ReentrantLock lock = new ReentrantLock();
+        int holders;
+    }
+
+    /** LinkedHashMap en orden de acceso que descarta la entrada menos usada al superar el límite. */
+    private static final class BoundedLruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxEntries;
+
+        BoundedLruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.nomos.store.service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Ejecuta el {@link InstallmentOverdueService} una vez al día ({@code store.receivables.overdue.cron}).
+ * Se desactiva con store.receivables.overdue.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "store.receivables.overdue.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InstallmentOverdueScheduler {
+
+    private final InstallmentOverdueService overdueService;
+    private final Clock clock;
+
+    @Scheduled(cron = "${store.receivables.overdue.cron:0 5 0 * * *}")
+    public void run() {
+        try {
+            overdueService.markOverdue(LocalDate.now(clock));
+        } catch (RuntimeException e) {
+            log.error("Error en el job de vencimientos: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.nomos.store.service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Marca como OVERDUE las cuotas PENDING/PARTIAL vencidas de cuentas activas, sin cargar entidades.
+ * <p>
+ * Avanza por rangos de {@code accounts_receivable_id}: cada tramo toma los siguientes
+ * {@code chunkSize} ids con cuotas por vencer y, en su propia transacción, fija
+ * {@code overdue_since} en esas cuentas (subiendo su versión, que invalida el ETag), suma su saldo al
+ * vencido de cada cliente y cambia el estado de sus cuotas con tres UPDATE. Las filas ya marcadas dejan de coincidir, así que el
+ * siguiente tramo no necesita offset y un job interrumpido continúa donde quedó.
+ */
+@Service
+@Slf4j
+public class InstallmentOverdueService {
+
+    private static final String NEXT_CHUNK =
+            "SELECT DISTINCT i.accounts_receivable_id FROM installments i " +
+            "JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id " +
+            "WHERE ar.status = 'ACTIVE' AND i.status IN ('PENDING', 'PARTIAL') AND i.due_date < ? " +
+            "ORDER BY i.accounts_receivable_id LIMIT ?";
+
+    private static final String UPDATE_RECEIVABLES =
+            "UPDATE accounts_receivable ar SET version = ar.version + 1, overdue_since = " +
+            "(SELECT MIN(i.due_date) FROM installments i " +
+            " WHERE i.accounts_receivable_id = ar.id AND i.status <> 'PAID' AND i.due_date < ?) " +
+            "WHERE ar.id BETWEEN ? AND ? AND ar.status = 'ACTIVE' AND EXISTS " +
+            "(SELECT 1 FROM installments i WHERE i.accounts_receivable_id = ar.id " +
+            " AND i.status IN ('PENDING', 'PARTIAL') AND i.due_date < ?)";
+
+    private static final String MARK_INSTALLMENTS =
+            "UPDATE installments i SET status = 'OVERDUE', version = i.version + 1 " +
+            "WHERE i.accounts_receivable_id BETWEEN ? AND ? " +
+            "AND i.status IN ('PENDING', 'PARTIAL') AND i.due_date < ? AND EXISTS " +
+            "(SELECT 1 FROM accounts_receivable ar WHERE ar.id = i.accounts_receivable_id AND ar.status = 'ACTIVE')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClientExposureService exposureService;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final Counter markedCounter;
+
+    public InstallmentOverdueService(JdbcTemplate jdbcTemplate,
+                                     ClientExposureService exposureService,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${store.receivables.overdue.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exposureService = exposureService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.markedCounter = Counter.builder("receivables.installments.overdue")
+                .description("Cuotas marcadas como vencidas por el job de vencimientos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Marca las cuotas vencidas antes de {@code referenceDate}.
+     *
+     * @return cantidad de cuotas marcadas.
+     */
+    public int markOverdue(LocalDate referenceDate) {
+        Date day = Date.valueOf(referenceDate);
+        int marked = 0;
+        int accounts;
+        do {
+            Chunk chunk = chunkTransaction.execute(status -> markChunk(day));
+            accounts = chunk.accounts();
+            marked += chunk.installments();
+        } while (accounts >= chunkSize);
+
+        markedCounter.increment(marked);
+        log.info("Job de vencimientos al {}: {} cuotas marcadas como vencidas", referenceDate, marked);
+        return marked;
+    }
+
+    private Chunk markChunk(Date day) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_CHUNK, Long.class, day, chunkSize);
+        if (ids.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+        long first = ids.get(0);
+        long last = ids.get(ids.size() - 1);
+
+        jdbcTemplate.update(UPDATE_RECEIVABLES, day, first, last, day);
+        exposureService.recordOverdue(day, first, last);
+        int installments = jdbcTemplate.update(MARK_INSTALLMENTS, first, last, day);
+        return new Chunk(ids.size(), installments);
+    }
+
+    private record Chunk(int accounts, int installments) {
+    }
+}
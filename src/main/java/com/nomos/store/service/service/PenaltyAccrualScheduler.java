@@ -0,0 +1,33 @@
+package com.nomos.store.service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Ejecuta el {@link PenaltyAccrualService} una vez al día ({@code store.receivables.penalty.cron}),
+ * con la fecha del {@link Clock} de la aplicación. Se desactiva con store.receivables.penalty.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "store.receivables.penalty.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PenaltyAccrualScheduler {
+
+    private final PenaltyAccrualService accrualService;
+    private final Clock clock;
+
+    @Scheduled(cron = "${store.receivables.penalty.cron:0 15 0 * * *}")
+    public void run() {
+        try {
+            accrualService.accrue(LocalDate.now(clock));
+        } catch (RuntimeException e) {
+            log.error("Error en el devengo de mora: {}", e.getMessage(), e);
+        }
+    }
+}
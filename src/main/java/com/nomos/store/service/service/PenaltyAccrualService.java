@@ -0,0 +1,151 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Devengo de mora: guarda en cada cuota impaga vencida la mora acumulada a una fecha de corte.
+ * <p>
+ * Usa la misma fórmula que el cobro ({@link Installment#penaltyCents}), así que una fecha de corte
+ * dada produce siempre las mismas cifras. Recorre las cuotas por id en tramos de {@code chunkSize},
+ * cada uno en su propia transacción con dos UPDATE en batch. El UPDATE de cada cuota exige la versión
+ * leída: si un cobro la tocó entretanto se omite (la mora calculada ya no vale) y la toma el próximo
+ * devengo. Cada cuenta con cuotas devengadas a una fecha nueva recibe un evento PENALTY_ACCRUAL en su
+ * libro (receivable_events): la secuencia se reserva en la fila de la cuenta, subiendo su versión (lo
+ * que además invalida su ETag). Las cuentas cuyo evento cruza {@code snapshot-interval} reciben su
+ * snapshot en el mismo tramo ({@link ReceivableLedgerService#snapshotAccruals}).
+ */
+@Service
+@Slf4j
+public class PenaltyAccrualService {
+
+    private static final String NEXT_CHUNK =
+            "SELECT i.id, i.version, i.accounts_receivable_id, i.due_date, i.expected_amount, i.paid_amount, " +
+            "i.accrued_penalty, i.penalty_accrued_on " +
+            "FROM installments i JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id " +
+            "WHERE ar.status = 'ACTIVE' AND i.status <> 'PAID' AND i.due_date < ? AND i.id > ? " +
+            "ORDER BY i.id LIMIT ?";
+
+    private static final String UPDATE_INSTALLMENT =
+            "UPDATE installments SET accrued_penalty = ?, penalty_accrued_on = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+
+    private static final String RESERVE_EVENT_SEQUENCE =
+            "UPDATE accounts_receivable SET version = version + 1, event_sequence = event_sequence + 1 WHERE id = ?";
+
+    private static final String INSERT_ACCRUAL_EVENT =
+            "INSERT INTO receivable_events (accounts_receivable_id, sequence_number, event_type, event_date, amount, occurred_at) " +
+            "SELECT id, event_sequence, 'PENALTY_ACCRUAL', ?, 0, ? FROM accounts_receivable WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReceivableLedgerService ledgerService;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final Counter changedCounter;
+
+    public PenaltyAccrualService(JdbcTemplate jdbcTemplate,
+                                 ReceivableLedgerService ledgerService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${store.receivables.penalty.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerService = ledgerService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.changedCounter = Counter.builder("receivables.penalty.accrued")
+                .description("Cuotas cuya mora guardada cambió en el devengo diario")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devenga la mora de todas las cuotas vencidas al {@code asOf}.
+     *
+     * @return cantidad de cuotas cuya mora guardada cambió.
+     */
+    public int accrue(LocalDate asOf) {
+        Date day = Date.valueOf(asOf);
+        long afterId = 0;
+        int changed = 0;
+        Chunk chunk;
+        do {
+            long from = afterId;
+            chunk = chunkTransaction.execute(status -> accrueChunk(asOf, day, from));
+            afterId = chunk.lastId();
+            changed += chunk.changed();
+        } while (chunk.read() >= chunkSize);
+
+        changedCounter.increment(changed);
+        log.info("Devengo de mora al {}: {} cuotas actualizadas", asOf, changed);
+        return changed;
+    }
+
+    private Chunk accrueChunk(LocalDate asOf, Date day, long afterId) {
+        List<Accrual> accruals = new ArrayList<>();
+
+        jdbcTemplate.query(NEXT_CHUNK, rs -> {
+            long capitalPending = Money.toCents(rs.getDouble("expected_amount")) - Money.toCents(rs.getDouble("paid_amount"));
+            long penalty = Math.max(0L, Installment.penaltyCents(capitalPending, rs.getDate("due_date").toLocalDate(), asOf));
+            boolean penaltyChanged = penalty != Money.toCents(rs.getDouble("accrued_penalty"));
+            accruals.add(new Accrual(rs.getLong("id"), rs.getLong("version"), rs.getLong("accounts_receivable_id"),
+                    penalty, penaltyChanged, penaltyChanged || !day.equals(rs.getDate("penalty_accrued_on"))));
+        }, day, afterId, chunkSize);
+
+        if (accruals.isEmpty()) {
+            return new Chunk(0, 0, afterId);
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_INSTALLMENT, accruals.stream()
+                .map(a -> new Object[]{Money.toAmount(a.penaltyCents()), day, a.id(), a.version()})
+                .toList());
+
+        Set<Long> touchedReceivables = new LinkedHashSet<>();
+        int changed = 0;
+        int skipped = 0;
+        for (int i = 0; i < accruals.size(); i++) {
+            Accrual a = accruals.get(i);
+            if (updated[i] == 0) {
+                skipped++;
+                continue;
+            }
+            if (a.touchesLedger()) {
+                touchedReceivables.add(a.receivableId());
+            }
+            if (a.penaltyChanged()) {
+                changed++;
+            }
+        }
+        if (skipped > 0) {
+            log.debug("Devengo de mora al {}: {} cuotas modificadas en paralelo, se omiten", asOf, skipped);
+        }
+        if (!touchedReceivables.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(RESERVE_EVENT_SEQUENCE, touchedReceivables.stream().map(id -> new Object[]{id}).toList());
+            jdbcTemplate.batchUpdate(INSERT_ACCRUAL_EVENT, touchedReceivables.stream().map(id -> new Object[]{day, now, id}).toList());
+            ledgerService.snapshotAccruals(touchedReceivables, asOf);
+        }
+        return new Chunk(accruals.size(), changed, accruals.get(accruals.size() - 1).id());
+    }
+
+    private record Accrual(long id, long version, long receivableId, long penaltyCents,
+                           boolean penaltyChanged, boolean touchesLedger) {
+    }
+
+    private record Chunk(int read, int changed, long lastId) {
+    }
+}
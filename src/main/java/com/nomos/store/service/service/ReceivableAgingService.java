@@ -0,0 +1,140 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.Money;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Antigüedad de la cartera (corriente, 1–30, 31–60, 61–90 y más de 90 días) por cliente o vendedor.
+ * <p>
+ * Una sola consulta agregada sobre las cuotas impagas de cuentas activas; los límites de cada tramo
+ * se pasan como fechas, así la base compara {@code due_date} sin aritmética por fila. Los saldos se
+ * suman en céntimos enteros. En PostgreSQL la consulta se apoya en el índice parcial
+ * {@code idx_installments_unpaid} (migración 006).
+ * <p>
+ * La fecha de corte clasifica el saldo pendiente actual de cada cuota por sus días de atraso a esa fecha.
+ */
+@Service
+public class ReceivableAgingService {
+
+    public enum GroupBy {
+        CLIENT("client_id"),
+        SELLER("seller_id");
+
+        private final String column;
+
+        GroupBy(String column) {
+            this.column = column;
+        }
+
+        public static GroupBy parse(String value) {
+            try {
+                return GroupBy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Agrupación no soportada: " + value + " (use client o seller)");
+            }
+        }
+    }
+
+    @Data
+    @Builder
+    public static class AgingRow {
+        /** clientId o sellerId según la agrupación; null para ventas sin cliente. */
+        private Long groupId;
+        private long installments;
+        private Double current;
+        private Double days1To30;
+        private Double days31To60;
+        private Double days61To90;
+        private Double over90;
+        private Double total;
+    }
+
+    private static final String AGING_SQL =
+            "SELECT group_id, COUNT(*) AS installments, " +
+            "COALESCE(SUM(CASE WHEN due_date >= ? THEN pending END), 0) AS current_cents, " +
+            "COALESCE(SUM(CASE WHEN due_date < ? AND due_date >= ? THEN pending END), 0) AS d30_cents, " +
+            "COALESCE(SUM(CASE WHEN due_date < ? AND due_date >= ? THEN pending END), 0) AS d60_cents, " +
+            "COALESCE(SUM(CASE WHEN due_date < ? AND due_date >= ? THEN pending END), 0) AS d90_cents, " +
+            "COALESCE(SUM(CASE WHEN due_date < ? THEN pending END), 0) AS over90_cents, " +
+            "SUM(pending) AS total_cents " +
+            "FROM (" +
+            "  SELECT s.%s AS group_id, i.due_date, " +
+            "         CAST(ROUND((i.expected_amount - i.paid_amount) * 100) AS BIGINT) AS pending " +
+            "  FROM installments i " +
+            "  JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id " +
+            "  JOIN sales s ON s.id = ar.sale_id " +
+            "  WHERE i.status <> 'PAID' AND ar.status = 'ACTIVE'" +
+            ") unpaid " +
+            "GROUP BY group_id ORDER BY total_cents DESC";
+
+    static final String[] CSV_COLUMNS = {
+            "installments", "current", "days1To30", "days31To60", "days61To90", "over90", "total"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReceivableAgingService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public List<AgingRow> aging(LocalDate asOf, GroupBy groupBy) {
+        Date current = Date.valueOf(asOf);
+        Date d30 = Date.valueOf(asOf.minusDays(30));
+        Date d60 = Date.valueOf(asOf.minusDays(60));
+        Date d90 = Date.valueOf(asOf.minusDays(90));
+
+        return jdbcTemplate.query(String.format(AGING_SQL, groupBy.column), ReceivableAgingService::mapRow,
+                current, current, d30, d30, d60, d60, d90, d90);
+    }
+
+    /**
+     * CSV con una fila por grupo; la primera columna es {@code clientId} o {@code sellerId}.
+     */
+    public String toCsv(List<AgingRow> rows, GroupBy groupBy) {
+        StringBuilder csv = new StringBuilder(64 * (rows.size() + 1));
+        csv.append(groupBy == GroupBy.CLIENT ? "clientId" : "sellerId");
+        for (String column : CSV_COLUMNS) {
+            csv.append(',').append(column);
+        }
+        csv.append('\n');
+
+        for (AgingRow row : rows) {
+            if (row.getGroupId() != null) {
+                csv.append(row.getGroupId());
+            }
+            csv.append(',').append(row.getInstallments());
+            for (Double amount : List.of(row.getCurrent(), row.getDays1To30(), row.getDays31To60(),
+                    row.getDays61To90(), row.getOver90(), row.getTotal())) {
+                csv.append(',').append(BigDecimal.valueOf(Money.toCents(amount), 2).toPlainString());
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static AgingRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        long groupId = rs.getLong("group_id");
+        return AgingRow.builder()
+                .groupId(rs.wasNull() ? null : groupId)
+                .installments(rs.getLong("installments"))
+                .current(Money.toAmount(rs.getLong("current_cents")))
+                .days1To30(Money.toAmount(rs.getLong("d30_cents")))
+                .days31To60(Money.toAmount(rs.getLong("d60_cents")))
+                .days61To90(Money.toAmount(rs.getLong("d90_cents")))
+                .over90(Money.toAmount(rs.getLong("over90_cents")))
+                .total(Money.toAmount(rs.getLong("total_cents")))
+                .build();
+    }
+}
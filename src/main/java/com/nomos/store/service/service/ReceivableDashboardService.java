@@ -0,0 +1,125 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.AccountsReceivableController.ReceivableListFilter;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tablero de cartera: páginas de cuentas por cobrar con su venta y cronograma en dos consultas,
+ * sin importar el tamaño de la página. Saldo y cobrado salen de los totales guardados en la cuenta,
+ * así que no se leen cobros ni documentos de crédito.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReceivableDashboardService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final AccountsReceivableRepository arRepository;
+    private final Clock clock;
+
+    @Data
+    @Builder
+    public static class ReceivableRow {
+        private Long id;
+        private Long saleId;
+        private Long clientId;
+        private Long sellerId;
+        private LocalDateTime saleDate;
+        private AccountsReceivableStatus status;
+        private Double totalAmount;
+        private Double paidAmount;
+        private Double paidPenalty;
+        private Double balance;
+        private LocalDate nextDueDate;
+        private LocalDate overdueSince;
+        private LocalDateTime lastPaymentAt;
+        private boolean overdue;
+        private List<Installment> installments;
+    }
+
+    @Data
+    public static class ReceivablePage {
+        private final List<ReceivableRow> items;
+        /** Id de la última cuenta de la página; null cuando no hay más páginas. */
+        private final Long nextCursor;
+    }
+
+    /**
+     * Página de cuentas por cobrar filtrada, de la más reciente a la más antigua. La primera consulta trae
+     * {@code size + 1} cuentas con su venta; la segunda, las cuotas de las que entran en la página.
+     */
+    @Transactional(readOnly = true)
+    public ReceivablePage findPage(ReceivableListFilter filter, Long cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        AccountsReceivableStatus status = parseStatus(filter.getStatus());
+        if (filter.getMinBalance() != null && filter.getMaxBalance() != null
+                && filter.getMinBalance() > filter.getMaxBalance()) {
+            throw new IllegalArgumentException("minBalance no puede ser mayor que maxBalance");
+        }
+        LocalDate today = LocalDate.now(clock);
+
+        List<AccountsReceivable> rows = arRepository.findDashboardPage(
+                cursor != null ? cursor : Long.MAX_VALUE,
+                status, filter.getClientId(), filter.getMinBalance(), filter.getMaxBalance(),
+                filter.getOverdue(), today, Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<AccountsReceivable> page = hasMore ? rows.subList(0, pageSize) : rows;
+        if (!page.isEmpty()) {
+            arRepository.findWithInstallmentsByIdIn(page.stream().map(AccountsReceivable::getId).toList());
+        }
+
+        List<ReceivableRow> items = page.stream().map(ar -> toRow(ar, today)).toList();
+        return new ReceivablePage(items, hasMore ? page.get(pageSize - 1).getId() : null);
+    }
+
+    private static ReceivableRow toRow(AccountsReceivable ar, LocalDate today) {
+        Sale sale = ar.getSale();
+        return ReceivableRow.builder()
+                .id(ar.getId())
+                .saleId(sale.getId())
+                .clientId(sale.getClientId())
+                .sellerId(sale.getSellerId())
+                .saleDate(sale.getSaleDate())
+                .status(ar.getStatus())
+                .totalAmount(ar.getTotalAmount())
+                .paidAmount(ar.getPaidAmount())
+                .paidPenalty(ar.getPaidPenalty())
+                .balance(ar.getBalance())
+                .nextDueDate(ar.getNextDueDate())
+                .overdueSince(ar.getOverdueSince())
+                .lastPaymentAt(ar.getLastPaymentAt())
+                .overdue(ar.getNextDueDate() != null && ar.getNextDueDate().isBefore(today))
+                .installments(ar.getInstallments().stream()
+                        .sorted(Comparator.comparing(Installment::getNumber))
+                        .toList())
+                .build();
+    }
+
+    private static AccountsReceivableStatus parseStatus(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return AccountsReceivableStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Estado no soportado: " + value);
+        }
+    }
+}
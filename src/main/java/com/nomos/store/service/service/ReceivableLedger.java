@@ -0,0 +1,138 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.Collection;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.InstallmentStatus;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.ReceivableEvent;
+import com.nomos.store.service.model.ReceivableEventType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconstrucción en memoria de una cuenta por cobrar a partir de su libro de eventos, sin base de datos.
+ * <p>
+ * Reproduce cada evento con los mismos métodos de dominio que lo generaron
+ * ({@link AccountsReceivable#applyPayment}, {@link Installment#accruePenalty}, {@link AccountsReceivable#cancel}),
+ * sobre una cuenta transitoria armada desde un {@link State} (snapshot) o desde cero. Los pagos anulados
+ * por un VOID de la misma cola no se imputan.
+ */
+public final class ReceivableLedger {
+
+    private ReceivableLedger() {
+    }
+
+    public record InstallmentState(int number, LocalDate dueDate, double expectedAmount, double paidAmount,
+                                   double paidPenalty, double accruedPenalty, LocalDate penaltyAccruedOn,
+                                   InstallmentStatus status) {
+    }
+
+    /** Estado de la cuenta tras el evento {@code sequence}; es lo que se guarda en receivable_snapshots. */
+    public record State(long sequence, AccountsReceivableStatus status, double totalAmount, double paidAmount,
+                        double paidPenalty, double balance, LocalDateTime lastPaymentAt,
+                        List<InstallmentState> installments) {
+
+        public static final State EMPTY = new State(0, AccountsReceivableStatus.ACTIVE, 0.0, 0.0, 0.0, 0.0, null, List.of());
+
+        public static State of(AccountsReceivable ar) {
+            List<InstallmentState> installments = new ArrayList<>(ar.getInstallments().size());
+            for (Installment i : ar.getInstallments()) {
+                installments.add(new InstallmentState(i.getNumber(), i.getDueDate(), i.getExpectedAmount(),
+                        i.getPaidAmount(), i.getPaidPenalty(), i.getAccruedPenalty(), i.getPenaltyAccruedOn(),
+                        i.getStatus()));
+            }
+            installments.sort((a, b) -> Integer.compare(a.number(), b.number()));
+            return new State(ar.getEventSequence(), ar.getStatus(), ar.getTotalAmount(), ar.getPaidAmount(),
+                    ar.getPaidPenalty(), ar.getBalance(), ar.getLastPaymentAt(), installments);
+        }
+    }
+
+    /**
+     * Aplica {@code events} (en orden de secuencia, todos posteriores a {@code from}) sobre {@code from}.
+     */
+    public static State replay(State from, List<ReceivableEvent> events) {
+        Set<Long> voided = new HashSet<>();
+        for (ReceivableEvent e : events) {
+            if (e.getType() == ReceivableEventType.VOID) {
+                voided.add(e.getCollectionId());
+            }
+        }
+
+        AccountsReceivable ar = AccountsReceivable.builder()
+                .status(from.status())
+                .totalAmount(from.totalAmount())
+                .paidAmount(from.paidAmount())
+                .paidPenalty(from.paidPenalty())
+                .balance(from.balance())
+                .lastPaymentAt(from.lastPaymentAt())
+                .eventSequence(from.sequence())
+                .build();
+        Map<Integer, Installment> byNumber = new HashMap<>();
+        for (InstallmentState s : from.installments()) {
+            Installment installment = Installment.builder()
+                    .number(s.number())
+                    .dueDate(s.dueDate())
+                    .expectedAmount(s.expectedAmount())
+                    .paidAmount(s.paidAmount())
+                    .paidPenalty(s.paidPenalty())
+                    .accruedPenalty(s.accruedPenalty())
+                    .penaltyAccruedOn(s.penaltyAccruedOn())
+                    .status(s.status())
+                    .build();
+            ar.getInstallments().add(installment);
+            byNumber.put(s.number(), installment);
+        }
+
+        for (ReceivableEvent e : events) {
+            switch (e.getType()) {
+                case CHARGE -> {
+                    Installment installment = Installment.builder()
+                            .number(e.getInstallmentNumber())
+                            .dueDate(e.getEventDate())
+                            .expectedAmount(e.getAmount())
+                            .status(InstallmentStatus.PENDING)
+                            .build();
+                    ar.getInstallments().add(installment);
+                    byNumber.put(installment.getNumber(), installment);
+                    long chargeCents = Money.toCents(e.getAmount());
+                    ar.setTotalAmount(Money.toAmount(Money.toCents(ar.getTotalAmount()) + chargeCents));
+                    ar.setBalance(Money.toAmount(Money.toCents(ar.getBalance()) + chargeCents));
+                }
+                case PAYMENT -> {
+                    if (voided.contains(e.getCollectionId())) continue;
+                    Collection collection = Collection.builder()
+                            .id(e.getCollectionId())
+                            .amount(e.getAmount())
+                            .collectionDate(e.getOccurredAt())
+                            .status("ACTIVO")
+                            .build();
+                    Installment specific = e.getInstallmentNumber() != null ? byNumber.get(e.getInstallmentNumber()) : null;
+                    ar.applyPayment(collection, specific, e.getEventDate());
+                }
+                case PENALTY_ACCRUAL -> {
+                    if (ar.getStatus() != AccountsReceivableStatus.ACTIVE) continue;
+                    for (Installment i : ar.getInstallments()) {
+                        if (i.getStatus() != InstallmentStatus.PAID && i.getDueDate().isBefore(e.getEventDate())) {
+                            i.accruePenalty(e.getEventDate());
+                        }
+                    }
+                }
+                case CANCEL -> ar.cancel(e.getEventDate());
+                case VOID -> {
+                    // Ya considerado: el pago anulado se omite arriba.
+                }
+            }
+            ar.setEventSequence(e.getSequence());
+        }
+        return State.of(ar);
+    }
+}
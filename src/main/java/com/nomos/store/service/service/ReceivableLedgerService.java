@@ -0,0 +1,243 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.Collection;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.InstallmentStatus;
+import com.nomos.store.service.model.ReceivableEvent;
+import com.nomos.store.service.model.ReceivableEventType;
+import com.nomos.store.service.model.ReceivableSnapshot;
+import com.nomos.store.service.repository.ReceivableEventRepository;
+import com.nomos.store.service.repository.ReceivableSnapshotRepository;
+import com.nomos.store.service.service.ReceivableLedger.InstallmentState;
+import com.nomos.store.service.service.ReceivableLedger.State;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Libro de eventos de las cuentas por cobrar: cargos, pagos, anulaciones, devengos de mora y cancelación.
+ * <p>
+ * Los eventos se escriben en la misma transacción que el cambio de la cuenta. Cada
+ * {@code snapshotInterval} eventos se guarda un snapshot del estado, así reconstruir una cuenta cuesta
+ * los eventos desde el último snapshot. Anular un cobro descarta los snapshots que lo incluyen y
+ * reproduce sólo la cola desde el snapshot anterior al pago, reimputando los pagos siguientes.
+ */
+@Service
+@Slf4j
+public class ReceivableLedgerService {
+
+    private final ReceivableEventRepository eventRepository;
+    private final ReceivableSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final int snapshotInterval;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ReceivableLedgerService(ReceivableEventRepository eventRepository,
+                                   ReceivableSnapshotRepository snapshotRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${store.receivables.ledger.snapshot-interval:50}") int snapshotInterval) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.objectMapper = objectMapper;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Un CHARGE por cuota del cronograma, con las secuencias 1..n que ya reservó
+     * {@link #reserveCharges} al armar la cuenta; la cuenta ya debe tener id.
+     */
+    public void recordCharges(AccountsReceivable ar) {
+        long sequence = ar.getEventSequence() - ar.getInstallments().size();
+        long before = sequence;
+        LocalDateTime now = LocalDateTime.now();
+        for (Installment i : ar.getInstallments().stream().sorted(Comparator.comparing(Installment::getNumber)).toList()) {
+            append(ar, ++sequence, ReceivableEventType.CHARGE, i.getDueDate(), i.getExpectedAmount(),
+                    i.getNumber(), null, now);
+        }
+        snapshotIfDue(ar, before);
+    }
+
+    /**
+     * Reserva en la cuenta aún no persistida las secuencias de sus cargos, así el INSERT de la cuenta
+     * ya lleva event_sequence y {@link #recordCharges} no la vuelve a actualizar.
+     */
+    public static void reserveCharges(AccountsReceivable ar) {
+        ar.setEventSequence((long) ar.getInstallments().size());
+    }
+
+    /** Pago ya imputado con {@link AccountsReceivable#applyPayment}; el cobro ya debe tener id. */
+    public void recordPayment(AccountsReceivable ar, Collection collection, Installment specificInstallment, LocalDate paymentDate) {
+        long before = ar.getEventSequence();
+        append(ar, ReceivableEventType.PAYMENT, paymentDate, collection.getAmount(),
+                specificInstallment != null ? specificInstallment.getNumber() : null,
+                collection.getId(),
+                collection.getCollectionDate() != null ? collection.getCollectionDate() : LocalDateTime.now());
+        snapshotIfDue(ar, before);
+    }
+
+    public void recordCancel(AccountsReceivable ar, LocalDate date) {
+        long before = ar.getEventSequence();
+        append(ar, ReceivableEventType.CANCEL, date, 0.0, null, null, LocalDateTime.now());
+        snapshotIfDue(ar, before);
+    }
+
+    /**
+     * Anula un cobro: registra el VOID y reimputa los pagos posteriores reproduciendo la cola desde el
+     * último snapshot anterior al pago. Cuotas y totales de la cuenta quedan como si el cobro no hubiera existido.
+     */
+    @Transactional
+    public void voidCollection(Collection collection, LocalDate today) {
+        if ("ANULADO".equals(collection.getStatus())) {
+            throw new IllegalArgumentException("El cobro ya está anulado");
+        }
+        AccountsReceivable ar = collection.getAccountsReceivable();
+        if (ar.getStatus() == AccountsReceivableStatus.CANCELLED) {
+            throw new IllegalStateException("No se puede anular un cobro de una cuenta cancelada");
+        }
+        ReceivableEvent payment = eventRepository.findFirstByCollectionIdAndType(collection.getId(), ReceivableEventType.PAYMENT)
+                .orElseThrow(() -> new IllegalStateException("El cobro " + collection.getId() + " no figura en el libro de la cuenta"));
+
+        collection.setStatus("ANULADO");
+        append(ar, ReceivableEventType.VOID, today, collection.getAmount(), null, collection.getId(), LocalDateTime.now());
+
+        snapshotRepository.deleteFrom(ar.getId(), payment.getSequence());
+        State base = snapshotRepository
+                .findFirstByIdAccountsReceivableIdAndIdSequenceNumberLessThanOrderByIdSequenceNumberDesc(ar.getId(), payment.getSequence())
+                .map(this::read)
+                .orElse(State.EMPTY);
+        List<ReceivableEvent> tail = eventRepository.findTail(ar.getId(), base.sequence());
+        State rebuilt = ReceivableLedger.replay(base, tail);
+
+        apply(ar, rebuilt, today);
+        writeSnapshot(ar);
+        log.info("Cobro {} anulado en la cuenta {}: {} eventos reproducidos desde la secuencia {}",
+                collection.getId(), ar.getId(), tail.size(), base.sequence());
+    }
+
+    /**
+     * Snapshots de las cuentas cuyo PENALTY_ACCRUAL del día, escrito por SQL en el devengo diario, cruzó
+     * el intervalo. Una consulta trae esas cuentas con sus cuotas y el devengo se reproduce sobre su estado,
+     * así el snapshot no depende de cuántas de sus cuotas ya actualizó el tramo.
+     *
+     * @return cantidad de snapshots escritos.
+     */
+    @Transactional
+    public int snapshotAccruals(Set<Long> receivableIds, LocalDate accrualDate) {
+        if (receivableIds.isEmpty()) {
+            return 0;
+        }
+        List<AccountsReceivable> due = entityManager.createQuery(
+                        "SELECT DISTINCT ar FROM AccountsReceivable ar LEFT JOIN FETCH ar.installments " +
+                        "WHERE ar.id IN :ids AND MOD(ar.eventSequence, :interval) = 0", AccountsReceivable.class)
+                .setParameter("ids", receivableIds)
+                .setParameter("interval", (long) snapshotInterval)
+                .getResultList();
+        for (AccountsReceivable ar : due) {
+            ReceivableEvent accrual = ReceivableEvent.builder()
+                    .id(new ReceivableEvent.Key(ar.getId(), ar.getEventSequence()))
+                    .type(ReceivableEventType.PENALTY_ACCRUAL)
+                    .eventDate(accrualDate)
+                    .amount(0.0)
+                    .build();
+            writeSnapshot(ar.getId(), ReceivableLedger.replay(State.of(ar), List.of(accrual)));
+        }
+        return due.size();
+    }
+
+    /** Estado de la cuenta reconstruido desde el último snapshot y los eventos posteriores. */
+    @Transactional(readOnly = true)
+    public State currentState(Long arId) {
+        State base = snapshotRepository
+                .findFirstByIdAccountsReceivableIdAndIdSequenceNumberLessThanOrderByIdSequenceNumberDesc(arId, Long.MAX_VALUE)
+                .map(this::read)
+                .orElse(State.EMPTY);
+        return ReceivableLedger.replay(base, eventRepository.findTail(arId, base.sequence()));
+    }
+
+    /** Copia el estado reconstruido sobre las entidades; las cuotas impagas ya vencidas quedan OVERDUE. */
+    private static void apply(AccountsReceivable ar, State state, LocalDate today) {
+        Map<Integer, InstallmentState> byNumber = new HashMap<>();
+        state.installments().forEach(s -> byNumber.put(s.number(), s));
+        for (Installment i : ar.getInstallments()) {
+            InstallmentState s = byNumber.get(i.getNumber());
+            if (s == null) continue;
+            i.setPaidAmount(s.paidAmount());
+            i.setPaidPenalty(s.paidPenalty());
+            i.setAccruedPenalty(s.accruedPenalty());
+            i.setPenaltyAccruedOn(s.penaltyAccruedOn());
+            i.setStatus(s.status() == InstallmentStatus.PENDING && i.getDueDate().isBefore(today)
+                    ? InstallmentStatus.OVERDUE : s.status());
+        }
+        ar.setPaidAmount(state.paidAmount());
+        ar.setPaidPenalty(state.paidPenalty());
+        ar.setBalance(state.balance());
+        ar.setLastPaymentAt(state.lastPaymentAt());
+        ar.setStatus(state.status());
+        ar.refreshDueDates(today);
+    }
+
+    private void append(AccountsReceivable ar, ReceivableEventType type, LocalDate eventDate, Double amount,
+                        Integer installmentNumber, Long collectionId, LocalDateTime occurredAt) {
+        append(ar, ar.nextEventSequence(), type, eventDate, amount, installmentNumber, collectionId, occurredAt);
+    }
+
+    private void append(AccountsReceivable ar, long sequence, ReceivableEventType type, LocalDate eventDate, Double amount,
+                        Integer installmentNumber, Long collectionId, LocalDateTime occurredAt) {
+        entityManager.persist(ReceivableEvent.builder()
+                .id(new ReceivableEvent.Key(ar.getId(), sequence))
+                .type(type)
+                .eventDate(eventDate)
+                .amount(amount != null ? amount : 0.0)
+                .installmentNumber(installmentNumber)
+                .collectionId(collectionId)
+                .occurredAt(occurredAt)
+                .build());
+    }
+
+    private void snapshotIfDue(AccountsReceivable ar, long sequenceBefore) {
+        if (sequenceBefore / snapshotInterval != ar.getEventSequence() / snapshotInterval) {
+            writeSnapshot(ar);
+        }
+    }
+
+    private void writeSnapshot(AccountsReceivable ar) {
+        writeSnapshot(ar.getId(), State.of(ar));
+    }
+
+    private void writeSnapshot(Long arId, State state) {
+        try {
+            entityManager.persist(ReceivableSnapshot.builder()
+                    .id(new ReceivableEvent.Key(arId, state.sequence()))
+                    .state(objectMapper.writeValueAsString(state))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el snapshot de la cuenta " + arId, e);
+        }
+    }
+
+    private State read(ReceivableSnapshot snapshot) {
+        try {
+            return objectMapper.readValue(snapshot.getState(), State.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Snapshot ilegible de la cuenta " + snapshot.getId().getAccountsReceivableId(), e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nomos.store.service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ejecuta el {@link ReceivableTotalsRebuildService} según {@code store.receivables.totals.cron}
+ * (por defecto, los domingos de madrugada). Se desactiva con store.receivables.totals.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "store.receivables.totals.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ReceivableTotalsRebuildScheduler {
+
+    private final ReceivableTotalsRebuildService rebuildService;
+
+    @Scheduled(cron = "${store.receivables.totals.cron:0 30 1 * * SUN}")
+    public void run() {
+        try {
+            rebuildService.rebuild();
+        } catch (RuntimeException e) {
+            log.error("Error en el recalculo de totales de cuentas por cobrar: {}", e.getMessage(), e);
+        }
+    }
+}
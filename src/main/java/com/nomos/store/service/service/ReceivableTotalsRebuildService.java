@@ -0,0 +1,116 @@
+package com.nomos.store.service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Recalcula los totales desnormalizados de las cuentas por cobrar (paid_amount, paid_penalty,
+ * balance y last_payment_at) desde cobros y cuotas, sin cargar entidades.
+ * <p>
+ * Recorre accounts_receivable por keyset de id; cada tramo de {@code chunkSize} cuentas va en su propia
+ * transacción con un único UPDATE que sólo toca las filas desalineadas y les sube la versión, así un
+ * cobro concurrente sobre esa cuenta falla por versión y se reintenta con los totales corregidos.
+ * Si el tramo corrigió alguna cuenta, en la misma transacción se recalcula la exposición crediticia de
+ * los clientes del tramo ({@link ClientExposureService#recomputeForReceivables}), que se mantiene por
+ * deltas y no vería la corrección.
+ */
+@Service
+@Slf4j
+public class ReceivableTotalsRebuildService {
+
+    private static final String PAID_AMOUNT =
+            "COALESCE((SELECT ROUND(SUM(c.amount) * 100) / 100 FROM collections c " +
+            "          WHERE c.accounts_receivable_id = ar.id AND c.status <> 'ANULADO'), 0)";
+    private static final String PAID_PENALTY =
+            "COALESCE((SELECT ROUND(SUM(i.paid_penalty) * 100) / 100 FROM installments i " +
+            "          WHERE i.accounts_receivable_id = ar.id), 0)";
+    private static final String BALANCE =
+            "ROUND((ar.total_amount - COALESCE((SELECT SUM(i.paid_amount) FROM installments i " +
+            "                                   WHERE i.accounts_receivable_id = ar.id), 0)) * 100) / 100";
+    private static final String LAST_PAYMENT_AT =
+            "(SELECT MAX(c.collection_date) FROM collections c " +
+            " WHERE c.accounts_receivable_id = ar.id AND c.status <> 'ANULADO')";
+
+    private static final String NEXT_CHUNK =
+            "SELECT ar.id FROM accounts_receivable ar WHERE ar.id > ? ORDER BY ar.id LIMIT ?";
+
+    private static final String REBUILD_CHUNK =
+            "UPDATE accounts_receivable ar SET version = ar.version + 1, " +
+            "paid_amount = " + PAID_AMOUNT + ", paid_penalty = " + PAID_PENALTY + ", " +
+            "balance = " + BALANCE + ", last_payment_at = " + LAST_PAYMENT_AT + " " +
+            "WHERE ar.id BETWEEN ? AND ? AND (" +
+            "ar.paid_amount <> " + PAID_AMOUNT + " OR ar.paid_penalty <> " + PAID_PENALTY + " " +
+            "OR ar.balance IS DISTINCT FROM " + BALANCE + " " +
+            "OR ar.last_payment_at IS DISTINCT FROM " + LAST_PAYMENT_AT + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClientExposureService exposureService;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final Counter repairedCounter;
+
+    public ReceivableTotalsRebuildService(JdbcTemplate jdbcTemplate,
+                                          ClientExposureService exposureService,
+                                          PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${store.receivables.totals.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exposureService = exposureService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.repairedCounter = Counter.builder("receivables.totals.repaired")
+                .description("Cuentas por cobrar cuyos totales desnormalizados estaban desalineados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recalcula los totales de todas las cuentas.
+     *
+     * @return cantidad de cuentas corregidas; en régimen normal debería ser cero.
+     */
+    public int rebuild() {
+        long lastId = 0;
+        int repaired = 0;
+        int accounts;
+        do {
+            long after = lastId;
+            Chunk chunk = chunkTransaction.execute(status -> rebuildChunk(after));
+            accounts = chunk.accounts();
+            repaired += chunk.repaired();
+            lastId = chunk.lastId();
+        } while (accounts >= chunkSize);
+
+        repairedCounter.increment(repaired);
+        if (repaired > 0) {
+            log.warn("Recalculo de totales de cuentas por cobrar: {} cuentas corregidas", repaired);
+        } else {
+            log.info("Recalculo de totales de cuentas por cobrar: sin diferencias");
+        }
+        return repaired;
+    }
+
+    private Chunk rebuildChunk(long afterId) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_CHUNK, Long.class, afterId, chunkSize);
+        if (ids.isEmpty()) {
+            return new Chunk(0, 0, afterId);
+        }
+        long first = ids.get(0);
+        long last = ids.get(ids.size() - 1);
+        int repaired = jdbcTemplate.update(REBUILD_CHUNK, first, last);
+        if (repaired > 0) {
+            exposureService.recomputeForReceivables(first, last);
+        }
+        return new Chunk(ids.size(), repaired, last);
+    }
+
+    private record Chunk(int accounts, int repaired, long lastId) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.nomos.store.service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa las escrituras sobre una misma cuenta por cobrar y reintenta los conflictos optimistas.
+ * <p>
+ * Dentro de la instancia, un lock por franja (elegida por hash de la cuenta) evita que dos cajeros
+ * choquen en la misma cuenta; cuentas distintas sólo comparten lock si caen en la misma franja. Entre
+ * instancias protege el {@code @Version} de AccountsReceivable e Installment: si la transacción falla
+ * por versión, se repite completa (vuelve a leer la cuenta) hasta {@code max-attempts} veces.
+ * <p>
+ * {@code work} debe abrir y confirmar su propia transacción, para que cada intento lea datos frescos.
+ */
+@Service
+@Slf4j
+public class ReceivableWriteGuard {
+
+    private final ReentrantLock[] stripes;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter conflictCounter;
+    private final Counter exhaustedCounter;
+
+    public ReceivableWriteGuard(MeterRegistry meterRegistry,
+                                @Value("${store.receivables.write.lock-stripes:256}") int lockStripes,
+                                @Value("${store.receivables.write.max-attempts:5}") int maxAttempts,
+                                @Value("${store.receivables.write.retry-backoff-ms:10}") long backoffMillis) {
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.conflictCounter = Counter.builder("receivables.write.conflicts")
+                .description("Transacciones sobre cuentas por cobrar rechazadas por versión y reintentadas")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("receivables.write.exhausted")
+                .description("Escrituras que agotaron los reintentos por conflicto de versión")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code work} con el lock de la franja de la cuenta.
+     *
+     * @param accountKey identificador estable de la cuenta (el id de la venta sirve: la relación es 1 a 1).
+     * @throws OptimisticLockingFailureException si todos los intentos chocaron con otra escritura.
+     */
+    public <T> T execute(Long accountKey, Supplier<T> work) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(accountKey), stripes.length)];
+        lock.lock();
+        try {
+            return withRetry(work);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sólo el reintento optimista, sin lock local.
+     */
+    public <T> T withRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflictCounter.increment();
+                if (attempt >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    log.warn("Conflicto de versión tras {} intentos: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        if (backoffMillis <= 0) return;
+        try {
+            Thread.sleep(backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.LegalEntity;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.Promotion;
+import com.nomos.store.service.model.TaxRate;
+import com.nomos.store.service.repository.LegalEntityRepository;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.repository.PromotionRepository;
+import com.nomos.store.service.repository.TaxRateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lecturas cacheadas de datos maestros. Cada tipo vive en su propio cache (listado bajo la clave
+ * {@code 'all'}, registros sueltos bajo su ID) y se invalida completo desde los endpoints que lo modifican.
+ * Las listas devueltas son inmutables: la misma instancia se comparte entre peticiones.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataService {
+
+    public static final String TAX_RATES = "reference.tax-rates";
+    public static final String PAYMENT_METHODS = "reference.payment-methods";
+    public static final String LEGAL_ENTITIES = "reference.legal-entities";
+    public static final String PROMOTIONS = "reference.promotions";
+
+    private final TaxRateRepository taxRateRepository;
+    private final PaymentMethodConfigRepository paymentMethodRepository;
+    private final LegalEntityRepository legalEntityRepository;
+    private final PromotionRepository promotionRepository;
+
+    @Cacheable(cacheNames = TAX_RATES, key = "'all'")
+    public List<TaxRate> findAllTaxRates() {
+        return List.copyOf(taxRateRepository.findAll());
+    }
+
+    @CacheEvict(cacheNames = TAX_RATES, allEntries = true)
+    public void evictTaxRates() {
+    }
+
+    @Cacheable(cacheNames = PAYMENT_METHODS, key = "'all'")
+    public List<PaymentMethodConfig> findAllPaymentMethods() {
+        return List.copyOf(paymentMethodRepository.findAll());
+    }
+
+    @Cacheable(cacheNames = PAYMENT_METHODS, key = "#id", unless = "#result == null")
+    public Optional<PaymentMethodConfig> findPaymentMethod(Long id) {
+        return paymentMethodRepository.findById(id);
+    }
+
+    @CacheEvict(cacheNames = PAYMENT_METHODS, allEntries = true)
+    public void evictPaymentMethods() {
+    }
+
+    @Cacheable(cacheNames = LEGAL_ENTITIES, key = "'all'")
+    public List<LegalEntity> findAllLegalEntities() {
+        return List.copyOf(legalEntityRepository.findAll());
+    }
+
+    @Cacheable(cacheNames = LEGAL_ENTITIES, key = "#id", unless = "#result == null")
+    public Optional<LegalEntity> findLegalEntity(Long id) {
+        return legalEntityRepository.findById(id);
+    }
+
+    @CacheEvict(cacheNames = LEGAL_ENTITIES, allEntries = true)
+    public void evictLegalEntities() {
+    }
+
+    @Cacheable(cacheNames = PROMOTIONS, key = "'all'")
+    public List<Promotion> findAllPromotions() {
+        return List.copyOf(promotionRepository.findAll());
+    }
+
+    /**
+     * Promociones con el flag activo. La vigencia por fechas la filtra quien llama,
+     * para que el valor cacheado no dependa de la hora de la consulta.
+     */
+    @Cacheable(cacheNames = PROMOTIONS, key = "'active'")
+    public List<Promotion> findFlaggedActivePromotions() {
+        return List.copyOf(promotionRepository.findByIsActiveTrue());
+    }
+
+    @CacheEvict(cacheNames = PROMOTIONS, allEntries = true)
+    public void evictPromotions() {
+    }
+}
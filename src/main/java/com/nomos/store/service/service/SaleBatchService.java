@@ -0,0 +1,92 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleBatchResult;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ingesta masiva de ventas (cargas diferidas de los terminales POS).
+ * Valida todo el lote en memoria y persiste las ventas válidas en bloques, cada bloque en su propia
+ * transacción a través de {@link SaleService#createSales}. Si un bloque falla en la base de datos o
+ * por el límite de crédito de algún cliente, sus ventas se reintentan una por una para aislar la que
+ * provocó el error; la que supera el límite queda con estado 409.
+ */
+@Service
+@Slf4j
+public class SaleBatchService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final SaleService saleService;
+    private final int chunkSize;
+
+    public SaleBatchService(SaleService saleService,
+                            @Value("${store.sales.batch.chunk-size:100}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("store.sales.batch.chunk-size debe ser mayor a 0: " + chunkSize);
+        }
+        this.saleService = saleService;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<SaleBatchResult> createSales(List<SaleCreationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe contener al menos una venta");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("El lote no puede superar " + MAX_BATCH_SIZE + " ventas");
+        }
+
+        SaleBatchResult[] results = new SaleBatchResult[requests.size()];
+        List<Integer> valid = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                saleService.validateRequest(requests.get(i));
+                valid.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = SaleBatchResult.failed(i, e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            List<SaleCreationRequest> chunkRequests = chunk.stream().map(requests::get).toList();
+
+            try {
+                List<Long> ids = saleService.createSales(chunkRequests);
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = SaleBatchResult.created(chunk.get(k), ids.get(k));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falló el bloque de {} ventas, se reintenta venta por venta: {}", chunk.size(), e.getMessage());
+                for (Integer index : chunk) {
+                    results[index] = createSingle(index, requests.get(index));
+                }
+            }
+        }
+
+        log.info("Lote POS procesado: {} ventas, {} válidas.", requests.size(), valid.size());
+        return Arrays.asList(results);
+    }
+
+    private SaleBatchResult createSingle(int index, SaleCreationRequest request) {
+        try {
+            Long id = saleService.createSales(List.of(request)).get(0);
+            return SaleBatchResult.created(index, id);
+        } catch (ClientExposureService.CreditLimitExceededException e) {
+            return SaleBatchResult.failed(index, HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return SaleBatchResult.failed(index, e.getMessage());
+        } catch (RuntimeException e) {
+            return SaleBatchResult.failed(index, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Exportación de ventas por rango de fechas, una fila por línea de detalle (con los datos de la venta
+ * y el saldo de su cuenta por cobrar repetidos en cada línea).
+ * <p>
+ * La consulta corre en una transacción de solo lectura con fetch size acotado: en PostgreSQL eso abre
+ * un cursor del lado del servidor, así que la memoria no depende del tamaño del rango. Cada fila se
+ * escribe al stream apenas se lee; la primera se envía de inmediato para que el cliente empiece a recibir.
+ */
+@Service
+@Slf4j
+public class SaleExportService {
+
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato no soportado: " + value + " (use csv o ndjson)");
+            }
+        }
+    }
+
+    private static final String EXPORT_SQL =
+            "SELECT s.id AS sale_id, s.sale_date, s.client_id, s.seller_id, s.type, s.payment_condition, " +
+            "s.status, s.total_amount, " +
+            "COALESCE(ar.balance, s.total_amount) AS balance, " +
+            "d.id AS detail_id, d.product_id, d.quantity, d.unit_price, d.subtotal " +
+            "FROM sales s " +
+            "LEFT JOIN accounts_receivable ar ON ar.sale_id = s.id " +
+            "LEFT JOIN sale_details d ON d.sale_id = s.id " +
+            "WHERE s.sale_date >= ? AND s.sale_date < ? " +
+            "ORDER BY s.sale_date, s.id, d.id";
+
+    private static final String[] COLUMNS = {
+            "saleId", "saleDate", "clientId", "sellerId", "type", "paymentCondition", "status",
+            "totalAmount", "balance", "detailId", "productId", "quantity", "unitPrice", "subtotal"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public SaleExportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${store.sales.export.fetch-size}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Los parámetros from y to son obligatorios");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("El rango es inválido: 'to' es anterior a 'from'");
+        }
+    }
+
+    /**
+     * Escribe el rango [from, to] (ambos inclusive) en el formato pedido.
+     *
+     * @return filas exportadas.
+     */
+    public long export(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        validateRange(from, to);
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] rows = {0};
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL,
+                    ps -> {
+                        ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                        ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                    },
+                    (ResultSet rs) -> {
+                        try {
+                            writer.write(rs);
+                            if (++rows[0] == 1) {
+                                writer.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+            writer.close();
+        } catch (UncheckedIOException e) {
+            log.info("Exportación de ventas interrumpida tras {} filas: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        log.info("Exportación de ventas {} a {} ({}): {} filas.", from, to, format, rows[0]);
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        CsvRowWriter(OutputStream stream) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            out.write(Long.toString(rs.getLong("sale_id")));
+            out.write(',');
+            out.write(rs.getTimestamp("sale_date").toLocalDateTime().toString());
+            out.write(',');
+            writeNullableLong(rs, "client_id");
+            out.write(',');
+            writeNullableLong(rs, "seller_id");
+            out.write(',');
+            writeText(rs.getString("type"));
+            out.write(',');
+            writeText(rs.getString("payment_condition"));
+            out.write(',');
+            writeText(rs.getString("status"));
+            out.write(',');
+            writeAmount(rs, "total_amount");
+            out.write(',');
+            writeAmount(rs, "balance");
+            out.write(',');
+            writeNullableLong(rs, "detail_id");
+            out.write(',');
+            writeNullableLong(rs, "product_id");
+            out.write(',');
+            writeNullableLong(rs, "quantity");
+            out.write(',');
+            writeAmount(rs, "unit_price");
+            out.write(',');
+            writeAmount(rs, "subtotal");
+            out.write('\n');
+        }
+
+        private void writeNullableLong(ResultSet rs, String column) throws SQLException, IOException {
+            long value = rs.getLong(column);
+            if (!rs.wasNull()) {
+                out.write(Long.toString(value));
+            }
+        }
+
+        private void writeAmount(ResultSet rs, String column) throws SQLException, IOException {
+            double value = rs.getDouble(column);
+            if (!rs.wasNull()) {
+                out.write(Money.format(Money.toCents(value)));
+            }
+        }
+
+        /** RFC 4180: entre comillas sólo si hace falta, duplicando las comillas internas. */
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(OutputStream stream) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(stream, JsonEncoding.UTF8);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField(COLUMNS[0], rs.getLong("sale_id"));
+            json.writeStringField(COLUMNS[1], rs.getTimestamp("sale_date").toLocalDateTime().toString());
+            writeNullableLong(COLUMNS[2], rs, "client_id");
+            writeNullableLong(COLUMNS[3], rs, "seller_id");
+            json.writeStringField(COLUMNS[4], rs.getString("type"));
+            json.writeStringField(COLUMNS[5], rs.getString("payment_condition"));
+            json.writeStringField(COLUMNS[6], rs.getString("status"));
+            writeAmount(COLUMNS[7], rs, "total_amount");
+            writeAmount(COLUMNS[8], rs, "balance");
+            writeNullableLong(COLUMNS[9], rs, "detail_id");
+            writeNullableLong(COLUMNS[10], rs, "product_id");
+            writeNullableLong(COLUMNS[11], rs, "quantity");
+            writeAmount(COLUMNS[12], rs, "unit_price");
+            writeAmount(COLUMNS[13], rs, "subtotal");
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeNullableLong(String field, ResultSet rs, String column) throws SQLException, IOException {
+            long value = rs.getLong(column);
+            if (rs.wasNull()) {
+                json.writeNullField(field);
+            } else {
+                json.writeNumberField(field, value);
+            }
+        }
+
+        private void writeAmount(String field, ResultSet rs, String column) throws SQLException, IOException {
+            double value = rs.getDouble(column);
+            json.writeFieldName(field);
+            if (rs.wasNull()) {
+                json.writeNull();
+            } else {
+                json.writeNumber(Money.format(Money.toCents(value)));
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+}
@@ -23,6 +23,10 @@ public class SaleReturnService {
     private SaleDetailRepository saleDetailRepository;
     @Autowired
     private SalesDocumentService salesDocumentService;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private AggregateVersionService aggregateVersionService;
 
     /**
      * CREAR BORRADOR
@@ -77,6 +81,7 @@ public class SaleReturnService {
 
         saleReturn.setTotalRefundAmount(totalAmount);
 
+        aggregateVersionService.touch(sale);
         return returnRepository.save(saleReturn);
     }
 
@@ -105,6 +110,7 @@ public class SaleReturnService {
             );
 
             saleReturn.setCreditNote(creditNote);
+            salesRollupService.recordReturn(saleReturn);
 
             return returnRepository.save(saleReturn);
 
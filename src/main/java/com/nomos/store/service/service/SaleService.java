@@ -3,21 +3,30 @@ package com.nomos.store.service.service;
 import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
 import com.nomos.store.service.controller.SaleController.SaleRequestDetail;
 import com.nomos.store.service.controller.SaleController.ReferenceDTO;
+import com.nomos.store.service.controller.SaleController.SaleListFilter;
+import com.nomos.store.service.controller.SaleController.SalePage;
+import com.nomos.store.service.controller.SaleController.QuoteLine;
+import com.nomos.store.service.controller.SaleController.QuoteRequest;
+import com.nomos.store.service.controller.SaleController.QuoteResponse;
 import com.nomos.store.service.model.*;
-import com.nomos.store.service.repository.SaleDetailRepository;
+import com.nomos.store.service.repository.AccountingOutboxRepository;
 import com.nomos.store.service.repository.SaleRepository;
+import com.nomos.store.service.repository.SaleSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,43 +34,194 @@ import java.util.stream.Collectors;
 public class SaleService {
 
     private final SaleRepository saleRepository;
-    private final SaleDetailRepository saleDetailRepository;
-    private final AccountingService accountingService; // Inyección del Servicio Contable
+    private final AccountingOutboxRepository outboxRepository;
+    private final SalesRollupService salesRollupService;
+    private final ReceivableLedgerService receivableLedgerService;
+    private final ClientExposureService clientExposureService;
 
-    public List<Sale> findAll() {
-        return saleRepository.findAll();
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    /** Cotas usadas cuando el cliente no envía cursor o rango de fechas (evitan parámetros nulos en el keyset). */
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /** Catálogos fijos: salen de enums, así que se arman una sola vez. */
+    private static final List<ReferenceDTO> SALE_TYPES = Arrays.stream(SaleTypeEnum.values())
+            .map(st -> new ReferenceDTO(st.name(), st.getDescription()))
+            .toList();
+    private static final List<ReferenceDTO> PAYMENT_CONDITIONS = Arrays.stream(PaymentConditionEnum.values())
+            .map(pc -> new ReferenceDTO(pc.name(), pc.getDescription()))
+            .toList();
+
+    /**
+     * Listado paginado por cursor (keyset sobre sale_date, id).
+     * Cada página es una sola consulta acotada a {@code size + 1} filas, sin importar el tamaño de la tabla,
+     * y devuelve resúmenes con saldo y estado ya calculados en la base de datos.
+     */
+    @Transactional(readOnly = true)
+    public SalePage<SaleSummary> findPage(SaleListFilter filter, String cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        LocalDateTime cursorDate = MAX_DATE;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorDate = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+
+        LocalDateTime from = filter.getFrom() != null ? filter.getFrom().atStartOfDay() : MIN_DATE;
+        LocalDateTime to = filter.getTo() != null ? filter.getTo().plusDays(1).atStartOfDay() : MAX_DATE;
+        String status = (filter.getStatus() != null && !filter.getStatus().isBlank())
+                ? filter.getStatus().toUpperCase()
+                : null;
+
+        List<SaleSummary> rows = saleRepository.findSummaryPage(
+                cursorDate, cursorId, from, to,
+                status, filter.getSellerId(), filter.getClientId(),
+                pageSize + 1);
+
+        if (rows.size() <= pageSize) {
+            return new SalePage<>(rows, null);
+        }
+
+        List<SaleSummary> items = rows.subList(0, pageSize);
+        SaleSummary last = items.get(pageSize - 1);
+        return new SalePage<>(items, encodeCursor(last.getSaleDate(), last.getId()));
     }
 
+    @Transactional(readOnly = true)
     public Optional<Sale> findById(Long id) {
         return saleRepository.findById(id);
     }
 
     public List<ReferenceDTO> getSaleTypes() {
-        return Arrays.stream(SaleTypeEnum.values())
-                .map(st -> new ReferenceDTO(st.name(), st.getDescription()))
-                .collect(Collectors.toList());
+        return SALE_TYPES;
     }
 
     public List<ReferenceDTO> getPaymentConditions() {
-        return Arrays.stream(PaymentConditionEnum.values())
-                .map(pc -> new ReferenceDTO(pc.name(), pc.getDescription()))
-                .collect(Collectors.toList());
+        return PAYMENT_CONDITIONS;
     }
 
     @Transactional
     public Sale createSale(SaleCreationRequest request) {
         log.info("Creando venta. Emisión: {}", request.getSaleDate());
 
+        Sale newSale = buildSale(request);
+        clientExposureService.checkCreditLimits(List.of(newSale));
+
+        // Un solo persist: la cascada lleva detalles, cuenta por cobrar y cuotas al mismo flush (en batch).
+        Sale savedSale = saleRepository.save(newSale);
+        receivableLedgerService.recordCharges(savedSale.getAccountsReceivable());
+
+        // El asiento contable lo genera AccountingOutboxPoster en segundo plano.
+        outboxRepository.save(AccountingOutboxEvent.saleCreated(savedSale));
+        salesRollupService.recordSales(List.of(savedSale));
+        clientExposureService.recordSales(List.of(savedSale));
+
+        log.info("Venta #{} registrada exitosamente.", savedSale.getId());
+        return savedSale;
+    }
+
+    /**
+     * Registra un bloque de ventas ya validadas en una sola transacción.
+     * Todas las filas del bloque salen en los mismos batches JDBC; al terminar se vacía el contexto
+     * de persistencia para que la memoria no crezca con el tamaño de la carga. El límite de crédito se
+     * evalúa por cliente con la suma de sus ventas a crédito del bloque: si alguno lo supera, el bloque
+     * entero se rechaza con {@link ClientExposureService.CreditLimitExceededException}.
+     *
+     * @return los IDs creados, en el mismo orden que las solicitudes.
+     */
+    @Transactional
+    public List<Long> createSales(List<SaleCreationRequest> requests) {
+        List<Sale> sales = requests.stream()
+                .map(this::buildSale)
+                .toList();
+        clientExposureService.checkCreditLimits(sales);
+
+        saleRepository.saveAll(sales);
+        sales.forEach(sale -> receivableLedgerService.recordCharges(sale.getAccountsReceivable()));
+
+        outboxRepository.saveAll(sales.stream()
+                .map(AccountingOutboxEvent::saleCreated)
+                .toList());
+        salesRollupService.recordSales(sales);
+        clientExposureService.recordSales(sales);
+
+        List<Long> ids = sales.stream().map(Sale::getId).toList();
+
+        entityManager.flush();
+        entityManager.clear();
+
+        log.info("Lote de {} ventas registrado.", ids.size());
+        return ids;
+    }
+
+    /**
+     * Valida los datos obligatorios de una solicitud sin tocar la base de datos.
+     */
+    public void validateRequest(SaleCreationRequest request) {
         if (request.getSellerId() == null || request.getSaleDate() == null) {
             throw new IllegalArgumentException("Faltan datos obligatorios: Vendedor o Fecha");
         }
+        if (request.getType() == null || request.getPaymentCondition() == null) {
+            throw new IllegalArgumentException("Faltan datos obligatorios: Tipo o Condición de Pago");
+        }
         if (request.getDetails() == null || request.getDetails().isEmpty()) {
             throw new IllegalArgumentException("La venta debe tener al menos un detalle");
         }
+        if (request.getDetails().stream().anyMatch(d -> d.getProductId() == null || d.getSubtotal() == null)) {
+            throw new IllegalArgumentException("Cada detalle debe tener producto y subtotal");
+        }
+        SaleTypeEnum.valueOf(request.getType().toUpperCase());
+        if (PaymentConditionEnum.valueOf(request.getPaymentCondition().toUpperCase()) == PaymentConditionEnum.CREDITO) {
+            creditPlan(request);
+        }
+    }
+
+    /**
+     * Cotización sin persistencia: arma el cronograma en memoria con {@link AmortizationEngine}.
+     */
+    public QuoteResponse quote(QuoteRequest request) {
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            throw new IllegalArgumentException("El monto a financiar debe ser mayor a 0");
+        }
+        AmortizationEngine.Plan plan = AmortizationEngine.Plan.of(request.getNumberOfInstallments(),
+                request.getAnnualRate(), request.getAmortization(), request.getInstallmentFrequency());
+        LocalDate baseDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(plan, Money.toCents(request.getAmount()), baseDate);
+
+        List<QuoteLine> lines = new ArrayList<>(schedule.lines().size());
+        for (AmortizationEngine.Line line : schedule.lines()) {
+            lines.add(new QuoteLine(line.number(), line.dueDate(),
+                    Money.toAmount(line.paymentCents()), Money.toAmount(line.capitalCents()),
+                    Money.toAmount(line.interestCents()), Money.toAmount(line.balanceCents())));
+        }
+        return new QuoteResponse(Money.toAmount(schedule.principalCents()), plan.installments(), plan.annualRate(),
+                plan.periodicRate(), plan.method().name(), plan.frequency().name(),
+                Money.toAmount(schedule.interestCents()), Money.toAmount(schedule.totalCents()), lines);
+    }
 
-        double totalAmount = request.getDetails().stream()
-                .mapToDouble(SaleRequestDetail::getSubtotal)
-                .sum();
+    private static AmortizationEngine.Plan creditPlan(SaleCreationRequest request) {
+        return AmortizationEngine.Plan.of(request.getNumberOfInstallments(), request.getAnnualRate(),
+                request.getAmortization(), request.getInstallmentFrequency());
+    }
+
+    /**
+     * Arma en memoria el agregado completo de la venta: detalles, cuenta por cobrar y cuotas.
+     */
+    private Sale buildSale(SaleCreationRequest request) {
+        validateRequest(request);
+
+        long totalCents = 0;
+        for (SaleRequestDetail d : request.getDetails()) {
+            totalCents += Money.toCents(d.getSubtotal());
+        }
+        double totalAmount = Money.toAmount(totalCents);
 
         SaleTypeEnum saleType = SaleTypeEnum.valueOf(request.getType().toUpperCase());
         PaymentConditionEnum paymentCondition = PaymentConditionEnum.valueOf(request.getPaymentCondition().toUpperCase());
@@ -81,11 +241,20 @@ public class SaleService {
                 .creditDays(request.getCreditDays())
                 .build();
 
-        Sale savedSale = saleRepository.save(newSale);
+        for (SaleRequestDetail d : request.getDetails()) {
+            SaleDetail detail = new SaleDetail();
+            detail.setSale(newSale);
+            detail.setProductId(d.getProductId());
+            detail.setUnitPrice(d.getUnitPrice());
+            detail.setQuantity(d.getQuantity());
+            detail.setSubtotal(d.getSubtotal());
+            detail.setTaxRateId(d.getTaxRateId());
+            detail.setPromotionId(d.getPromotionId());
+            newSale.getDetails().add(detail);
+        }
 
         AccountsReceivable ar = AccountsReceivable.builder()
-                .sale(savedSale)
-                .totalAmount(totalAmount)
+                .sale(newSale)
                 .status(AccountsReceivableStatus.ACTIVE)
                 .build();
 
@@ -96,31 +265,23 @@ public class SaleService {
         List<Installment> installments = generateInstallments(
                 ar,
                 paymentCondition,
-                request.getNumberOfInstallments(),
+                paymentCondition == PaymentConditionEnum.CREDITO ? creditPlan(request) : null,
                 baseDate,
                 totalAmount
         );
-        ar.setInstallments(installments);
-
-        savedSale.setAccountsReceivable(ar);
-        savedSale = saleRepository.save(savedSale);
-
-        for (SaleRequestDetail d : request.getDetails()) {
-            SaleDetail detail = new SaleDetail();
-            detail.setSale(savedSale);
-            detail.setProductId(d.getProductId());
-            detail.setUnitPrice(d.getUnitPrice());
-            detail.setQuantity(d.getQuantity());
-            detail.setSubtotal(d.getSubtotal());
-            detail.setTaxRateId(d.getTaxRateId());
-            detail.setPromotionId(d.getPromotionId());
-            saleDetailRepository.save(detail);
+        // Con interés, la cuenta por cobrar es capital más intereses del cronograma.
+        long receivableCents = 0;
+        for (Installment installment : installments) {
+            receivableCents += Money.toCents(installment.getExpectedAmount());
         }
+        ar.setTotalAmount(Money.toAmount(receivableCents));
+        ar.setBalance(ar.getTotalAmount());
+        ar.setInstallments(installments);
+        ReceivableLedgerService.reserveCharges(ar);
+        ar.refreshDueDates(LocalDate.now());
+        newSale.setAccountsReceivable(ar);
 
-        generateAccountingEntry(savedSale);
-
-        log.info("Venta #{} registrada exitosamente.", savedSale.getId());
-        return savedSale;
+        return newSale;
     }
 
     @Transactional
@@ -133,14 +294,14 @@ public class SaleService {
         }
 
         sale.setStatus("CANCELADA");
-
-        if (sale.getAccountsReceivable() != null) {
-            sale.getAccountsReceivable().setStatus(AccountsReceivableStatus.CANCELLED);
-            sale.getAccountsReceivable().getCollections().forEach(collection -> {
-                if (!"ANULADO".equals(collection.getStatus())) {
-                    collection.setStatus("ANULADO");
-                }
-            });
+        salesRollupService.recordCancellation(sale);
+
+        AccountsReceivable ar = sale.getAccountsReceivable();
+        if (ar != null) {
+            ClientExposureService.Contribution exposure = ClientExposureService.Contribution.of(ar);
+            ar.cancel(LocalDate.now());
+            receivableLedgerService.recordCancel(ar, LocalDate.now());
+            clientExposureService.recordChange(ar, exposure);
         }
 
 
@@ -153,9 +314,33 @@ public class SaleService {
 
 
     /**
-     * Calcula la fecha de vencimiento final basada en la condición de pago.
+     * El cursor es opaco para el cliente: "fecha|id" de la última fila, en Base64 URL-safe.
+     */
+    private static String encodeCursor(LocalDateTime saleDate, Long id) {
+        String raw = saleDate.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    /**
+     * Calcula la fecha de vencimiento final basada en la condición de pago. Sin estado; visible en el
+     * paquete para los microbenchmarks JMH (src/jmh/java).
      */
-    private LocalDate calculateDueDate(SaleCreationRequest request, PaymentConditionEnum condition) {
+    static LocalDate calculateDueDate(SaleCreationRequest request, PaymentConditionEnum condition) {
         if (condition == PaymentConditionEnum.CONTADO) {
             return request.getSaleDate().toLocalDate();
         } else {
@@ -164,18 +349,24 @@ public class SaleService {
                     ? request.getCreditStartDate()
                     : request.getSaleDate().toLocalDate();
 
-            int months = (request.getNumberOfInstallments() != null && request.getNumberOfInstallments() > 0)
-                    ? request.getNumberOfInstallments()
-                    : 1;
-
-            return baseDate.plusMonths(months);
+            AmortizationEngine.Plan plan = creditPlan(request);
+            return plan.frequency().dueDate(baseDate, plan.installments());
         }
     }
 
     /**
-     * Genera la lista de cuotas (Installments).
+     * Genera la lista de cuotas (Installments) en cuotas iguales sin interés.
+     * Sin estado; visible en el paquete para los microbenchmarks JMH (src/jmh/java).
      */
-    private List<Installment> generateInstallments(AccountsReceivable ar, PaymentConditionEnum condition, Integer numberOfInstallments, LocalDate baseDate, Double totalAmount) {
+    static List<Installment> generateInstallments(AccountsReceivable ar, PaymentConditionEnum condition, Integer numberOfInstallments, LocalDate baseDate, Double totalAmount) {
+        AmortizationEngine.Plan plan = AmortizationEngine.Plan.of(numberOfInstallments, null, null, null);
+        return generateInstallments(ar, condition, plan, baseDate, totalAmount);
+    }
+
+    /**
+     * Genera las cuotas según el plan: cada una guarda capital e interés y su total es la cuota del cronograma.
+     */
+    static List<Installment> generateInstallments(AccountsReceivable ar, PaymentConditionEnum condition, AmortizationEngine.Plan plan, LocalDate baseDate, Double totalAmount) {
         List<Installment> installments = new ArrayList<>();
 
         if (condition == PaymentConditionEnum.CONTADO) {
@@ -183,75 +374,25 @@ public class SaleService {
                     .accountsReceivable(ar)
                     .number(1)
                     .expectedAmount(totalAmount)
+                    .capitalAmount(totalAmount)
+                    .interestAmount(0.0)
                     .dueDate(baseDate)
                     .status(InstallmentStatus.PENDING)
                     .build());
         } else {
-            int n = (numberOfInstallments != null && numberOfInstallments > 0) ? numberOfInstallments : 1;
-            double rawAmount = totalAmount / n;
-            double roundedAmount = Math.round(rawAmount * 100.0) / 100.0;
-            double accumulated = 0.0;
-
-            for (int i = 1; i <= n; i++) {
-                double currentAmount;
-
-                if (i == n) {
-                    currentAmount = Math.round((totalAmount - accumulated) * 100.0) / 100.0;
-                } else {
-                    currentAmount = roundedAmount;
-                }
-                accumulated += currentAmount;
-
+            AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(plan, Money.toCents(totalAmount), baseDate);
+            for (AmortizationEngine.Line line : schedule.lines()) {
                 installments.add(Installment.builder()
                         .accountsReceivable(ar)
-                        .number(i)
-                        .expectedAmount(currentAmount)
-                        .dueDate(baseDate.plusMonths(i))
+                        .number(line.number())
+                        .expectedAmount(Money.toAmount(line.paymentCents()))
+                        .capitalAmount(Money.toAmount(line.capitalCents()))
+                        .interestAmount(Money.toAmount(line.interestCents()))
+                        .dueDate(line.dueDate())
                         .status(InstallmentStatus.PENDING)
                         .build());
             }
         }
         return installments;
     }
-
-    /**
-     * Genera el asiento contable de venta.
-     */
-    private void generateAccountingEntry(Sale sale) {
-            AccountingJournalEntry entry = new AccountingJournalEntry();
-            entry.setEntryDate(LocalDateTime.now());
-            entry.setConcept("Venta " + sale.getType() + " #" + sale.getId());
-            entry.setReferenceDocument("SALE-" + sale.getId());
-            entry.setStatus("POSTED");
-
-            List<AccountingJournalLine> lines = new ArrayList<>();
-
-            lines.add(AccountingJournalLine.builder()
-                    .accountCode("12.1")
-                    .accountName("Facturas por Cobrar")
-                    .debit(sale.getTotalAmount())
-                    .credit(0.0)
-                    .build());
-
-            double baseImponible = sale.getTotalAmount() / 1.18; // Asumiendo IGV 18%
-            double igv = sale.getTotalAmount() - baseImponible;
-
-            lines.add(AccountingJournalLine.builder()
-                    .accountCode("40.1")
-                    .accountName("Tributos por Pagar (IGV)")
-                    .debit(0.0)
-                    .credit(Math.round(igv * 100.0) / 100.0)
-                    .build());
-
-            lines.add(AccountingJournalLine.builder()
-                    .accountCode("70.1")
-                    .accountName("Venta de Mercaderías")
-                    .debit(0.0)
-                    .credit(Math.round(baseImponible * 100.0) / 100.0)
-                    .build());
-
-            entry.setLines(lines);
-
-            accountingService.createEntry(entry);
-    }
-}
\ No newline at end of file
+}
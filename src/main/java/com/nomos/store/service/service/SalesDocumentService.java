@@ -20,6 +20,8 @@ public class SalesDocumentService {
 
     @Autowired
     private SalesDocumentPdfService pdfService;
+    @Autowired
+    private AggregateVersionService aggregateVersionService;
 
     /**
      * EMISIÓN: Crea el documento lógico en base de datos.
@@ -46,6 +48,7 @@ public class SalesDocumentService {
                 .totalAmount(sale.getTotalAmount())
                 .build();
 
+        aggregateVersionService.touch(sale);
         return documentRepository.save(doc);
     }
 
@@ -83,6 +86,7 @@ public class SalesDocumentService {
                 .responseMessage(reason)
                 .build();
 
+        aggregateVersionService.touch(sale);
         return documentRepository.save(doc);
     }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.model.SaleDetail;
+import com.nomos.store.service.model.SaleReturn;
+import com.nomos.store.service.model.SaleReturnDetail;
+import com.nomos.store.service.repository.SalesRollupRepository;
+import com.nomos.store.service.repository.SalesRollupRepository.DailyTotals;
+import com.nomos.store.service.repository.SalesRollupRepository.ProductTotals;
+import com.nomos.store.service.repository.SalesRollupRepository.SellerTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene incrementalmente los acumulados diarios por vendedor y por producto.
+ * <p>
+ * Se invoca dentro de la transacción de la operación de origen (venta, anulación, devolución), así que
+ * los tableros nunca ven un acumulado que no corresponda a datos confirmados. Cada llamada agrupa
+ * primero los deltas por clave y luego aplica un UPDATE en batch por tabla; sólo las claves que aún
+ * no existen pagan un INSERT ... ON CONFLICT DO NOTHING seguido de un segundo UPDATE, que es seguro
+ * aunque dos transacciones creen la misma fila a la vez. Las filas se bloquean siempre en el orden de
+ * la clave (día, vendedor, tipo / día, producto): dos lotes concurrentes que tocan las mismas filas
+ * esperan uno al otro en lugar de bloquearse mutuamente.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private static final String UPDATE_SELLER =
+            "UPDATE sales_rollup_seller_daily SET sale_count = sale_count + ?, total_amount = total_amount + ?, " +
+            "cancelled_count = cancelled_count + ?, cancelled_amount = cancelled_amount + ?, " +
+            "returned_amount = returned_amount + ? " +
+            "WHERE sale_day = ? AND seller_id = ? AND sale_type = ?";
+
+    private static final String INSERT_SELLER =
+            "INSERT INTO sales_rollup_seller_daily (sale_day, seller_id, sale_type, sale_count, total_amount, " +
+            "cancelled_count, cancelled_amount, returned_amount) VALUES (?, ?, ?, 0, 0, 0, 0, 0) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String UPDATE_PRODUCT =
+            "UPDATE sales_rollup_product_daily SET quantity = quantity + ?, amount = amount + ? " +
+            "WHERE sale_day = ? AND product_id = ?";
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO sales_rollup_product_daily (sale_day, product_id, quantity, amount) " +
+            "VALUES (?, ?, 0, 0) ON CONFLICT DO NOTHING";
+
+    static final int DEFAULT_TOP_PRODUCTS = 20;
+    static final int MAX_TOP_PRODUCTS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesRollupRepository rollupRepository;
+
+    @Transactional(readOnly = true)
+    public List<SellerTotals> totalsBySeller(LocalDate from, LocalDate to, Long sellerId) {
+        return rollupRepository.sumBySeller(from, to, sellerId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyTotals> totalsByDay(LocalDate from, LocalDate to, Long sellerId) {
+        return rollupRepository.sumByDay(from, to, sellerId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductTotals> topProducts(LocalDate from, LocalDate to, Integer limit) {
+        int effectiveLimit = limit == null ? DEFAULT_TOP_PRODUCTS : Math.min(Math.max(limit, 1), MAX_TOP_PRODUCTS);
+        return rollupRepository.sumByProduct(from, to, Limit.of(effectiveLimit));
+    }
+
+    /** Suma ventas recién registradas (una o un lote completo) a los acumulados de su día de emisión. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSales(List<Sale> sales) {
+        Map<SellerKey, SellerDelta> sellers = new LinkedHashMap<>();
+        Map<ProductKey, ProductDelta> products = new LinkedHashMap<>();
+
+        for (Sale sale : sales) {
+            LocalDate day = sale.getSaleDate().toLocalDate();
+            sellers.computeIfAbsent(sellerKey(sale, day), k -> new SellerDelta())
+                    .add(1, sale.getTotalAmount(), 0, 0.0, 0.0);
+            for (SaleDetail detail : sale.getDetails()) {
+                products.computeIfAbsent(new ProductKey(day, detail.getProductId()), k -> new ProductDelta())
+                        .add(detail.getQuantity(), detail.getSubtotal());
+            }
+        }
+
+        apply(sellers, products);
+    }
+
+    /**
+     * Una anulación se imputa al día original de la venta: cuenta como anulada en el vendedor
+     * y descuenta sus líneas del neto por producto.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCancellation(Sale sale) {
+        LocalDate day = sale.getSaleDate().toLocalDate();
+        Map<SellerKey, SellerDelta> sellers = new LinkedHashMap<>();
+        Map<ProductKey, ProductDelta> products = new LinkedHashMap<>();
+
+        sellers.put(sellerKey(sale, day), new SellerDelta().add(0, 0.0, 1, sale.getTotalAmount(), 0.0));
+        for (SaleDetail detail : sale.getDetails()) {
+            products.computeIfAbsent(new ProductKey(day, detail.getProductId()), k -> new ProductDelta())
+                    .add(-detail.getQuantity(), -detail.getSubtotal());
+        }
+
+        apply(sellers, products);
+    }
+
+    /** Una devolución confirmada se imputa al día en que se registró la devolución. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReturn(SaleReturn saleReturn) {
+        LocalDate day = saleReturn.getReturnDate().toLocalDate();
+        Map<SellerKey, SellerDelta> sellers = new LinkedHashMap<>();
+        Map<ProductKey, ProductDelta> products = new LinkedHashMap<>();
+
+        sellers.put(sellerKey(saleReturn.getSale(), day),
+                new SellerDelta().add(0, 0.0, 0, 0.0, saleReturn.getTotalRefundAmount()));
+        for (SaleReturnDetail detail : saleReturn.getDetails()) {
+            Long productId = detail.getOriginalSaleDetail().getProductId();
+            products.computeIfAbsent(new ProductKey(day, productId), k -> new ProductDelta())
+                    .add(-detail.getQuantity(), -detail.getSubtotal());
+        }
+
+        apply(sellers, products);
+    }
+
+    private void apply(Map<SellerKey, SellerDelta> sellers, Map<ProductKey, ProductDelta> products) {
+        List<Map.Entry<SellerKey, SellerDelta>> sellerRows = new ArrayList<>(sellers.entrySet());
+        sellerRows.sort(Map.Entry.comparingByKey());
+        List<SellerKey> missingSellers = missing(sellerRows, updateSellers(sellerRows));
+        if (!missingSellers.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SELLER, missingSellers, missingSellers.size(), (ps, key) -> {
+                ps.setDate(1, Date.valueOf(key.day()));
+                ps.setLong(2, key.sellerId());
+                ps.setString(3, key.saleType());
+            });
+            updateSellers(sellerRows.stream().filter(e -> missingSellers.contains(e.getKey())).toList());
+        }
+
+        List<Map.Entry<ProductKey, ProductDelta>> productRows = new ArrayList<>(products.entrySet());
+        productRows.sort(Map.Entry.comparingByKey());
+        List<ProductKey> missingProducts = missing(productRows, updateProducts(productRows));
+        if (!missingProducts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, missingProducts, missingProducts.size(), (ps, key) -> {
+                ps.setDate(1, Date.valueOf(key.day()));
+                ps.setLong(2, key.productId());
+            });
+            updateProducts(productRows.stream().filter(e -> missingProducts.contains(e.getKey())).toList());
+        }
+
+        log.debug("Acumulados actualizados: {} vendedor/día, {} producto/día ({} y {} filas nuevas).",
+                sellerRows.size(), productRows.size(), missingSellers.size(), missingProducts.size());
+    }
+
+    private int[][] updateSellers(List<Map.Entry<SellerKey, SellerDelta>> rows) {
+        if (rows.isEmpty()) {
+            return new int[0][];
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_SELLER, rows, rows.size(), (ps, row) -> {
+            SellerDelta d = row.getValue();
+            ps.setLong(1, d.saleCount);
+            ps.setDouble(2, d.totalAmount);
+            ps.setLong(3, d.cancelledCount);
+            ps.setDouble(4, d.cancelledAmount);
+            ps.setDouble(5, d.returnedAmount);
+            ps.setDate(6, Date.valueOf(row.getKey().day()));
+            ps.setLong(7, row.getKey().sellerId());
+            ps.setString(8, row.getKey().saleType());
+        });
+    }
+
+    private int[][] updateProducts(List<Map.Entry<ProductKey, ProductDelta>> rows) {
+        if (rows.isEmpty()) {
+            return new int[0][];
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_PRODUCT, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getValue().quantity);
+            ps.setDouble(2, row.getValue().amount);
+            ps.setDate(3, Date.valueOf(row.getKey().day()));
+            ps.setLong(4, row.getKey().productId());
+        });
+    }
+
+    /** Claves cuyo UPDATE no encontró fila (el batch se envía en un solo bloque, así que el índice es directo). */
+    private static <K, V> List<K> missing(List<Map.Entry<K, V>> rows, int[][] counts) {
+        List<K> result = new ArrayList<>();
+        int[] affected = counts.length == 0 ? new int[0] : counts[0];
+        for (int i = 0; i < affected.length; i++) {
+            if (affected[i] == 0) {
+                result.add(rows.get(i).getKey());
+            }
+        }
+        return result;
+    }
+
+    private static SellerKey sellerKey(Sale sale, LocalDate day) {
+        return new SellerKey(day, sale.getSellerId(), sale.getType().name());
+    }
+
+    private record SellerKey(LocalDate day, Long sellerId, String saleType) implements Comparable<SellerKey> {
+        private static final Comparator<SellerKey> ORDER = Comparator.comparing(SellerKey::day)
+                .thenComparing(SellerKey::sellerId)
+                .thenComparing(SellerKey::saleType);
+
+        @Override
+        public int compareTo(SellerKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record ProductKey(LocalDate day, Long productId) implements Comparable<ProductKey> {
+        private static final Comparator<ProductKey> ORDER = Comparator.comparing(ProductKey::day)
+                .thenComparing(ProductKey::productId);
+
+        @Override
+        public int compareTo(ProductKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class SellerDelta {
+        long saleCount;
+        double totalAmount;
+        long cancelledCount;
+        double cancelledAmount;
+        double returnedAmount;
+
+        SellerDelta add(long sales, double total, long cancelled, double cancelledTotal, double returned) {
+            saleCount += sales;
+            totalAmount += total;
+            cancelledCount += cancelled;
+            cancelledAmount += cancelledTotal;
+            returnedAmount += returned;
+            return this;
+        }
+    }
+
+    private static final class ProductDelta {
+        long quantity;
+        double amount;
+
+        void add(long qty, double subtotal) {
+            quantity += qty;
+            amount += subtotal;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+-- Migra los IDs de IDENTITY a secuencias con incremento 50 (optimizador pooled de Hibernate).
+-- Aplicar antes de desplegar la versión que usa @SequenceGenerator. Conserva los IDs existentes:
+-- cada secuencia arranca por encima del MAX(id) actual de su tabla.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS accounting_journal_entries_seq INCREMENT BY 50;
+SELECT setval('accounting_journal_entries_seq', COALESCE((SELECT MAX(id) FROM accounting_journal_entries), 0) + 50);
+ALTER TABLE accounting_journal_entries ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS accounting_journal_lines_seq INCREMENT BY 50;
+SELECT setval('accounting_journal_lines_seq', COALESCE((SELECT MAX(id) FROM accounting_journal_lines), 0) + 50);
+ALTER TABLE accounting_journal_lines ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS accounts_receivable_seq INCREMENT BY 50;
+SELECT setval('accounts_receivable_seq', COALESCE((SELECT MAX(id) FROM accounts_receivable), 0) + 50);
+ALTER TABLE accounts_receivable ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS announcements_seq INCREMENT BY 50;
+SELECT setval('announcements_seq', COALESCE((SELECT MAX(id) FROM announcements), 0) + 50);
+ALTER TABLE announcements ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS collections_seq INCREMENT BY 50;
+SELECT setval('collections_seq', COALESCE((SELECT MAX(id) FROM collections), 0) + 50);
+ALTER TABLE collections ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS credit_documents_seq INCREMENT BY 50;
+SELECT setval('credit_documents_seq', COALESCE((SELECT MAX(id) FROM credit_documents), 0) + 50);
+ALTER TABLE credit_documents ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS installments_seq INCREMENT BY 50;
+SELECT setval('installments_seq', COALESCE((SELECT MAX(id) FROM installments), 0) + 50);
+ALTER TABLE installments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS legal_entities_seq INCREMENT BY 50;
+SELECT setval('legal_entities_seq', COALESCE((SELECT MAX(id) FROM legal_entities), 0) + 50);
+ALTER TABLE legal_entities ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS payment_method_configs_seq INCREMENT BY 50;
+SELECT setval('payment_method_configs_seq', COALESCE((SELECT MAX(id) FROM payment_method_configs), 0) + 50);
+ALTER TABLE payment_method_configs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS promotion_targets_seq INCREMENT BY 50;
+SELECT setval('promotion_targets_seq', COALESCE((SELECT MAX(id) FROM promotion_targets), 0) + 50);
+ALTER TABLE promotion_targets ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS promotions_seq INCREMENT BY 50;
+SELECT setval('promotions_seq', COALESCE((SELECT MAX(id) FROM promotions), 0) + 50);
+ALTER TABLE promotions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS sale_details_seq INCREMENT BY 50;
+SELECT setval('sale_details_seq', COALESCE((SELECT MAX(id) FROM sale_details), 0) + 50);
+ALTER TABLE sale_details ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS sale_return_details_seq INCREMENT BY 50;
+SELECT setval('sale_return_details_seq', COALESCE((SELECT MAX(id) FROM sale_return_details), 0) + 50);
+ALTER TABLE sale_return_details ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS sale_returns_seq INCREMENT BY 50;
+SELECT setval('sale_returns_seq', COALESCE((SELECT MAX(id) FROM sale_returns), 0) + 50);
+ALTER TABLE sale_returns ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS sales_seq INCREMENT BY 50;
+SELECT setval('sales_seq', COALESCE((SELECT MAX(id) FROM sales), 0) + 50);
+ALTER TABLE sales ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS sales_documents_seq INCREMENT BY 50;
+SELECT setval('sales_documents_seq', COALESCE((SELECT MAX(id) FROM sales_documents), 0) + 50);
+ALTER TABLE sales_documents ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS tax_rates_seq INCREMENT BY 50;
+SELECT setval('tax_rates_seq', COALESCE((SELECT MAX(id) FROM tax_rates), 0) + 50);
+ALTER TABLE tax_rates ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+COMMIT;
@@ -0,0 +1,50 @@
+-- Reconstruye los acumulados diarios (sales_rollup_seller_daily, sales_rollup_product_daily) a partir
+-- del histórico. Aplicar una vez tras desplegar la versión que los mantiene en línea; también sirve
+-- para recalcularlos si se sospecha una desviación. Bloquea escrituras sobre ventas mientras corre.
+
+BEGIN;
+
+LOCK TABLE sales, sale_returns IN SHARE MODE;
+
+TRUNCATE sales_rollup_seller_daily, sales_rollup_product_daily;
+
+-- Ventas del día (incluye las anuladas, igual que en línea: se cuentan al crearse y se restan aparte).
+INSERT INTO sales_rollup_seller_daily (sale_day, seller_id, sale_type, sale_count, total_amount,
+                                       cancelled_count, cancelled_amount, returned_amount)
+SELECT CAST(s.sale_date AS DATE), s.seller_id, s.type,
+       COUNT(*), SUM(s.total_amount),
+       COUNT(*) FILTER (WHERE s.status = 'CANCELADA'),
+       COALESCE(SUM(s.total_amount) FILTER (WHERE s.status = 'CANCELADA'), 0),
+       0
+FROM sales s
+GROUP BY CAST(s.sale_date AS DATE), s.seller_id, s.type;
+
+-- Devoluciones confirmadas, imputadas al día de la devolución.
+INSERT INTO sales_rollup_seller_daily AS r (sale_day, seller_id, sale_type, sale_count, total_amount,
+                                            cancelled_count, cancelled_amount, returned_amount)
+SELECT CAST(sr.return_date AS DATE), s.seller_id, s.type, 0, 0, 0, 0, SUM(sr.total_refund_amount)
+FROM sale_returns sr
+JOIN sales s ON s.id = sr.sale_id
+WHERE sr.status = 'CONFIRMED'
+GROUP BY CAST(sr.return_date AS DATE), s.seller_id, s.type
+ON CONFLICT (sale_day, seller_id, sale_type)
+DO UPDATE SET returned_amount = r.returned_amount + EXCLUDED.returned_amount;
+
+-- Neto por producto: ventas no anuladas menos devoluciones confirmadas (en su propio día).
+INSERT INTO sales_rollup_product_daily (sale_day, product_id, quantity, amount)
+SELECT day, product_id, SUM(quantity), SUM(amount)
+FROM (
+    SELECT CAST(s.sale_date AS DATE) AS day, d.product_id, d.quantity, d.subtotal AS amount
+    FROM sale_details d
+    JOIN sales s ON s.id = d.sale_id
+    WHERE s.status <> 'CANCELADA'
+    UNION ALL
+    SELECT CAST(sr.return_date AS DATE), d.product_id, -rd.quantity, -rd.subtotal
+    FROM sale_return_details rd
+    JOIN sale_returns sr ON sr.id = rd.sale_return_id
+    JOIN sale_details d ON d.id = rd.original_sale_detail_id
+    WHERE sr.status = 'CONFIRMED'
+) movements
+GROUP BY day, product_id;
+
+COMMIT;
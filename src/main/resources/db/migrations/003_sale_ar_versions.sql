@@ -0,0 +1,9 @@
+-- Columnas @Version de sales y accounts_receivable (ETag y bloqueo optimista).
+-- Aplicar antes de desplegar: ddl-auto=update no puede agregar una columna NOT NULL a tablas con datos.
+
+BEGIN;
+
+ALTER TABLE sales ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,27 @@
+-- Punteros de vencimiento en accounts_receivable e índices del job diario de vencimientos.
+-- Aplicar antes de desplegar; el backfill marca además las cuotas ya vencidas.
+
+BEGIN;
+
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS next_due_date DATE;
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS overdue_since DATE;
+
+CREATE INDEX IF NOT EXISTS idx_ar_next_due_date ON accounts_receivable (next_due_date);
+CREATE INDEX IF NOT EXISTS idx_installments_status_due ON installments (status, due_date);
+
+UPDATE installments i SET status = 'OVERDUE'
+WHERE i.status IN ('PENDING', 'PARTIAL') AND i.due_date < CURRENT_DATE
+  AND EXISTS (SELECT 1 FROM accounts_receivable ar WHERE ar.id = i.accounts_receivable_id AND ar.status = 'ACTIVE');
+
+UPDATE accounts_receivable ar SET
+    next_due_date = p.next_due_date,
+    overdue_since = CASE WHEN p.next_due_date < CURRENT_DATE THEN p.next_due_date END
+FROM (
+    SELECT accounts_receivable_id, MIN(due_date) AS next_due_date
+    FROM installments
+    WHERE status <> 'PAID'
+    GROUP BY accounts_receivable_id
+) p
+WHERE p.accounts_receivable_id = ar.id AND ar.status = 'ACTIVE';
+
+COMMIT;
@@ -0,0 +1,10 @@
+-- Mora devengada por cuota (accrued_penalty al día penalty_accrued_on).
+-- Aplicar antes de desplegar; después ejecutar el devengo una vez (o esperar al job nocturno)
+-- para poblar las cuotas ya vencidas.
+
+BEGIN;
+
+ALTER TABLE installments ADD COLUMN IF NOT EXISTS accrued_penalty DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE installments ADD COLUMN IF NOT EXISTS penalty_accrued_on DATE;
+
+COMMIT;
@@ -0,0 +1,8 @@
+-- Índice parcial para el reporte de antigüedad de saldos (GET /api/store/accounts-receivable/aging).
+-- Cubre sólo las cuotas impagas e incluye los montos, así el agregado se resuelve con un index-only scan
+-- sin tocar el heap de installments. Hibernate no puede declarar índices parciales: sólo existe aquí.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_installments_unpaid
+    ON installments (accounts_receivable_id, due_date)
+    INCLUDE (expected_amount, paid_amount)
+    WHERE status <> 'PAID';
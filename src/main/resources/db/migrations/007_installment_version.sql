@@ -0,0 +1,8 @@
+-- Columna @Version de installments (bloqueo optimista en cobros).
+-- Aplicar antes de desplegar: ddl-auto=update no puede agregar una columna NOT NULL a tablas con datos.
+
+BEGIN;
+
+ALTER TABLE installments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,5 @@
+-- Índices de la importación de extractos bancarios: detección de operaciones ya registradas
+-- y búsqueda de ventas por serie y número de comprobante.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_collections_reference ON collections (reference_number);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sales_documents_series_number ON sales_documents (series, number);
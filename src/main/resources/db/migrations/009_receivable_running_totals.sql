@@ -0,0 +1,39 @@
+-- Totales desnormalizados en accounts_receivable: paid_amount, paid_penalty, balance y last_payment_at.
+-- Aplicar antes de desplegar; el backfill es el mismo cálculo que hace ReceivableTotalsRebuildService.
+
+BEGIN;
+
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS paid_amount DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS paid_penalty DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS balance DOUBLE PRECISION;
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS last_payment_at TIMESTAMP;
+
+UPDATE accounts_receivable ar SET
+    paid_amount = COALESCE(c.paid_amount, 0),
+    last_payment_at = c.last_payment_at
+FROM (
+    SELECT accounts_receivable_id, ROUND(SUM(amount) * 100) / 100 AS paid_amount,
+           MAX(collection_date) AS last_payment_at
+    FROM collections
+    WHERE status <> 'ANULADO'
+    GROUP BY accounts_receivable_id
+) c
+WHERE c.accounts_receivable_id = ar.id;
+
+UPDATE accounts_receivable ar SET
+    paid_penalty = ROUND(COALESCE(i.paid_penalty, 0) * 100) / 100,
+    balance = ROUND((ar.total_amount - COALESCE(i.paid_amount, 0)) * 100) / 100
+FROM (
+    SELECT accounts_receivable_id, SUM(paid_penalty) AS paid_penalty, SUM(paid_amount) AS paid_amount
+    FROM installments
+    GROUP BY accounts_receivable_id
+) i
+WHERE i.accounts_receivable_id = ar.id;
+
+UPDATE accounts_receivable SET balance = total_amount WHERE balance IS NULL;
+
+ALTER TABLE accounts_receivable ALTER COLUMN balance SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_ar_status_balance ON accounts_receivable (status, balance);
+
+COMMIT;
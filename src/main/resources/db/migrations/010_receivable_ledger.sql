@@ -0,0 +1,61 @@
+-- Libro de eventos por cuenta (receivable_events), snapshots periódicos y contador event_sequence.
+-- Aplicar antes de desplegar. El backfill reconstruye un CHARGE por cuota y un PAYMENT por cobro vigente,
+-- en orden de fecha; las cuentas históricas no traen eventos de mora ni de anulación, así que su replay es
+-- aproximado hasta el primer evento nuevo (el estado persistido en las tablas sigue siendo la referencia).
+
+BEGIN;
+
+ALTER TABLE accounts_receivable ADD COLUMN IF NOT EXISTS event_sequence BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS receivable_events (
+    accounts_receivable_id BIGINT NOT NULL,
+    sequence_number BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    event_date DATE NOT NULL,
+    amount DOUBLE PRECISION NOT NULL,
+    installment_number INTEGER,
+    collection_id BIGINT,
+    occurred_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (accounts_receivable_id, sequence_number)
+);
+
+CREATE INDEX IF NOT EXISTS idx_receivable_events_collection ON receivable_events (collection_id);
+
+CREATE TABLE IF NOT EXISTS receivable_snapshots (
+    accounts_receivable_id BIGINT NOT NULL,
+    sequence_number BIGINT NOT NULL,
+    state TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (accounts_receivable_id, sequence_number)
+);
+
+INSERT INTO receivable_events (accounts_receivable_id, sequence_number, event_type, event_date, amount,
+                               installment_number, collection_id, occurred_at)
+SELECT e.accounts_receivable_id,
+       ROW_NUMBER() OVER (PARTITION BY e.accounts_receivable_id ORDER BY e.ord, e.occurred_at, e.tie),
+       e.event_type, e.event_date, e.amount, e.installment_number, e.collection_id, e.occurred_at
+FROM (
+    SELECT i.accounts_receivable_id, 0 AS ord, 'CHARGE' AS event_type, i.due_date AS event_date,
+           i.expected_amount AS amount, i.installment_number, NULL::BIGINT AS collection_id,
+           s.sale_date AS occurred_at, i.installment_number::BIGINT AS tie
+    FROM installments i
+    JOIN accounts_receivable ar ON ar.id = i.accounts_receivable_id
+    JOIN sales s ON s.id = ar.sale_id
+    UNION ALL
+    SELECT c.accounts_receivable_id, 1, 'PAYMENT', c.collection_date::DATE, c.amount,
+           ci.installment_number, c.id, c.collection_date, c.id
+    FROM collections c
+    LEFT JOIN installments ci ON ci.id = c.installment_id
+    WHERE c.status <> 'ANULADO'
+) e
+WHERE NOT EXISTS (SELECT 1 FROM receivable_events x WHERE x.accounts_receivable_id = e.accounts_receivable_id);
+
+UPDATE accounts_receivable ar SET event_sequence = s.last_sequence
+FROM (
+    SELECT accounts_receivable_id, MAX(sequence_number) AS last_sequence
+    FROM receivable_events
+    GROUP BY accounts_receivable_id
+) s
+WHERE s.accounts_receivable_id = ar.id AND ar.event_sequence < s.last_sequence;
+
+COMMIT;
@@ -0,0 +1,33 @@
+-- Exposición crediticia por cliente (client_credit_exposure), mantenida por ClientExposureService.
+-- Aplicar antes de desplegar. El backfill usa la misma definición que el servicio: saldo de las cuentas
+-- ACTIVE, saldo de sus cuotas OVERDUE y cantidad de cuentas ACTIVE.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS client_credit_exposure (
+    client_id BIGINT PRIMARY KEY,
+    outstanding_amount DOUBLE PRECISION NOT NULL,
+    overdue_amount DOUBLE PRECISION NOT NULL,
+    open_accounts BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO client_credit_exposure (client_id, outstanding_amount, overdue_amount, open_accounts, updated_at)
+SELECT s.client_id,
+       ROUND(SUM(ar.balance) * 100) / 100,
+       ROUND(COALESCE(SUM(o.overdue), 0) * 100) / 100,
+       COUNT(*),
+       NOW()
+FROM accounts_receivable ar
+JOIN sales s ON s.id = ar.sale_id
+LEFT JOIN (
+    SELECT accounts_receivable_id, SUM(expected_amount - paid_amount) AS overdue
+    FROM installments
+    WHERE status = 'OVERDUE'
+    GROUP BY accounts_receivable_id
+) o ON o.accounts_receivable_id = ar.id
+WHERE ar.status = 'ACTIVE' AND s.client_id IS NOT NULL
+GROUP BY s.client_id
+ON CONFLICT (client_id) DO NOTHING;
+
+COMMIT;
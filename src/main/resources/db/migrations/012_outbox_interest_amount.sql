@@ -0,0 +1,9 @@
+-- Interés financiado en el outbox contable: el asiento de una venta a crédito con tasa carga a la
+-- cuenta por cobrar venta más interés y abona el interés a intereses diferidos.
+-- Aplicar antes de desplegar: ddl-auto=update no puede agregar una columna NOT NULL a tablas con datos.
+
+BEGIN;
+
+ALTER TABLE accounting_outbox ADD COLUMN IF NOT EXISTS interest_amount DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,175 @@
+package com.nomos.store.service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.CollectionController.CollectionPayload;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.SalesDocumentType;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.service.SaleService;
+import com.nomos.store.service.service.SalesDocumentService;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+
+/**
+ * Carga HTTP concurrente sobre los endpoints de venta, cobro y PDF.
+ * Las subclases fijan el modo de hilos del servidor (plataforma o virtuales) para comparar ambos
+ * con la misma carga. Para comparar sin sesgo de JIT, correr cada modo en su propia JVM:
+ *   mvn test -Pbenchmark -Dtest=PlatformThreadsLoadBenchmark
+ *   mvn test -Pbenchmark -Dtest=VirtualThreadsLoadBenchmark
+ * Parámetros: -Dbench.concurrency, -Dbench.requests, -Dbench.warmup.
+ *
+ * Por defecto usa H2 en memoria; para cifras representativas apuntar a PostgreSQL con
+ * -Dspring.datasource.url=... (la espera de red de JDBC es donde los hilos virtuales marcan diferencia).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(TestJwtDecoderConfig.class)
+@Tag("benchmark")
+abstract class EndpointLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 200);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 2000);
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 200);
+    private static final int SALES_FOR_COLLECTIONS = 500;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesDocumentService salesDocumentService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void saleCollectionAndPdfEndpoints() throws Exception {
+        PaymentMethodConfig cash = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("EFECTIVO-" + System.nanoTime()).type("CASH").build());
+
+        long[] saleIds = new long[SALES_FOR_COLLECTIONS];
+        for (int i = 0; i < saleIds.length; i++) {
+            saleIds[i] = saleService.createSale(creditSale(5, 12)).getId();
+        }
+        long documentId = salesDocumentService.issueDocument(saleIds[0], SalesDocumentType.FACTURA).getId();
+
+        String saleBody = objectMapper.writeValueAsString(creditSale(5, 3));
+
+        String mode = virtualThreads ? "virtual" : "platform";
+        run(mode, "POST /api/store/sales", () -> send(post("/api/store/sales", saleBody)));
+        run(mode, "POST /api/store/collections", () -> {
+            CollectionPayload payload = new CollectionPayload();
+            payload.setSaleId(saleIds[ThreadLocalRandom.current().nextInt(saleIds.length)]);
+            payload.setAmount(0.01);
+            payload.setPaymentMethodId(cash.getId());
+            return send(post("/api/store/collections", objectMapper.writeValueAsString(payload)));
+        });
+        run(mode, "GET /api/sales-documents/{id}/pdf", () -> send(get("/api/sales-documents/" + documentId + "/pdf")));
+    }
+
+    private void run(String mode, String endpoint, Callable<Integer> call) throws Exception {
+        execute(call, WARMUP);
+
+        long start = System.nanoTime();
+        Result result = execute(call, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = result.latenciesNanos();
+        Arrays.sort(latencies);
+        System.out.printf("[%s] %-36s %5d req  %8.1f req/s  p50 %7.2f ms  p99 %7.2f ms  errores %d%n",
+                mode, endpoint, REQUESTS, REQUESTS / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), result.errors());
+    }
+
+    private Result execute(Callable<Integer> call, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < CONCURRENCY; w++) {
+                workers.add(clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = call.call();
+                            if (status >= 300) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer benchmark")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer benchmark")
+                .GET()
+                .build();
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(long[] latenciesNanos, int errors) {
+    }
+}
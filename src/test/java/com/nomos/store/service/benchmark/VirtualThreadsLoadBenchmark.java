@@ -0,0 +1,7 @@
+package com.nomos.store.service.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsLoadBenchmark extends EndpointLoadBenchmark {
+}
@@ -0,0 +1,169 @@
+package com.nomos.store.service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Primario y réplica son dos bases H2 en memoria distintas; {@code CURRENT_CATALOG} dice cuál atendió.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:nomos_primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "store.datasource.replica.enabled=true",
+        "store.datasource.replica.url=jdbc:h2:mem:nomos_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "store.datasource.replica.username=sa",
+        "store.datasource.replica.lag-query=SELECT 0",
+        "store.datasource.replica.lag-check-interval-ms=3600000"
+})
+@AutoConfigureObservability(tracing = false)
+@AutoConfigureMockMvc
+@Import({TestJwtDecoderConfig.class, ReadReplicaRoutingTest.ProbeConfig.class})
+class ReadReplicaRoutingTest {
+
+    private static final String CATALOG_SQL = "SELECT CURRENT_CATALOG";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ReplicaFallbackDataSource replicaFallbackDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void restoreReplica() {
+        replicaFallbackDataSource.markAvailable();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(catalog(true)).isEqualTo("nomos_replica");
+        assertThat(catalog(false)).isEqualTo("nomos_primary");
+        assertThat(jdbcTemplate.queryForObject(CATALOG_SQL, String.class)).isEqualTo("nomos_primary");
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Object viaJpa = readOnly.execute(status -> entityManager.createNativeQuery(CATALOG_SQL).getSingleResult());
+        assertThat(viaJpa).isEqualTo("nomos_replica");
+
+        replicaLagMonitor.check();
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void readOnlyTransactionsFallBackToPrimaryWhileReplicaIsDown() {
+        replicaFallbackDataSource.markUnavailable("test");
+        double before = meterRegistry.get("datasource.replica.fallbacks").functionCounter().count();
+
+        assertThat(catalog(true)).isEqualTo("nomos_primary");
+        assertThat(meterRegistry.get("datasource.replica.available").gauge().value()).isZero();
+        assertThat(meterRegistry.get("datasource.replica.fallbacks").functionCounter().count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void unreachableReplicaIsSkippedUntilRetryInterval() throws Exception {
+        DataSource missing = new DriverManagerDataSource("jdbc:h2:mem:nomos_missing;IFEXISTS=TRUE", "sa", "");
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:nomos_primary;DATABASE_TO_LOWER=TRUE", "sa", "");
+        ReplicaFallbackDataSource fallback = new ReplicaFallbackDataSource(missing, primary, 60_000);
+
+        try (Connection connection = fallback.getConnection()) {
+            assertThat(connection.getCatalog()).isEqualTo("nomos_primary");
+        }
+        assertThat(fallback.isReplicaAvailable()).isFalse();
+        assertThat(fallback.getFallbackCount()).isEqualTo(1);
+    }
+
+    /**
+     * Con open-in-view la sesión de Hibernate vive toda la solicitud; cada transacción debe pedir su
+     * propia conexión al proxy para que una lectura previa no deje la escritura en la réplica (ni al revés).
+     */
+    @Test
+    void transactionsWithinOneRequestAreRoutedIndependently() throws Exception {
+        mockMvc.perform(get("/test/replica-probe").header(HttpHeaders.AUTHORIZATION, "Bearer test"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"nomos_replica\",\"nomos_primary\",\"nomos_replica\"]"));
+    }
+
+    private String catalog(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject(CATALOG_SQL, String.class));
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+
+        @Bean
+        CatalogProbe catalogProbe(PlatformTransactionManager transactionManager, EntityManager entityManager) {
+            return new CatalogProbe(transactionManager, entityManager);
+        }
+    }
+
+    /**
+     * Lectura, escritura y lectura en la misma solicitud, vía JPA como los servicios. Al ser interna de
+     * una clase de prueba, el escaneo de la aplicación la ignora; sólo existe en este contexto.
+     */
+    @RestController
+    @RequestMapping("/test/replica-probe")
+    static class CatalogProbe {
+
+        private final PlatformTransactionManager transactionManager;
+        private final EntityManager entityManager;
+
+        CatalogProbe(PlatformTransactionManager transactionManager, EntityManager entityManager) {
+            this.transactionManager = transactionManager;
+            this.entityManager = entityManager;
+        }
+
+        @GetMapping
+        List<Object> probe() {
+            return List.of(catalog(true), catalog(false), catalog(true));
+        }
+
+        private Object catalog(boolean readOnly) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            return template.execute(status -> entityManager.createNativeQuery(CATALOG_SQL).getSingleResult());
+        }
+    }
+}
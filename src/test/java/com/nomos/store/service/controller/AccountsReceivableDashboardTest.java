@@ -0,0 +1,111 @@
+package com.nomos.store.service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.service.SaleService;
+import com.nomos.store.service.support.JdbcRoundTripCounter;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({TestJwtDecoderConfig.class, JdbcRoundTripCounter.class})
+class AccountsReceivableDashboardTest {
+
+    private static final String BEARER = "Bearer test";
+    private static final long CLIENT_ID = 7022L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    /**
+     * Cada página cuesta dos consultas (cuentas con venta y cuotas), sea de 5 o de 20 filas;
+     * las 45 cuentas del cliente se recorren completas siguiendo nextCursor.
+     */
+    @Test
+    void dashboardPagesCostTwoStatementsRegardlessOfSize() throws Exception {
+        List<Long> saleIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            saleIds.add(saleService.createSale(clientSale(LocalDateTime.now(), 3)).getId());
+        }
+        for (int i = 0; i < 15; i++) {
+            saleIds.add(saleService.createSale(clientSale(LocalDateTime.of(2001, 1, 10, 9, 0), 2)).getId());
+        }
+
+        for (int size : new int[]{5, 20}) {
+            counter.reset();
+            JsonNode page = dashboard("size", String.valueOf(size));
+            assertThat(page.get("items")).hasSize(size);
+            assertThat(page.get("items").get(0).get("installments")).isNotEmpty();
+            assertThat(counter.getStatements()).isEqualTo(2);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = cursor == null ? dashboard("size", "20") : dashboard("size", "20", "cursor", cursor);
+            page.get("items").forEach(row -> seen.add(row.get("saleId").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(saleIds);
+
+        JsonNode overdue = dashboard("overdue", "true", "size", "50");
+        assertThat(overdue.get("items")).hasSize(15);
+        assertThat(overdue.get("items").get(0).get("overdue").asBoolean()).isTrue();
+
+        JsonNode byBalance = dashboard("minBalance", "20", "maxBalance", "20", "status", "active", "size", "50");
+        assertThat(byBalance.get("items")).hasSize(45);
+        assertThat(dashboard("minBalance", "20.01", "size", "50").get("items")).isEmpty();
+
+        mockMvc.perform(get("/api/store/accounts-receivable/dashboard")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .param("status", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode dashboard(String... params) throws Exception {
+        var request = get("/api/store/accounts-receivable/dashboard")
+                .header(HttpHeaders.AUTHORIZATION, BEARER)
+                .param("clientId", String.valueOf(CLIENT_ID));
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static SaleCreationRequest clientSale(LocalDateTime date, int installments) {
+        SaleCreationRequest request = creditSale(1, installments);
+        request.setClientId(CLIENT_ID);
+        request.setSaleDate(date);
+        return request;
+    }
+}
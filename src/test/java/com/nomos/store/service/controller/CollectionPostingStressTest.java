@@ -0,0 +1,193 @@
+package com.nomos.store.service.controller;
+
+import com.nomos.store.service.controller.CollectionController.CollectionPayload;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.AccountsReceivableStatus;
+import com.nomos.store.service.model.Collection;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.CollectionRepository;
+import com.nomos.store.service.repository.InstallmentRepository;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.service.ReceivableWriteGuard;
+import com.nomos.store.service.service.SaleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CollectionPostingStressTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int PAYMENTS_PER_ACCOUNT = 250;
+    /** 10 líneas de 20.00 = 200.00 por venta; 250 cobros de 0.80 la cancelan exactamente. */
+    private static final double PAYMENT = 0.80;
+
+    @Autowired
+    private CollectionController collectionController;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentPaymentsAreAllAppliedExactly() throws Exception {
+        Long paymentMethodId = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Caja stress").type("CASH").build()).getId();
+        List<Long> saleIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            saleIds.add(saleService.createSale(creditSale(10, 12)).getId());
+        }
+
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(32)) {
+            for (int p = 0; p < PAYMENTS_PER_ACCOUNT; p++) {
+                for (Long saleId : saleIds) {
+                    CollectionPayload payload = new CollectionPayload();
+                    payload.setSaleId(saleId);
+                    payload.setAmount(PAYMENT);
+                    payload.setPaymentMethodId(paymentMethodId);
+                    results.add(pool.submit(() -> collectionController.createCollection(null, payload)));
+                }
+            }
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+
+        for (Long saleId : saleIds) {
+            AccountsReceivable ar = arRepository.findBySaleId(saleId).orElseThrow();
+            long paidCents = installmentRepository.findByAccountsReceivableId(ar.getId()).stream()
+                    .mapToLong(i -> Money.toCents(i.getPaidAmount()))
+                    .sum();
+            assertThat(paidCents).isEqualTo(20_000);
+            assertThat(collectionRepository.findBySaleId(saleId)).hasSize(PAYMENTS_PER_ACCOUNT);
+            assertThat(ar.getStatus()).isEqualTo(AccountsReceivableStatus.PAID);
+            assertThat(installmentRepository.findByAccountsReceivableId(ar.getId()))
+                    .extracting(Installment::getVersion)
+                    .allMatch(v -> v > 0);
+        }
+    }
+
+    @Test
+    void versionConflictsAreRetriedUpToTheLimit() {
+        ReceivableWriteGuard guard = new ReceivableWriteGuard(new SimpleMeterRegistry(), 4, 3, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = guard.execute(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Sale.class, 1L);
+            }
+            return "ok";
+        });
+        assertThat(result).isEqualTo("ok");
+
+        attempts.set(0);
+        assertThatThrownBy(() -> guard.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Sale.class, 1L);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    /**
+     * Dos transacciones leen la misma cuenta sin el lock de franja, como dos instancias: la que confirma
+     * segunda choca con el {@code @Version} real y withRetry la repite releyendo la cuenta.
+     */
+    @Test
+    void concurrentLoadOutsideStripeLockIsRetriedAfterVersionConflict() throws Exception {
+        PaymentMethodConfig cash = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Caja conflicto").type("CASH").build());
+        Long saleId = saleService.createSale(creditSale(1, 2)).getId();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReceivableWriteGuard guard = new ReceivableWriteGuard(registry, 4, 5, 0);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch bothLoaded = new CountDownLatch(2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            for (int i = 0; i < 2; i++) {
+                results.add(pool.submit(() -> guard.withRetry(() -> transaction.execute(status -> {
+                    AccountsReceivable ar = arRepository.findBySaleId(saleId).orElseThrow();
+                    ar.getInstallments().size();
+                    // Sólo los dos primeros intentos se esperan: los reintentos ya ven la versión nueva.
+                    if (attempts.incrementAndGet() <= 2) {
+                        arriveAndAwait(bothLoaded);
+                    }
+                    Collection collection = Collection.builder()
+                            .sale(ar.getSale())
+                            .accountsReceivable(ar)
+                            .amount(5.0)
+                            .paymentMethod(cash)
+                            .collectionDate(LocalDateTime.now())
+                            .status("ACTIVO")
+                            .build();
+                    ar.applyPayment(collection, null, LocalDate.now());
+                    return collectionRepository.save(collection);
+                }))));
+            }
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+
+        assertThat(registry.get("receivables.write.conflicts").counter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(attempts.get()).isGreaterThanOrEqualTo(3);
+
+        AccountsReceivable ar = arRepository.findBySaleId(saleId).orElseThrow();
+        assertThat(ar.getPaidAmount()).isEqualTo(10.0);
+        assertThat(collectionRepository.findBySaleId(saleId)).hasSize(2);
+        assertThat(installmentRepository.findByAccountsReceivableId(ar.getId()).stream()
+                .mapToLong(i -> Money.toCents(i.getPaidAmount()))
+                .sum()).isEqualTo(1_000);
+    }
+
+    private static void arriveAndAwait(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.nomos.store.service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.CollectionController.CollectionPayload;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.service.SaleService;
+import com.nomos.store.service.support.JdbcRoundTripCounter;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({TestJwtDecoderConfig.class, JdbcRoundTripCounter.class})
+class SaleControllerTest {
+
+    private static final String BEARER = "Bearer test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    /**
+     * Un sondeo con el ETag vigente se resuelve con 304 y una sola consulta; un cobro
+     * incrementa la versión de la cuenta por cobrar y el mismo ETag deja de coincidir.
+     */
+    @Test
+    void conditionalGetReturnsNotModifiedUntilCollectionIsPosted() throws Exception {
+        Sale sale = saleService.createSale(creditSale(3, 2));
+        PaymentMethodConfig cash = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Efectivo ETag").type("CASH").build());
+        String url = "/api/store/sales/" + sale.getId();
+
+        String etag = mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, BEARER))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        counter.reset();
+        mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, BEARER).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(counter.getRoundTrips()).isEqualTo(1);
+
+        CollectionPayload payment = new CollectionPayload();
+        payment.setSaleId(sale.getId());
+        payment.setAmount(10.0);
+        payment.setPaymentMethodId(cash.getId());
+        mockMvc.perform(post("/api/store/collections")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment)))
+                .andExpect(status().isCreated());
+
+        String newEtag = mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, BEARER).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
+    @Test
+    void exportStreamsCsvAttachment() throws Exception {
+        var result = mockMvc.perform(get("/api/store/sales/export")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .param("from", "2001-01-01")
+                        .param("to", "2001-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ventas_2001-01-01_2001-01-31.csv\""))
+                .andExpect(content().string(startsWith("saleId,saleDate,")));
+
+        mockMvc.perform(get("/api/store/sales/export")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .param("from", "2001-02-01")
+                        .param("to", "2001-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
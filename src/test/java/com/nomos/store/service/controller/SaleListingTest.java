@@ -0,0 +1,286 @@
+package com.nomos.store.service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.CollectionController.CollectionPayload;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.controller.SaleController.SaleListFilter;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.model.SalesDocumentType;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.repository.SaleRepository;
+import com.nomos.store.service.repository.SaleSummary;
+import com.nomos.store.service.service.SaleService;
+import com.nomos.store.service.service.SalesDocumentService;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listado paginado por cursor (keyset) de GET /api/store/sales. Cada prueba usa su propio vendedor
+ * para no depender de las ventas que dejan otras clases en el mismo contexto.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestJwtDecoderConfig.class)
+class SaleListingTest {
+
+    private static final String BEARER = "Bearer test";
+    private static final LocalDateTime SAME_DATE = LocalDateTime.of(2024, 3, 15, 10, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesDocumentService salesDocumentService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Con muchas ventas en la misma fecha el desempate por id mantiene el orden estable:
+     * recorrer las páginas con nextCursor devuelve cada venta una sola vez y sin huecos.
+     */
+    @Test
+    void cursorWalksEqualSaleDatesWithoutDuplicatesOrGaps() throws Exception {
+        long sellerId = 9101L;
+        List<SaleCreationRequest> requests = new ArrayList<>();
+        IntStream.range(0, 7).forEach(i -> requests.add(sale(sellerId, 1L, SAME_DATE)));
+        IntStream.range(0, 3).forEach(i -> requests.add(sale(sellerId, 1L, SAME_DATE.minusDays(1))));
+        List<Long> ids = saleService.createSales(requests);
+
+        List<Long> expected = new ArrayList<>();
+        expected.addAll(ids.subList(0, 7).stream().sorted(Comparator.reverseOrder()).toList());
+        expected.addAll(ids.subList(7, 10).stream().sorted(Comparator.reverseOrder()).toList());
+
+        List<Long> seen = walk(Map.of("sellerId", String.valueOf(sellerId)), 3);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void invalidOrTamperedCursorIsRejected() throws Exception {
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-03-15T10:00|no-es-un-id".getBytes(StandardCharsets.UTF_8));
+        String missingId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-03-15T10:00".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("%%%no-base64%%%", tampered, missingId)) {
+            mockMvc.perform(get("/api/store/sales")
+                            .param("cursor", cursor)
+                            .header(HttpHeaders.AUTHORIZATION, BEARER))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    /**
+     * Sin tamaño (o con uno no positivo) la página es de 50; un tamaño mayor se recorta a 200.
+     */
+    @Test
+    void pageSizeIsClampedToDefaultAndMaximum() throws Exception {
+        long sellerId = 9102L;
+        saleService.createSales(IntStream.range(0, 205)
+                .mapToObj(i -> sale(sellerId, 1L, SAME_DATE.plusMinutes(i)))
+                .toList());
+
+        JsonNode byDefault = page(Map.of("sellerId", String.valueOf(sellerId)), null, null);
+        assertThat(byDefault.get("items")).hasSize(50);
+        assertThat(byDefault.get("nextCursor").isNull()).isFalse();
+
+        JsonNode nonPositive = page(Map.of("sellerId", String.valueOf(sellerId)), null, 0);
+        assertThat(nonPositive.get("items")).hasSize(50);
+
+        JsonNode capped = page(Map.of("sellerId", String.valueOf(sellerId)), null, 1000);
+        assertThat(capped.get("items")).hasSize(200);
+        assertThat(capped.get("nextCursor").isNull()).isFalse();
+
+        JsonNode rest = page(Map.of("sellerId", String.valueOf(sellerId)), capped.get("nextCursor").asText(), 1000);
+        assertThat(rest.get("items")).hasSize(5);
+        assertThat(rest.get("nextCursor").isNull()).isTrue();
+    }
+
+    /**
+     * Los filtros se aplican en cada página: el cursor solo indica dónde seguir, no reemplaza el filtro.
+     */
+    @Test
+    void filtersCombineWithCursor() throws Exception {
+        long sellerId = 9103L;
+        long clientId = 9203L;
+        List<SaleCreationRequest> requests = new ArrayList<>();
+        for (int day = 0; day < 6; day++) {
+            requests.add(sale(sellerId, clientId, SAME_DATE.plusDays(day)));
+            requests.add(sale(sellerId, clientId, SAME_DATE.plusDays(day)));
+            requests.add(sale(sellerId, 1L, SAME_DATE.plusDays(day)));
+        }
+        List<Long> ids = saleService.createSales(requests);
+        // Se anula una venta del cliente dentro del rango: no debe aparecer con status=EMITIDA.
+        saleService.cancelSale(ids.get(3));
+
+        // Rango: días 1 a 4 (SAME_DATE + 1 .. SAME_DATE + 4), solo el cliente y ventas emitidas.
+        List<Long> expected = new ArrayList<>();
+        for (int day = 4; day >= 1; day--) {
+            List<Long> ofDay = new ArrayList<>(List.of(ids.get(day * 3), ids.get(day * 3 + 1)));
+            ofDay.remove(ids.get(3));
+            ofDay.sort(Comparator.reverseOrder());
+            expected.addAll(ofDay);
+        }
+
+        List<Long> seen = walk(Map.of(
+                "sellerId", String.valueOf(sellerId),
+                "clientId", String.valueOf(clientId),
+                "status", "emitida",
+                "from", SAME_DATE.plusDays(1).toLocalDate().toString(),
+                "to", SAME_DATE.plusDays(4).toLocalDate().toString()), 2);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    /**
+     * La proyección calcula en SQL lo que la entidad deriva en Java; ambos deben coincidir con cobros
+     * anulados, pagos parciales, cuotas vencidas y ventas con y sin comprobante.
+     */
+    @Test
+    void summaryFieldsMatchEntityGetters() throws Exception {
+        long sellerId = 9104L;
+        Long cash = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Efectivo listado " + System.nanoTime()).type("CASH").build()).getId();
+
+        Long withDocument = saleService.createSale(sale(sellerId, 1L, LocalDateTime.now())).getId();
+        salesDocumentService.issueDocument(withDocument, SalesDocumentType.FACTURA);
+
+        Long partiallyPaid = saleService.createSale(sale(sellerId, 1L, LocalDateTime.now())).getId();
+        postCollection(partiallyPaid, 10.0, cash);
+
+        Long voidedCollection = saleService.createSale(sale(sellerId, 1L, LocalDateTime.now())).getId();
+        long collectionId = postCollection(voidedCollection, 20.0, cash);
+        mockMvc.perform(delete("/api/store/collections/" + collectionId)
+                        .header(HttpHeaders.AUTHORIZATION, BEARER))
+                .andExpect(status().isNoContent());
+
+        SaleCreationRequest pastDue = creditSale(1, 3);
+        pastDue.setSellerId(sellerId);
+        pastDue.setSaleDate(LocalDateTime.now().minusDays(90));
+        Long overdue = saleService.createSale(pastDue).getId();
+
+        SaleListFilter filter = new SaleListFilter();
+        filter.setSellerId(sellerId);
+        List<SaleSummary> rows = saleService.findPage(filter, null, 50).getItems();
+        assertThat(rows).extracting(SaleSummary::getId)
+                .containsExactlyInAnyOrder(withDocument, partiallyPaid, voidedCollection, overdue);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (SaleSummary row : rows) {
+                Sale entity = saleRepository.findById(row.getId()).orElseThrow();
+                assertThat(row.getPaidAmount()).as("paidAmount venta %d", row.getId()).isEqualTo(entity.getPaidAmount());
+                assertThat(row.getBalance()).as("balance venta %d", row.getId()).isEqualTo(entity.getBalance());
+                assertThat(row.getOverdue()).as("overdue venta %d", row.getId()).isEqualTo(entity.isOverdue());
+                assertThat(row.getHasFiscalDocument()).as("hasFiscalDocument venta %d", row.getId())
+                        .isEqualTo(entity.hasFiscalDocument());
+            }
+        });
+
+        // Los casos deben ejercitar ambos valores de cada campo, no sólo coincidir.
+        SaleSummary partial = summary(rows, partiallyPaid);
+        assertThat(partial.getPaidAmount()).isEqualTo(10.0);
+        assertThat(partial.getBalance()).isEqualTo(10.0);
+        SaleSummary voided = summary(rows, voidedCollection);
+        assertThat(voided.getPaidAmount()).isEqualTo(0.0);
+        assertThat(voided.getBalance()).isEqualTo(20.0);
+        assertThat(summary(rows, overdue).getOverdue()).isTrue();
+        assertThat(partial.getOverdue()).isFalse();
+        assertThat(summary(rows, withDocument).getHasFiscalDocument()).isTrue();
+        assertThat(partial.getHasFiscalDocument()).isFalse();
+    }
+
+    private long postCollection(Long saleId, double amount, Long paymentMethodId) throws Exception {
+        CollectionPayload payload = new CollectionPayload();
+        payload.setSaleId(saleId);
+        payload.setAmount(amount);
+        payload.setPaymentMethodId(paymentMethodId);
+        String json = mockMvc.perform(post("/api/store/collections")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payload)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
+    private static SaleSummary summary(List<SaleSummary> rows, Long id) {
+        return rows.stream().filter(r -> r.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    private List<Long> walk(Map<String, String> filter, int size) throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode body = page(filter, cursor, size);
+            assertThat(body.get("items").size()).isLessThanOrEqualTo(size);
+            body.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = body.get("nextCursor").isNull() ? null : body.get("nextCursor").asText();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private JsonNode page(Map<String, String> filter, String cursor, Integer size) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/store/sales")
+                .header(HttpHeaders.AUTHORIZATION, BEARER);
+        filter.forEach(request::param);
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        if (size != null) {
+            request.param("size", String.valueOf(size));
+        }
+        String json = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private static SaleCreationRequest sale(long sellerId, long clientId, LocalDateTime saleDate) {
+        SaleCreationRequest request = creditSale(1, 1);
+        request.setSellerId(sellerId);
+        request.setClientId(clientId);
+        request.setSaleDate(saleDate);
+        return request;
+    }
+}
@@ -0,0 +1,63 @@
+package com.nomos.store.service.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void toCentsAbsorbsBinaryDrift() {
+        assertThat(Money.toCents(33.330000000000005)).isEqualTo(3333);
+        assertThat(Money.toCents(0.1 + 0.2)).isEqualTo(30);
+        assertThat(Money.toCents(-2.675)).isEqualTo(-268);
+        assertThat(Money.toCents((Double) null)).isZero();
+    }
+
+    @Test
+    void divideHonoursRoundingMode() {
+        assertThat(Money.divide(1000, 3, RoundingMode.HALF_UP)).isEqualTo(333);
+        assertThat(Money.divide(1000, 3, RoundingMode.UP)).isEqualTo(334);
+        assertThat(Money.divide(5, 2, RoundingMode.HALF_UP)).isEqualTo(3);
+        assertThat(Money.divide(5, 2, RoundingMode.HALF_EVEN)).isEqualTo(2);
+        assertThat(Money.divide(-5, 2, RoundingMode.HALF_UP)).isEqualTo(-3);
+        assertThat(Money.divide(-5, 2, RoundingMode.FLOOR)).isEqualTo(-3);
+        assertThat(Money.divide(-5, 2, RoundingMode.CEILING)).isEqualTo(-2);
+        assertThatThrownBy(() -> Money.divide(5, 2, RoundingMode.UNNECESSARY)).isInstanceOf(ArithmeticException.class);
+    }
+
+    /** Con dobles, 0.1 + 0.2 - 0.3 deja un residuo; en céntimos el asiento cuadra exacto. */
+    @Test
+    void journalEntryBalancesToTheCent() {
+        AccountingJournalEntry entry = new AccountingJournalEntry();
+        entry.setLines(List.of(
+                AccountingJournalLine.builder().debit(0.1 + 0.2).credit(0.0).build(),
+                AccountingJournalLine.builder().debit(0.0).credit(0.3).build()));
+        assertThat(entry.isBalanced()).isTrue();
+
+        entry.setLines(List.of(
+                AccountingJournalLine.builder().debit(100.0).credit(0.0).build(),
+                AccountingJournalLine.builder().debit(0.0).credit(99.99).build()));
+        assertThat(entry.isBalanced()).isFalse();
+    }
+
+    @Test
+    void installmentPaymentLeavesExactRemainder() {
+        Installment installment = Installment.builder()
+                .dueDate(LocalDate.now().plusDays(10))
+                .expectedAmount(33.33)
+                .status(InstallmentStatus.PENDING)
+                .build();
+
+        long remaining = installment.applyPayment(Money.toCents(50.0), LocalDate.now());
+
+        assertThat(remaining).isEqualTo(1667);
+        assertThat(installment.getPaidAmount()).isEqualTo(33.33);
+        assertThat(installment.getStatus()).isEqualTo(InstallmentStatus.PAID);
+    }
+}
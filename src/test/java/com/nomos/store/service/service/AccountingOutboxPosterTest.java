@@ -0,0 +1,139 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.AccountingJournalEntry;
+import com.nomos.store.service.model.AccountingJournalLine;
+import com.nomos.store.service.model.AccountingOutboxEvent;
+import com.nomos.store.service.model.AccountingOutboxStatus;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountingJournalEntryRepository;
+import com.nomos.store.service.repository.AccountingOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "store.accounting.outbox.max-attempts=2")
+class AccountingOutboxPosterTest {
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private AccountingOutboxPoster poster;
+
+    @Autowired
+    private AccountingOutboxRepository outboxRepository;
+
+    @Autowired
+    private AccountingJournalEntryRepository journalRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private AccountingService accountingService;
+
+    @Test
+    void postsSaleEntryFromOutbox() {
+        Sale sale = saleService.createSale(creditSale(3, 2));
+        String reference = "SALE-" + sale.getId();
+
+        assertThat(journalRepository.findByReferenceDocument(reference)).isEmpty();
+
+        while (poster.postPending() > 0) {
+            // vaciar el outbox
+        }
+
+        List<AccountingJournalEntry> entries = journalRepository.findByReferenceDocument(reference);
+        assertThat(entries).hasSize(1);
+
+        AccountingOutboxEvent event = outboxRepository.findByReferenceDocument(reference).get(0);
+        assertThat(event.getStatus()).isEqualTo(AccountingOutboxStatus.POSTED);
+        assertThat(event.getJournalEntryId()).isEqualTo(entries.get(0).getId());
+    }
+
+    /**
+     * Venta a crédito con interés: el DEBE de la cuenta por cobrar del asiento es el total financiado
+     * y el interés queda abonado en intereses diferidos.
+     */
+    @Test
+    void interestBearingSaleEntryMatchesReceivableTotal() {
+        SaleCreationRequest request = creditSale(1, 12);
+        request.setAnnualRate(12.0);
+        request.setAmortization("french");
+        Sale sale = saleService.createSale(request);
+        double receivableTotal = sale.getAccountsReceivable().getTotalAmount();
+        assertThat(receivableTotal).isGreaterThan(sale.getTotalAmount());
+
+        while (poster.postPending() > 0) {
+            // vaciar el outbox
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            AccountingJournalEntry entry = journalRepository.findByReferenceDocument("SALE-" + sale.getId()).get(0);
+            assertThat(entry.isBalanced()).isTrue();
+            assertThat(line(entry, "12.1").getDebit()).isEqualTo(receivableTotal);
+            assertThat(Money.toCents(line(entry, "49.6").getCredit()))
+                    .isEqualTo(Money.toCents(receivableTotal) - Money.toCents(sale.getTotalAmount()));
+        });
+    }
+
+    /**
+     * Un asiento que la base rechaza hace fallar el lote entero: el resto del lote se contabiliza evento por
+     * evento y el venenoso acumula intentos (en una transacción aparte) hasta quedar FAILED.
+     */
+    @Test
+    void poisonEventIsIsolatedAndEventuallyFails() {
+        Sale good = saleService.createSale(creditSale(1, 1));
+        Sale poison = saleService.createSale(creditSale(2, 1));
+        String poisonReference = "SALE-" + poison.getId();
+        doAnswer(invocation -> {
+            List<AccountingJournalEntry> entries = invocation.getArgument(0);
+            if (entries.stream().anyMatch(e -> poisonReference.equals(e.getReferenceDocument()))) {
+                throw new IllegalStateException("asiento rechazado");
+            }
+            return invocation.callRealMethod();
+        }).when(accountingService).createEntries(anyList());
+
+        while (poster.postPending() >= poster.getBatchSize()) {
+            // vaciar el outbox
+        }
+
+        assertThat(journalRepository.findByReferenceDocument("SALE-" + good.getId())).hasSize(1);
+        assertThat(outboxRepository.findByReferenceDocument("SALE-" + good.getId()).get(0).getStatus())
+                .isEqualTo(AccountingOutboxStatus.POSTED);
+        AccountingOutboxEvent event = outboxRepository.findByReferenceDocument(poisonReference).get(0);
+        assertThat(event.getStatus()).isEqualTo(AccountingOutboxStatus.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getLastError()).isEqualTo("asiento rechazado");
+        assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now());
+
+        event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(event);
+        poster.postPending();
+
+        event = outboxRepository.findByReferenceDocument(poisonReference).get(0);
+        assertThat(event.getStatus()).isEqualTo(AccountingOutboxStatus.FAILED);
+        assertThat(event.getAttempts()).isEqualTo(2);
+        assertThat(journalRepository.findByReferenceDocument(poisonReference)).isEmpty();
+    }
+
+    private static AccountingJournalLine line(AccountingJournalEntry entry, String accountCode) {
+        return entry.getLines().stream()
+                .filter(l -> accountCode.equals(l.getAccountCode()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
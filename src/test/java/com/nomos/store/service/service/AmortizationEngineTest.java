@@ -0,0 +1,65 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.service.AmortizationEngine.Frequency;
+import com.nomos.store.service.service.AmortizationEngine.Line;
+import com.nomos.store.service.service.AmortizationEngine.Method;
+import com.nomos.store.service.service.AmortizationEngine.Plan;
+import com.nomos.store.service.service.AmortizationEngine.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 1,000.00 a 12 meses con TEA equivalente al 1 % mensual.
+ */
+class AmortizationEngineTest {
+
+    private static final LocalDate BASE = LocalDate.of(2026, 1, 31);
+    private static final double ONE_PERCENT_MONTHLY = (Math.pow(1.01, 12) - 1) * 100;
+
+    @Test
+    void frenchScheduleHasConstantPaymentAndExactCapital() {
+        Schedule schedule = AmortizationEngine.schedule(new Plan(12, ONE_PERCENT_MONTHLY, Method.FRENCH, Frequency.MONTHLY), 100_000, BASE);
+
+        assertThat(schedule.lines()).hasSize(12);
+        assertThat(schedule.lines().get(0)).isEqualTo(new Line(1, LocalDate.of(2026, 2, 28), 8885, 7885, 1000, 92_115));
+        assertThat(schedule.lines().subList(0, 11)).allMatch(l -> l.paymentCents() == 8885);
+        assertThat(schedule.lines().get(11)).isEqualTo(new Line(12, LocalDate.of(2027, 1, 31), 8884, 8796, 88, 0));
+        assertThat(schedule.lines().stream().mapToLong(Line::capitalCents).sum()).isEqualTo(100_000);
+        assertThat(schedule.interestCents()).isEqualTo(6619);
+        assertThat(schedule.totalCents()).isEqualTo(106_619);
+    }
+
+    @Test
+    void germanScheduleHasConstantCapital() {
+        Schedule schedule = AmortizationEngine.schedule(new Plan(12, ONE_PERCENT_MONTHLY, Method.GERMAN, Frequency.MONTHLY), 100_000, BASE);
+
+        assertThat(schedule.lines().subList(0, 11)).allMatch(l -> l.capitalCents() == 8333);
+        assertThat(schedule.lines().get(0).paymentCents()).isEqualTo(9333);
+        assertThat(schedule.lines().get(11).capitalCents()).isEqualTo(8337);
+        assertThat(schedule.interestCents()).isEqualTo(6500);
+    }
+
+    @Test
+    void zeroRateMatchesEqualSplitAndFrequencyDrivesDueDates() {
+        Schedule schedule = AmortizationEngine.schedule(Plan.of(3, null, "german", "biweekly"), 10_000, BASE);
+
+        assertThat(schedule.lines()).extracting(Line::paymentCents).containsExactly(3333L, 3333L, 3334L);
+        assertThat(schedule.lines()).extracting(Line::dueDate)
+                .containsExactly(BASE.plusWeeks(2), BASE.plusWeeks(4), BASE.plusWeeks(6));
+        assertThat(schedule.interestCents()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidPlans() {
+        assertThatThrownBy(() -> Plan.of(361, 10.0, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Plan.of(12, -1.0, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Plan.of(12, 10.0, "american", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Plan.of(12, 10.0, null, "daily")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AmortizationEngine.schedule(Plan.of(12, 10.0, null, null), 0, BASE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
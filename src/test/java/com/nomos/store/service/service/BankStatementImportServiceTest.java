@@ -0,0 +1,153 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.model.SalesDocument;
+import com.nomos.store.service.model.SalesDocumentType;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.service.BankStatementImportService.Format;
+import com.nomos.store.service.service.BankStatementImportService.ImportReport;
+import com.nomos.store.service.service.BankStatementImportService.RowResult;
+import com.nomos.store.service.service.BankStatementImportService.RowStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BankStatementImportServiceTest {
+
+    @Autowired
+    private BankStatementImportService importService;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesDocumentService salesDocumentService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long bankId;
+
+    @BeforeEach
+    void bankAccount() {
+        bankId = paymentMethodRepository.save(PaymentMethodConfig.builder().name("BCP cta. cte. " + System.nanoTime()).type("TRANSFER").build()).getId();
+    }
+
+    @Test
+    void reconcilesByReferenceDocumentAndAmount() throws Exception {
+        Sale bySale = saleService.createSale(creditSale(1, 1));
+        Sale byDocument = saleService.createSale(creditSale(1, 1));
+        SalesDocument invoice = salesDocumentService.issueDocument(byDocument.getId(), SalesDocumentType.FACTURA);
+        Sale byAmount = saleService.createSale(singleInstallment(37.21));
+        Sale ambiguousA = saleService.createSale(singleInstallment(41.13));
+        Sale ambiguousB = saleService.createSale(singleInstallment(41.13));
+
+        String statement = String.join("\n",
+                "fecha,monto,operacion,referencia",
+                "2026-05-02,5.00,OP-1001,DEP VENTA-" + bySale.getId(),
+                "2026-05-02,20.00,OP-1002,PAGO " + invoice.getSeries() + "-" + Long.parseLong(invoice.getNumber()) + ", cliente 1",
+                "2026-05-02,37.21,OP-1003,",
+                "2026-05-02,37.21,OP-1006,VISA 2024",
+                "2026-05-02,41.13,OP-1004,transferencia",
+                "2026-05-02,999.98,OP-1005,",
+                "2026-05-02,5.00,OP-1001,DEP VENTA-" + bySale.getId(),
+                "no es una fila");
+
+        ImportReport report = importService.importStatement(stream(statement), Format.CSV, bankId);
+
+        assertThat(report.getRows()).extracting(RowResult::getStatus).containsExactly(
+                RowStatus.MATCHED, RowStatus.MATCHED, RowStatus.MATCHED, RowStatus.AMBIGUOUS, RowStatus.AMBIGUOUS,
+                RowStatus.UNMATCHED, RowStatus.DUPLICATE, RowStatus.INVALID);
+        assertThat(report.getRows()).filteredOn(r -> r.getStatus() == RowStatus.MATCHED)
+                .extracting(RowResult::getSaleId)
+                .containsExactly(bySale.getId(), byDocument.getId(), byAmount.getId());
+        // "VISA 2024" no es una referencia de venta; la cuota de 37.21 ya la usó OP-1003.
+        assertThat(report.getRows().get(3).getCandidateSaleIds()).containsExactly(byAmount.getId());
+        assertThat(report.getRows().get(4).getCandidateSaleIds()).containsExactly(ambiguousA.getId(), ambiguousB.getId());
+        assertThat(report.getMatchedAmount()).isEqualTo(62.21);
+
+        assertThat(balance(bySale)).isEqualTo(15.0);
+        assertThat(balance(byDocument)).isEqualTo(0.0);
+        assertThat(balance(byAmount)).isEqualTo(0.0);
+        assertThat(balance(ambiguousA)).isEqualTo(41.13);
+
+        ImportReport again = importService.importStatement(stream("2026-05-02,5.00,OP-1001,DEP VENTA-" + bySale.getId()), Format.CSV, bankId);
+        assertThat(again.getDuplicates()).isEqualTo(1);
+        assertThat(balance(bySale)).isEqualTo(15.0);
+    }
+
+    @Test
+    void importsTenThousandLinesInChunks() throws Exception {
+        // 20 ventas de 1000.00; 500 depósitos de 2.00 por venta.
+        List<Long> saleIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            saleIds.add(saleService.createSale(creditSale(50, 12)).getId());
+        }
+        StringBuilder statement = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            statement.append(String.format("20260503%015d%-12s%s%n", 200, "F" + i, "VENTA" + saleIds.get(i % saleIds.size())));
+        }
+
+        ImportReport report = importService.importStatement(stream(statement.toString()), Format.FIXED, bankId);
+
+        assertThat(report.getMatched()).isEqualTo(10_000);
+        assertThat(report.getMatchedAmount()).isEqualTo(20_000.0);
+        for (Long saleId : saleIds) {
+            assertThat(balance(saleId)).isEqualTo(0.0);
+        }
+    }
+
+    @Test
+    void parsesFixedWidthLines() {
+        BankStatementImportService.StatementRow row = BankStatementImportService.parseFixed(
+                1, "20260504000000000012345OP-77       Pago F001-00000012");
+
+        assertThat(row.date()).isEqualTo(LocalDate.of(2026, 5, 4));
+        assertThat(row.amountCents()).isEqualTo(12_345);
+        assertThat(row.operation()).isEqualTo("OP-77");
+        assertThat(row.reference()).isEqualTo("Pago F001-00000012");
+    }
+
+    private Double balance(Sale sale) {
+        return balance(sale.getId());
+    }
+
+    private Double balance(Long saleId) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                arRepository.findBySaleId(saleId).orElseThrow().getBalance());
+    }
+
+    private static SaleCreationRequest singleInstallment(double amount) {
+        SaleCreationRequest request = creditSale(1, 1);
+        request.getDetails().get(0).setUnitPrice(amount);
+        request.getDetails().get(0).setQuantity(1);
+        request.getDetails().get(0).setSubtotal(amount);
+        return request;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
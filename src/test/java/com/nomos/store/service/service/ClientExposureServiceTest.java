@@ -0,0 +1,173 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.CollectionController.CollectionPayload;
+import com.nomos.store.service.controller.SaleController.SaleBatchResult;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.InstallmentStatus;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.InstallmentRepository;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.support.JdbcRoundTripCounter;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cliente 501 con límite de 100.00: una venta de enero de 1990 (20.00 en tres cuotas) que el job de
+ * vencimientos deja con dos cuotas vencidas y una venta del día de 40.00.
+ */
+@SpringBootTest(properties = "store.credit.limit=100")
+@AutoConfigureMockMvc
+@Import({TestJwtDecoderConfig.class, JdbcRoundTripCounter.class})
+class ClientExposureServiceTest {
+
+    private static final String BEARER = "Bearer test";
+    private static final long CLIENT = 501L;
+    private static final long BATCH_CLIENT = 502L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SaleBatchService saleBatchService;
+
+    @Autowired
+    private ClientExposureService exposureService;
+
+    @Autowired
+    private InstallmentOverdueService overdueService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    @Test
+    void exposureFollowsSalesCollectionsOverdueAndCancellationAndGatesCredit() throws Exception {
+        Sale old = saleService.createSale(sale(1, 3, LocalDateTime.of(1990, 1, 10, 9, 0)));
+        Sale current = saleService.createSale(sale(2, 2, LocalDateTime.now()));
+        assertExposure(60.0, 0.0, 2);
+
+        overdueService.markOverdue(LocalDate.of(1990, 3, 20));
+        Long oldArId = arRepository.findBySaleId(old.getId()).orElseThrow().getId();
+        long overdueCents = installmentRepository.findByAccountsReceivableId(oldArId).stream()
+                .filter(i -> i.getStatus() == InstallmentStatus.OVERDUE)
+                .mapToLong(i -> Money.toCents(i.getExpectedAmount()))
+                .sum();
+        assertThat(overdueCents).isPositive();
+        assertExposure(60.0, Money.toAmount(overdueCents), 2);
+
+        counter.reset();
+        assertThatThrownBy(() -> saleService.createSale(sale(3, 1, LocalDateTime.now())))
+                .isInstanceOf(ClientExposureService.CreditLimitExceededException.class)
+                .hasMessageContaining("Límite de crédito excedido");
+        // INSERT ... ON CONFLICT DO NOTHING de la fila del cliente y SELECT ... FOR UPDATE.
+        assertThat(counter.getRoundTrips()).isEqualTo(2);
+        mockMvc.perform(post("/api/store/sales")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sale(3, 1, LocalDateTime.now()))))
+                .andExpect(status().isConflict());
+
+        saleService.createSale(sale(2, 1, LocalDateTime.now()));
+        assertExposure(100.0, Money.toAmount(overdueCents), 3);
+
+        pay(current.getId(), 10.0);
+        assertExposure(90.0, Money.toAmount(overdueCents), 3);
+
+        mockMvc.perform(patch("/api/store/sales/" + old.getId() + "/cancel").header(HttpHeaders.AUTHORIZATION, BEARER))
+                .andExpect(status().isOk());
+        assertExposure(70.0, 0.0, 2);
+    }
+
+    /**
+     * Tres ventas de 40.00 de un cliente nuevo en el mismo bloque: juntas superan el límite, así que el
+     * bloque se rechaza y, venta por venta, la tercera queda con 409.
+     */
+    @Test
+    void batchChecksCreditLimitWithSalesOfTheSameChunk() {
+        List<SaleCreationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SaleCreationRequest request = creditSale(2, 1);
+            request.setClientId(BATCH_CLIENT);
+            requests.add(request);
+        }
+
+        List<SaleBatchResult> results = saleBatchService.createSales(requests);
+
+        assertThat(results).extracting(SaleBatchResult::getStatus).containsExactly(201, 201, 409);
+        assertThat(results.get(2).getError()).contains("Límite de crédito excedido");
+        assertThat(exposureService.find(BATCH_CLIENT).outstandingAmount()).isEqualTo(80.0);
+    }
+
+    private void assertExposure(double outstanding, double overdue, long openAccounts) throws Exception {
+        String body = mockMvc.perform(get("/api/store/clients/" + CLIENT + "/exposure")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode exposure = objectMapper.readTree(body);
+        assertThat(exposure.get("outstandingAmount").asDouble()).isEqualTo(outstanding);
+        assertThat(exposure.get("overdueAmount").asDouble()).isEqualTo(overdue);
+        assertThat(exposure.get("openAccounts").asLong()).isEqualTo(openAccounts);
+        assertThat(exposure.get("availableCredit").asDouble()).isEqualTo(Math.max(0.0, 100.0 - outstanding));
+    }
+
+    private void pay(Long saleId, double amount) throws Exception {
+        PaymentMethodConfig cash = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Caja exposición " + System.nanoTime()).type("CASH").build());
+        CollectionPayload payment = new CollectionPayload();
+        payment.setSaleId(saleId);
+        payment.setAmount(amount);
+        payment.setPaymentMethodId(cash.getId());
+        mockMvc.perform(post("/api/store/collections")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment)))
+                .andExpect(status().isCreated());
+    }
+
+    private static SaleCreationRequest sale(int lines, int installments, LocalDateTime date) {
+        SaleCreationRequest request = creditSale(lines, installments);
+        request.setClientId(CLIENT);
+        request.setSaleDate(date);
+        return request;
+    }
+}
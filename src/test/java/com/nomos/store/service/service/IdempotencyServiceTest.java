@@ -0,0 +1,149 @@
+package com.nomos.store.service.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void retryReplaysStoredResponseWithoutRunningActionAgain() {
+        AtomicInteger runs = new AtomicInteger();
+        Map<String, Object> request = Map.of("saleId", 1);
+
+        ResponseEntity<?> first = idempotencyService.execute("TEST", "replay-1", request, created(runs));
+        ResponseEntity<?> retry = idempotencyService.execute("TEST", "replay-1", request, created(runs));
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void keyReusedWithDifferentBodyIsRejected() {
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute("TEST", "reuse-1", Map.of("amount", 10), created(runs));
+
+        ResponseEntity<?> reused = idempotencyService.execute("TEST", "reuse-1", Map.of("amount", 20), created(runs));
+
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void errorResponsesAreNotStored() {
+        AtomicInteger runs = new AtomicInteger();
+        Map<String, Object> request = Map.of("saleId", 2);
+
+        ResponseEntity<?> failed = idempotencyService.execute("TEST", "error-1", request, () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.badRequest().body("rechazada");
+        });
+        ResponseEntity<?> retry = idempotencyService.execute("TEST", "error-1", request, created(runs));
+
+        assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void concurrentRequestsWithSameKeyRunActionOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Supplier<ResponseEntity<?>> slow = () -> {
+            runs.incrementAndGet();
+            sleep(200);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 1));
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                responses.add(pool.submit(() -> {
+                    start.await();
+                    return idempotencyService.execute("TEST", "same-1", Map.of(), slow);
+                }));
+            }
+            start.countDown();
+            long replayed = 0;
+            for (Future<ResponseEntity<?>> f : responses) {
+                ResponseEntity<?> response = f.get(10, TimeUnit.SECONDS);
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+                if (response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) replayed++;
+            }
+            assertThat(runs).hasValue(1);
+            assertThat(replayed).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(idempotencyService.lockedKeys()).isZero();
+    }
+
+    /**
+     * "Aa" y "BB" tienen el mismo hashCode: con locks por franja compartirían lock. La acción de la primera
+     * clave espera a que corra la de la segunda, así que sólo termina si no se serializan.
+     */
+    @Test
+    void unrelatedKeysDoNotWaitForEachOther() throws Exception {
+        assertThat("TEST:Aa".hashCode()).isEqualTo("TEST:BB".hashCode());
+        CountDownLatch secondRan = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> first = pool.submit(() -> idempotencyService.execute("TEST", "Aa", Map.of(), () -> {
+                try {
+                    return secondRan.await(5, TimeUnit.SECONDS)
+                            ? ResponseEntity.ok("ok") : ResponseEntity.internalServerError().body("serializada");
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            Future<ResponseEntity<?>> second = pool.submit(() -> idempotencyService.execute("TEST", "BB", Map.of(), () -> {
+                secondRan.countDown();
+                return ResponseEntity.ok("ok");
+            }));
+
+            assertThat(second.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(first.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Supplier<ResponseEntity<?>> created(AtomicInteger runs) {
+        return () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 1));
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.InstallmentStatus;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.InstallmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ventas de enero de 1990 con tres cuotas mensuales (10 de febrero, marzo y abril); el tramo de 2
+ * cuentas obliga a recorrer varios rangos.
+ */
+@SpringBootTest(properties = "store.receivables.overdue.chunk-size=2")
+class InstallmentOverdueServiceTest {
+
+    private static final LocalDate REFERENCE = LocalDate.of(1990, 3, 20);
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private InstallmentOverdueService overdueService;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Test
+    void marksPastDueInstallmentsOfActiveAccountsInChunks() {
+        List<Sale> active = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            active.add(saleService.createSale(saleOn(LocalDateTime.of(1990, 1, 10, 9, 0))));
+        }
+        Sale cancelled = saleService.createSale(saleOn(LocalDateTime.of(1990, 1, 10, 9, 0)));
+        saleService.cancelSale(cancelled.getId());
+
+        int marked = overdueService.markOverdue(REFERENCE);
+
+        assertThat(marked).isEqualTo(6);
+        for (Sale sale : active) {
+            AccountsReceivable ar = arRepository.findBySaleId(sale.getId()).orElseThrow();
+            assertThat(ar.getVersion()).isGreaterThan(sale.getAccountsReceivable().getVersion());
+            assertThat(ar.getOverdueSince()).isEqualTo(LocalDate.of(1990, 2, 10));
+            assertThat(ar.getNextDueDate()).isEqualTo(LocalDate.of(1990, 2, 10));
+            assertThat(installmentRepository.findByAccountsReceivableId(ar.getId()))
+                    .extracting(i -> i.getStatus())
+                    .containsExactlyInAnyOrder(InstallmentStatus.OVERDUE, InstallmentStatus.OVERDUE, InstallmentStatus.PENDING);
+        }
+
+        AccountsReceivable cancelledAr = arRepository.findBySaleId(cancelled.getId()).orElseThrow();
+        assertThat(cancelledAr.getNextDueDate()).isNull();
+        assertThat(installmentRepository.findByAccountsReceivableId(cancelledAr.getId()))
+                .allMatch(i -> i.getStatus() == InstallmentStatus.PENDING);
+
+        assertThat(overdueService.markOverdue(REFERENCE)).isZero();
+    }
+
+    private static SaleCreationRequest saleOn(LocalDateTime date) {
+        SaleCreationRequest request = creditSale(1, 3);
+        request.setSaleDate(date);
+        return request;
+    }
+}
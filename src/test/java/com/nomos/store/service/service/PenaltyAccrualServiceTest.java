@@ -0,0 +1,87 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.InstallmentRepository;
+import com.nomos.store.service.repository.ReceivableSnapshotRepository;
+import com.nomos.store.service.service.ReceivableLedger.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Venta de 20.00 en tres cuotas (6.67, 6.67, 6.66) con vencimientos el 10 de febrero, marzo y abril de 1991.
+ * Con snapshots cada 4 eventos, el devengo (cuarto evento, tras los tres cargos) escribe uno.
+ */
+@SpringBootTest(properties = "store.receivables.ledger.snapshot-interval=4")
+class PenaltyAccrualServiceTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(1991, 3, 12);
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private PenaltyAccrualService accrualService;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Autowired
+    private ReceivableSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void storesPenaltyAsOfDateAndIsRepeatable() throws Exception {
+        SaleCreationRequest request = creditSale(1, 3);
+        request.setSaleDate(LocalDateTime.of(1991, 1, 10, 9, 0));
+        Sale sale = saleService.createSale(request);
+        Long arId = sale.getAccountsReceivable().getId();
+
+        accrualService.accrue(AS_OF);
+
+        List<Installment> installments = installments(arId);
+        // 30 días sobre 6.67: 667 * 0.9 % = 6.003 céntimos -> 0.06; la segunda lleva 2 días (0.4 céntimos -> 0).
+        assertThat(installments.get(0).getPenaltyAmount()).isEqualTo(0.06);
+        assertThat(installments.get(0).getPenaltyAccruedOn()).isEqualTo(AS_OF);
+        assertThat(installments.get(1).getPenaltyAmount()).isEqualTo(0.0);
+        assertThat(installments.get(2).getPenaltyAccruedOn()).isNull();
+
+        State snapshot = objectMapper.readValue(snapshotRepository
+                .findFirstByIdAccountsReceivableIdAndIdSequenceNumberLessThanOrderByIdSequenceNumberDesc(arId, Long.MAX_VALUE)
+                .orElseThrow().getState(), State.class);
+        assertThat(snapshot.sequence()).isEqualTo(4);
+        assertThat(snapshot.installments().get(0).accruedPenalty()).isEqualTo(0.06);
+        assertThat(snapshot.installments().get(0).penaltyAccruedOn()).isEqualTo(AS_OF);
+
+        long version = arRepository.findById(arId).map(AccountsReceivable::getVersion).orElseThrow();
+        assertThat(version).isGreaterThan(sale.getAccountsReceivable().getVersion());
+
+        accrualService.accrue(AS_OF);
+        assertThat(installments(arId).get(0).getAccruedPenalty()).isEqualTo(0.06);
+        assertThat(arRepository.findById(arId).map(AccountsReceivable::getVersion).orElseThrow()).isEqualTo(version);
+    }
+
+    private List<Installment> installments(Long arId) {
+        return installmentRepository.findByAccountsReceivableId(arId).stream()
+                .sorted(Comparator.comparing(Installment::getNumber))
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.service.ReceivableAgingService.AgingRow;
+import com.nomos.store.service.service.ReceivableAgingService.GroupBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReceivableAgingServiceTest {
+
+    private static final long SELLER = 1018L;
+    private static final LocalDate AS_OF = LocalDate.of(1992, 4, 25);
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private ReceivableAgingService agingService;
+
+    @Test
+    void bucketsUnpaidInstallmentsByDaysPastDue() {
+        // 20.00 en tres cuotas: 10/02 (75 días), 10/03 (46 días) y 10/04 (15 días) al 25/04.
+        saleService.createSale(saleOn(LocalDateTime.of(1992, 1, 10, 9, 0), 3));
+        // Cuota única que vence el 20/05: corriente.
+        saleService.createSale(saleOn(LocalDateTime.of(1992, 4, 20, 9, 0), 1));
+        Long cancelled = saleService.createSale(saleOn(LocalDateTime.of(1991, 6, 1, 9, 0), 1)).getId();
+        saleService.cancelSale(cancelled);
+
+        List<AgingRow> rows = agingService.aging(AS_OF, GroupBy.SELLER);
+
+        AgingRow seller = rows.stream().filter(r -> Long.valueOf(SELLER).equals(r.getGroupId())).findFirst().orElseThrow();
+        assertThat(seller.getInstallments()).isEqualTo(4);
+        assertThat(seller.getCurrent()).isEqualTo(20.0);
+        assertThat(seller.getDays1To30()).isEqualTo(6.66);
+        assertThat(seller.getDays31To60()).isEqualTo(6.67);
+        assertThat(seller.getDays61To90()).isEqualTo(6.67);
+        assertThat(seller.getOver90()).isEqualTo(0.0);
+        assertThat(seller.getTotal()).isEqualTo(40.0);
+
+        assertThat(agingService.toCsv(List.of(seller), GroupBy.SELLER).lines())
+                .containsExactly("sellerId,installments,current,days1To30,days31To60,days61To90,over90,total",
+                        "1018,4,20.00,6.66,6.67,6.67,0.00,40.00");
+    }
+
+    private static SaleCreationRequest saleOn(LocalDateTime date, int installments) {
+        SaleCreationRequest request = creditSale(1, installments);
+        request.setSellerId(SELLER);
+        request.setSaleDate(date);
+        return request;
+    }
+}
@@ -0,0 +1,159 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.CollectionController.CollectionPayload;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.InstallmentStatus;
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.model.ReceivableEvent;
+import com.nomos.store.service.model.ReceivableEventType;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.CollectionRepository;
+import com.nomos.store.service.repository.InstallmentRepository;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.repository.ReceivableEventRepository;
+import com.nomos.store.service.repository.ReceivableSnapshotRepository;
+import com.nomos.store.service.service.ReceivableLedger.InstallmentState;
+import com.nomos.store.service.service.ReceivableLedger.State;
+import com.nomos.store.service.support.TestJwtDecoderConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Venta de 20.00 en dos cuotas de 10.00 y tres cobros de 6.00. Con un snapshot cada 3 eventos,
+ * el libro queda: cargos (1, 2), pagos (3, 4, 5), con snapshot en la secuencia 3.
+ */
+@SpringBootTest(properties = "store.receivables.ledger.snapshot-interval=3")
+@AutoConfigureMockMvc
+@Import(TestJwtDecoderConfig.class)
+class ReceivableLedgerServiceTest {
+
+    private static final String BEARER = "Bearer test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private ReceivableLedgerService ledgerService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Autowired
+    private ReceivableEventRepository eventRepository;
+
+    @Autowired
+    private ReceivableSnapshotRepository snapshotRepository;
+
+    @Test
+    void voidReplaysTailFromSnapshotAndReallocatesLaterPayments() throws Exception {
+        PaymentMethodConfig cash = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Caja libro " + System.nanoTime()).type("CASH").build());
+        Sale sale = saleService.createSale(creditSale(1, 2));
+        Long first = pay(sale.getId(), cash.getId());
+        Long second = pay(sale.getId(), cash.getId());
+        pay(sale.getId(), cash.getId());
+        Long arId = arRepository.findBySaleId(sale.getId()).orElseThrow().getId();
+        assertThat(snapshotSequences(arId)).containsExactly(3L);
+
+        voidCollection(second);
+
+        assertThat(eventRepository.findTail(arId, 0)).extracting(ReceivableEvent::getType).containsExactly(
+                ReceivableEventType.CHARGE, ReceivableEventType.CHARGE,
+                ReceivableEventType.PAYMENT, ReceivableEventType.PAYMENT, ReceivableEventType.PAYMENT,
+                ReceivableEventType.VOID);
+        assertThat(snapshotSequences(arId)).containsExactly(3L, 6L);
+        assertThat(collectionRepository.findById(second).orElseThrow().getStatus()).isEqualTo("ANULADO");
+        assertThat(installments(arId)).extracting(Installment::getPaidAmount).containsExactly(10.0, 2.0);
+        assertThat(installments(arId)).extracting(Installment::getStatus)
+                .containsExactly(InstallmentStatus.PAID, InstallmentStatus.PARTIAL);
+        AccountsReceivable ar = arRepository.findById(arId).orElseThrow();
+        assertThat(ar.getPaidAmount()).isEqualTo(12.0);
+        assertThat(ar.getBalance()).isEqualTo(8.0);
+        assertMatchesLedger(ar);
+
+        mockMvc.perform(delete("/api/store/collections/" + second).header(HttpHeaders.AUTHORIZATION, BEARER))
+                .andExpect(status().isBadRequest());
+
+        voidCollection(first);
+
+        assertThat(snapshotSequences(arId)).containsExactly(7L);
+        assertThat(installments(arId)).extracting(Installment::getPaidAmount).containsExactly(6.0, 0.0);
+        ar = arRepository.findById(arId).orElseThrow();
+        assertThat(ar.getPaidAmount()).isEqualTo(6.0);
+        assertThat(ar.getBalance()).isEqualTo(14.0);
+        assertMatchesLedger(ar);
+    }
+
+    private void assertMatchesLedger(AccountsReceivable ar) {
+        State state = ledgerService.currentState(ar.getId());
+        assertThat(state.sequence()).isEqualTo(ar.getEventSequence());
+        assertThat(state.paidAmount()).isEqualTo(ar.getPaidAmount());
+        assertThat(state.balance()).isEqualTo(ar.getBalance());
+        assertThat(state.installments()).extracting(InstallmentState::paidAmount)
+                .containsExactlyElementsOf(installments(ar.getId()).stream().map(Installment::getPaidAmount).toList());
+    }
+
+    private List<Installment> installments(Long arId) {
+        return installmentRepository.findByAccountsReceivableId(arId).stream()
+                .sorted(Comparator.comparing(Installment::getNumber))
+                .toList();
+    }
+
+    private List<Long> snapshotSequences(Long arId) {
+        return snapshotRepository.findByIdAccountsReceivableIdOrderByIdSequenceNumber(arId).stream()
+                .map(s -> s.getId().getSequenceNumber())
+                .toList();
+    }
+
+    private Long pay(Long saleId, Long paymentMethodId) throws Exception {
+        CollectionPayload payment = new CollectionPayload();
+        payment.setSaleId(saleId);
+        payment.setAmount(6.0);
+        payment.setPaymentMethodId(paymentMethodId);
+        String body = mockMvc.perform(post("/api/store/collections")
+                        .header(HttpHeaders.AUTHORIZATION, BEARER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payment)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private void voidCollection(Long collectionId) throws Exception {
+        mockMvc.perform(delete("/api/store/collections/" + collectionId).header(HttpHeaders.AUTHORIZATION, BEARER))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,52 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.model.PaymentMethodConfig;
+import com.nomos.store.service.repository.PaymentMethodConfigRepository;
+import com.nomos.store.service.support.JdbcRoundTripCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureObservability(tracing = false)
+@Import(JdbcRoundTripCounter.class)
+class ReferenceDataServiceTest {
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private PaymentMethodConfigRepository paymentMethodRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    @Test
+    void paymentMethodIsReadOnceUntilEvicted() {
+        PaymentMethodConfig saved = paymentMethodRepository.save(
+                PaymentMethodConfig.builder().name("Yape").type("DIGITAL").build());
+        referenceDataService.evictPaymentMethods();
+        counter.reset();
+
+        referenceDataService.findPaymentMethod(saved.getId());
+        referenceDataService.findPaymentMethod(saved.getId());
+        assertThat(counter.getRoundTrips()).isEqualTo(1);
+
+        referenceDataService.evictPaymentMethods();
+        assertThat(referenceDataService.findPaymentMethod(saved.getId())).isPresent();
+        assertThat(counter.getRoundTrips()).isEqualTo(2);
+
+        double hits = meterRegistry.get("cache.gets")
+                .tags("cache", ReferenceDataService.PAYMENT_METHODS, "result", "hit")
+                .functionCounter().count();
+        assertThat(hits).isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleBatchResult;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.repository.AccountsReceivableRepository;
+import com.nomos.store.service.repository.InstallmentRepository;
+import com.nomos.store.service.repository.SaleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Lote de 5 ventas en bloques de 3: la venta 1 pasa la validación pero viola un NOT NULL al insertar
+ * (hace fallar su bloque, que se reintenta venta por venta) y la venta 4 no pasa la validación.
+ */
+@SpringBootTest(properties = "store.sales.batch.chunk-size=3")
+class SaleBatchServiceTest {
+
+    @Autowired
+    private SaleBatchService saleBatchService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private AccountsReceivableRepository arRepository;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Test
+    void failedChunkFallsBackToSingleSalesAndKeepsTheRest() {
+        SaleCreationRequest broken = creditSale(2, 1);
+        broken.getDetails().get(1).setTaxRateId(null);
+        SaleCreationRequest invalid = creditSale(1, 1);
+        invalid.setDetails(List.of());
+
+        List<SaleBatchResult> results = saleBatchService.createSales(List.of(
+                creditSale(1, 1), broken, creditSale(1, 2), creditSale(1, 3), invalid));
+
+        assertThat(results).extracting(SaleBatchResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.get(1).getSaleId()).isNull();
+        assertThat(results.get(1).getError()).isNotBlank();
+        assertThat(results.get(4).getSaleId()).isNull();
+        assertThat(results.get(4).getError()).isEqualTo("La venta debe tener al menos un detalle");
+        for (int i : new int[]{0, 2, 3}) {
+            assertThat(results.get(i).getError()).isNull();
+            assertThat(saleRepository.findById(results.get(i).getSaleId())).isPresent();
+        }
+        Long arId = arRepository.findBySaleId(results.get(2).getSaleId()).orElseThrow().getId();
+        assertThat(installmentRepository.findByAccountsReceivableId(arId)).hasSize(2);
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThatThrownBy(() -> new SaleBatchService(null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("store.sales.batch.chunk-size");
+    }
+}
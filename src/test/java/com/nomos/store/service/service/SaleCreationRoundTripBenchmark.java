@@ -0,0 +1,48 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+
+/**
+ * Viajes a la base de datos por {@link SaleService#createSale}: venta a crédito de 30 líneas y 12 cuotas.
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@SpringBootTest
+@Import(JdbcRoundTripCounter.class)
+@Tag("benchmark")
+class SaleCreationRoundTripBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    @Test
+    void roundTripsPerCreateSale() {
+        for (int i = 0; i < WARMUP; i++) {
+            saleService.createSale(creditSale(30, 12));
+        }
+
+        counter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            saleService.createSale(creditSale(30, 12));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("createSale (30 lineas, 12 cuotas): %.1f viajes/venta, %.1f sentencias/venta, %.2f ms/venta%n",
+                counter.getRoundTrips() / (double) ITERATIONS,
+                counter.getStatements() / (double) ITERATIONS,
+                elapsed / 1_000_000.0 / ITERATIONS);
+    }
+}
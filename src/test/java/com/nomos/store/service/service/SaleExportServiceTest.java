@@ -0,0 +1,65 @@
+package com.nomos.store.service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SaleExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2001, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2001, 3, 31);
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SaleExportService saleExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsOneRowPerDetailLineWithinRange() throws Exception {
+        saleService.createSales(List.of(
+                saleOn(LocalDateTime.of(2001, 3, 1, 0, 0)),
+                saleOn(LocalDateTime.of(2001, 3, 31, 23, 59)),
+                saleOn(LocalDateTime.of(2001, 4, 1, 0, 0))));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long csvRows = saleExportService.export(FROM, TO, SaleExportService.Format.CSV, csv);
+
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(csvRows).isEqualTo(6);
+        assertThat(lines).hasSize(7);
+        assertThat(lines.get(0)).startsWith("saleId,saleDate,");
+        assertThat(lines.get(1)).contains(",FACTURA,CREDITO,EMITIDA,60.00,60.00,");
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        saleExportService.export(FROM, TO, SaleExportService.Format.NDJSON, ndjson);
+
+        List<String> records = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(records).hasSize(6);
+        JsonNode first = objectMapper.readTree(records.get(0));
+        assertThat(first.get("balance").decimalValue()).isEqualByComparingTo("60.00");
+        assertThat(first.get("subtotal").decimalValue()).isEqualByComparingTo("20.00");
+    }
+
+    private static SaleCreationRequest saleOn(LocalDateTime date) {
+        SaleCreationRequest request = creditSale(3, 2);
+        request.setSaleDate(date);
+        return request;
+    }
+}
@@ -0,0 +1,105 @@
+package com.nomos.store.service.service;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.model.AccountsReceivable;
+import com.nomos.store.service.model.Installment;
+import com.nomos.store.service.model.Money;
+import com.nomos.store.service.model.Sale;
+import com.nomos.store.service.repository.SaleDetailRepository;
+import com.nomos.store.service.repository.SalesRollupRepository.SellerTotals;
+import com.nomos.store.service.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.nomos.store.service.support.SaleFixtures.creditSale;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(JdbcRoundTripCounter.class)
+class SaleServiceTest {
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SaleDetailRepository saleDetailRepository;
+
+    @Autowired
+    private JdbcRoundTripCounter counter;
+
+    /**
+     * Fija el costo de escritura de una venta: venta, cuenta por cobrar, 12 cuotas, 30 detalles,
+     * el evento del outbox contable y los 12 cargos del libro de la cuenta salen en un único flush,
+     * un batch INSERT por tabla.
+     * Con los acumulados del día ya creados (la primera venta del día los inserta), su mantenimiento
+     * son sólo dos batch UPDATE: una fila de vendedor y 30 de producto; la exposición del cliente es
+     * un UPDATE más.
+     */
+    @Test
+    void createSalePersistsWholeAggregateInOneFlush() {
+        saleService.createSale(creditSale(30, 12));
+        counter.reset();
+
+        Sale sale = saleService.createSale(creditSale(30, 12));
+
+        assertThat(counter.getInserts()).isEqualTo(1 + 1 + 12 + 30 + 1 + 12);
+        assertThat(counter.getInsertRoundTrips()).isEqualTo(6);
+        assertThat(counter.getUpdates()).isEqualTo(1 + 30 + 1);
+        assertThat(counter.getUpdateRoundTrips()).isEqualTo(3);
+
+        assertThat(sale.getDetails()).hasSize(30);
+        assertThat(sale.getAccountsReceivable().getInstallments()).hasSize(12);
+        assertThat(saleDetailRepository.findBySaleId(sale.getId())).hasSize(30);
+    }
+
+    @Test
+    void rollupsFollowCreationAndCancellation() {
+        long sellerId = 9001L;
+        SaleCreationRequest first = creditSale(3, 1);
+        first.setSellerId(sellerId);
+        SaleCreationRequest second = creditSale(2, 1);
+        second.setSellerId(sellerId);
+
+        saleService.createSales(List.of(first, second));
+        Sale cancelled = saleService.createSale(second);
+        saleService.cancelSale(cancelled.getId());
+
+        LocalDate today = LocalDate.now();
+        List<SellerTotals> totals = salesRollupService.totalsBySeller(today, today, sellerId);
+
+        assertThat(totals).hasSize(1);
+        assertThat(totals.get(0).getSaleCount()).isEqualTo(3);
+        assertThat(totals.get(0).getCancelledCount()).isEqualTo(1);
+        assertThat(totals.get(0).getCancelledAmount()).isEqualTo(cancelled.getTotalAmount());
+    }
+
+    /**
+     * Una venta a crédito con interés persiste el cronograma del motor de amortización: capital e interés
+     * por cuota, y la cuenta por cobrar por el total financiado.
+     */
+    @Test
+    void creditSaleWithRatePersistsAmortizationSchedule() {
+        SaleCreationRequest request = creditSale(1, 12);
+        request.setAnnualRate((Math.pow(1.01, 12) - 1) * 100);
+        request.setAmortization("french");
+
+        AccountsReceivable ar = saleService.createSale(request).getAccountsReceivable();
+
+        assertThat(ar.getInstallments()).hasSize(12);
+        Installment first = ar.getInstallments().get(0);
+        assertThat(first.getCapitalAmount() + first.getInterestAmount()).isEqualTo(first.getExpectedAmount());
+        assertThat(first.getInterestAmount()).isEqualTo(0.20);
+        assertThat(Money.toCents(ar.getTotalAmount()))
+                .isEqualTo(ar.getInstallments().stream().mapToLong(i -> Money.toCents(i.getExpectedAmount())).sum());
+        assertThat(ar.getTotalAmount()).isGreaterThan(20.0);
+        assertThat(ar.getBalance()).isEqualTo(ar.getTotalAmount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.nomos.store.service.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuenta los viajes a la base de datos (cada execute/executeBatch es uno)
+ * y las sentencias SQL enviadas (un batch de N filas son N sentencias).
+ * Se importa en los tests con {@code @Import(JdbcRoundTripCounter.class)}.
+ */
+@TestConfiguration
+public class JdbcRoundTripCounter implements QueryExecutionListener {
+
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong insertRoundTrips = new AtomicLong();
+    private final AtomicLong inserts = new AtomicLong();
+    private final AtomicLong updateRoundTrips = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    @Bean
+    public static BeanPostProcessor roundTripCountingDataSource(JdbcRoundTripCounter counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds) {
+                    return ProxyDataSourceBuilder.create(ds).listener(counter).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long count = execInfo.isBatch() ? execInfo.getBatchSize() : queryInfoList.size();
+        roundTrips.incrementAndGet();
+        statements.addAndGet(count);
+
+        String sql = queryInfoList.get(0).getQuery().stripLeading().toLowerCase();
+        if (sql.startsWith("insert")) {
+            insertRoundTrips.incrementAndGet();
+            inserts.addAndGet(count);
+        } else if (sql.startsWith("update")) {
+            updateRoundTrips.incrementAndGet();
+            updates.addAndGet(count);
+        }
+    }
+
+    public void reset() {
+        roundTrips.set(0);
+        statements.set(0);
+        insertRoundTrips.set(0);
+        inserts.set(0);
+        updateRoundTrips.set(0);
+        updates.set(0);
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getInsertRoundTrips() {
+        return insertRoundTrips.get();
+    }
+
+    public long getInserts() {
+        return inserts.get();
+    }
+
+    public long getUpdateRoundTrips() {
+        return updateRoundTrips.get();
+    }
+
+    public long getUpdates() {
+        return updates.get();
+    }
+}
@@ -0,0 +1,37 @@
+package com.nomos.store.service.support;
+
+import com.nomos.store.service.controller.SaleController.SaleCreationRequest;
+import com.nomos.store.service.controller.SaleController.SaleRequestDetail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SaleFixtures {
+
+    private SaleFixtures() {
+    }
+
+    public static SaleCreationRequest creditSale(int lines, int installments) {
+        List<SaleRequestDetail> details = new ArrayList<>();
+        for (int i = 1; i <= lines; i++) {
+            SaleRequestDetail d = new SaleRequestDetail();
+            d.setProductId((long) i);
+            d.setUnitPrice(10.0);
+            d.setQuantity(2);
+            d.setSubtotal(20.0);
+            d.setTaxRateId(1L);
+            details.add(d);
+        }
+
+        SaleCreationRequest request = new SaleCreationRequest();
+        request.setClientId(1L);
+        request.setSellerId(1L);
+        request.setSaleDate(LocalDateTime.now());
+        request.setType("FACTURA");
+        request.setPaymentCondition("CREDITO");
+        request.setNumberOfInstallments(installments);
+        request.setDetails(details);
+        return request;
+    }
+}
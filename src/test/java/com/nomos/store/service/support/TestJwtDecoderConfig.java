@@ -0,0 +1,29 @@
+package com.nomos.store.service.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Decodificador JWT para tests HTTP: acepta cualquier token y le asigna ROLE_ADMIN.
+ */
+@TestConfiguration
+public class TestJwtDecoderConfig {
+
+    private static final String ROLES_CLAIM = "https://nomosstore.com/roles";
+
+    @Bean
+    public JwtDecoder jwtDecoder() {
+        return token -> Jwt.withTokenValue(token)
+                .header("alg", "none")
+                .subject("test-user")
+                .claim(ROLES_CLAIM, List.of("ROLE_ADMIN"))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+}